@@ -0,0 +1,77 @@
+package com.epam.ld.module2.testing.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds synthetic templates and variables for the benchmarks.
+ */
+final class BenchmarkTemplates {
+   private static final String ASCII_FILLER = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ";
+   private static final String LATIN1_FILLER = "À bientôt, mañana à ¿dónde? Grüße, ça va. ";
+
+   private BenchmarkTemplates() {
+   }
+
+   /**
+    * Builds a template text of about the given size with evenly spread placeholders.
+    *
+    * @param size             approximate template size in characters
+    * @param placeholderCount number of placeholder occurrences
+    * @param latin1Heavy      whether the literal text is mostly non-ASCII Latin-1
+    * @return the template text
+    */
+   static String templateText(int size, int placeholderCount, boolean latin1Heavy) {
+      String filler = latin1Heavy ? LATIN1_FILLER : ASCII_FILLER;
+      int segmentLength = Math.max(1, size / (placeholderCount + 1));
+      StringBuilder text = new StringBuilder(size + placeholderCount * 8);
+      for (int i = 0; i <= placeholderCount; i++) {
+         appendFiller(text, filler, segmentLength);
+         if (i < placeholderCount) {
+            text.append("#{p").append(i).append('}');
+         }
+      }
+      return text.toString();
+   }
+
+   /**
+    * Builds values for the placeholders of {@link #templateText(int, int, boolean)}.
+    *
+    * @param placeholderCount   number of placeholders
+    * @param runtimeTagPercent  share of values that are runtime tags, in percent
+    * @param latin1Heavy        whether the values are mostly non-ASCII Latin-1
+    * @return the variables
+    */
+   static Map<String, String> variables(int placeholderCount, int runtimeTagPercent, boolean latin1Heavy) {
+      Map<String, String> variables = new HashMap<>();
+      int runtimeTags = placeholderCount * runtimeTagPercent / 100;
+      for (int i = 0; i < placeholderCount; i++) {
+         String value = i < runtimeTags ? "#{tag" + i + "}" : (latin1Heavy ? "José Núñez " : "John Smith ") + i;
+         variables.put("p" + i, value);
+      }
+      return variables;
+   }
+
+   /**
+    * Builds an input text of the given size made of short lines.
+    *
+    * @param size input size in characters
+    * @return the input text
+    */
+   static String input(int size) {
+      StringBuilder input = new StringBuilder(size);
+      while (input.length() < size) {
+         input.append(ASCII_FILLER, 0, Math.min(ASCII_FILLER.length(), size - input.length()));
+         if (input.length() < size) {
+            input.append('\n');
+         }
+      }
+      return input.toString();
+   }
+
+   private static void appendFiller(StringBuilder text, String filler, int length) {
+      for (int i = 0; i < length; i++) {
+         text.append(filler.charAt(i % filler.length()));
+      }
+   }
+}
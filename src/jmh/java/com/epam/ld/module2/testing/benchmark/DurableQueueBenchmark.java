@@ -0,0 +1,76 @@
+package com.epam.ld.module2.testing.benchmark;
+
+import com.epam.ld.module2.testing.queue.DurableMessageQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append throughput of the durable outbound message queue on local disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DurableQueueBenchmark {
+
+   @Param({"128", "4096"})
+   public int messageSize;
+
+   private Path directory;
+   private DurableMessageQueue queue;
+   private String content;
+
+   /**
+    * Opens an empty queue in a temporary directory.
+    *
+    * @throws IOException if the queue cannot be opened
+    */
+   @Setup
+   public void setUp() throws IOException {
+      directory = Files.createTempDirectory("durable-queue-benchmark");
+      queue = new DurableMessageQueue(directory);
+      content = BenchmarkTemplates.input(messageSize);
+   }
+
+   /**
+    * Closes the queue and removes its files.
+    *
+    * @throws IOException if the files cannot be removed
+    */
+   @TearDown
+   public void tearDown() throws IOException {
+      queue.close();
+      try (Stream<Path> files = Files.walk(directory)) {
+         files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+      }
+   }
+
+   /**
+    * Appending one rendered message.
+    *
+    * @throws IOException if a segment cannot be created
+    */
+   @Benchmark
+   public void append() throws IOException {
+      queue.append("client@example.com", content);
+   }
+}
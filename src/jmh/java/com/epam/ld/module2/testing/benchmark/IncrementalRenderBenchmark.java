@@ -0,0 +1,106 @@
+package com.epam.ld.module2.testing.benchmark;
+
+import com.epam.ld.module2.testing.template.Bindings;
+import com.epam.ld.module2.testing.template.CompiledTemplate;
+import com.epam.ld.module2.testing.template.IncrementalRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full against incremental rendering of large templates where a few of many slots change between
+ * consecutive messages, as between recipients of a bulk send.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncrementalRenderBenchmark {
+
+   @Param({"65536", "1048576"})
+   public int templateSize;
+
+   @Param({"1", "2"})
+   public int changedPlaceholders;
+
+   @Param({"false", "true"})
+   public boolean sameLength;
+
+   private CompiledTemplate compiled;
+   private IncrementalRenderer renderer;
+   private final List<Map<String, String>> changes = new ArrayList<>();
+   private final Bindings[] bindings = new Bindings[2];
+   private int turn;
+
+   /**
+    * Prepares a template with 64 placeholders and two alternating sets of values.
+    */
+   @Setup
+   public void setUp() {
+      int placeholderCount = 64;
+      compiled = CompiledTemplate.compile(BenchmarkTemplates.templateText(templateSize, placeholderCount, false));
+      Map<String, String> variables = BenchmarkTemplates.variables(placeholderCount, 0, false);
+      changes.clear();
+      for (int i = 0; i < 2; i++) {
+         Map<String, String> changed = new HashMap<>();
+         for (int p = 0; p < changedPlaceholders; p++) {
+            String value = sameLength ? "Recipient " + i : "Recipient" + (i == 0 ? "" : " with a longer name");
+            changed.put("p" + p, value);
+         }
+         changes.add(changed);
+         Map<String, String> values = new HashMap<>(variables);
+         values.putAll(changed);
+         bindings[i] = Bindings.of(values);
+      }
+      renderer = new IncrementalRenderer(compiled, bindings[0]);
+   }
+
+   /**
+    * Rendering every message from scratch.
+    *
+    * @return the message
+    */
+   @Benchmark
+   public String fullRender() {
+      turn ^= 1;
+      return compiled.render(bindings[turn]);
+   }
+
+   /**
+    * Applying only the changed values.
+    *
+    * @return the message
+    */
+   @Benchmark
+   public String incrementalUpdate() {
+      turn ^= 1;
+      return renderer.update(changes.get(turn));
+   }
+
+   /**
+    * Rendering complete bindings, letting the renderer find the changed values.
+    *
+    * @return the message
+    */
+   @Benchmark
+   public String incrementalRender() {
+      turn ^= 1;
+      return renderer.render(bindings[turn]);
+   }
+}
@@ -0,0 +1,133 @@
+package com.epam.ld.module2.testing.benchmark;
+
+import com.epam.ld.module2.testing.Client;
+import com.epam.ld.module2.testing.MailServer;
+import com.epam.ld.module2.testing.Messenger;
+import com.epam.ld.module2.testing.template.Template;
+import com.epam.ld.module2.testing.template.TemplateEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of Messenger.sendMessage in console and file mode.
+ * Console mode reads from an in-memory stdin and writes to a discarding stdout.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessengerBenchmark {
+
+   @Param({"console", "file"})
+   public String mode;
+
+   @Param({"1024", "262144"})
+   public int inputSize;
+
+   private Messenger messenger;
+   private Template template;
+   private Client client;
+   private byte[] consoleInput;
+   private Path tempDir;
+   private InputStream originalIn;
+   private PrintStream originalOut;
+
+   /**
+    * Prepares the messenger and, in file mode, the input file.
+    *
+    * @throws IOException if the input file cannot be written
+    */
+   @Setup(Level.Trial)
+   public void setUp() throws IOException {
+      messenger = new Messenger(new MailServer(), new TemplateEngine());
+      template = new Template("Subject: #{subject}\n\n#{input}\n\nRegards, #{sender}");
+      template.addVariable("subject", "Benchmark");
+      template.addVariable("sender", "Messenger");
+      client = new Client();
+      client.setAddresses("client@example.com");
+
+      String input = BenchmarkTemplates.input(inputSize);
+      if ("file".equals(mode)) {
+         tempDir = Files.createTempDirectory("messenger-benchmark");
+         Path inputFile = Files.write(tempDir.resolve("input.txt"), input.getBytes(StandardCharsets.UTF_8));
+         messenger.setIOFiles(inputFile.toString(), tempDir.resolve("output.txt").toString());
+      } else {
+         consoleInput = input.replace('\n', ' ').getBytes(StandardCharsets.UTF_8);
+         originalIn = System.in;
+         originalOut = System.out;
+      }
+   }
+
+   /**
+    * Console mode closes stdin and stdout, so fresh streams are installed for every call.
+    */
+   @Setup(Level.Invocation)
+   public void resetConsole() {
+      if (consoleInput != null) {
+         System.setIn(new ByteArrayInputStream(consoleInput));
+         System.setOut(new PrintStream(new DiscardingOutputStream()));
+      }
+   }
+
+   /**
+    * Restores the console and removes temporary files.
+    *
+    * @throws IOException if a temporary file cannot be deleted
+    */
+   @TearDown(Level.Trial)
+   public void tearDown() throws IOException {
+      if (consoleInput != null) {
+         System.setIn(originalIn);
+         System.setOut(originalOut);
+      }
+      if (tempDir != null) {
+         Files.deleteIfExists(tempDir.resolve("input.txt"));
+         Files.deleteIfExists(tempDir.resolve("output.txt"));
+         Files.deleteIfExists(tempDir);
+      }
+   }
+
+   /**
+    * One message through the selected mode.
+    */
+   @Benchmark
+   public void sendMessage() {
+      messenger.sendMessage(client, template);
+   }
+
+   /**
+    * Output stream dropping everything written to it.
+    */
+   private static class DiscardingOutputStream extends OutputStream {
+      @Override
+      public void write(int b) {
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) {
+      }
+   }
+}
@@ -0,0 +1,70 @@
+package com.epam.ld.module2.testing.benchmark;
+
+import com.epam.ld.module2.testing.template.Bindings;
+import com.epam.ld.module2.testing.template.CompiledTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential against fork/join rendering of large templates, used to choose the template size
+ * passed to {@link com.epam.ld.module2.testing.template.TemplateEngine#setParallelThreshold(int)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelRenderBenchmark {
+
+   @Param({"65536", "262144", "1048576", "4194304", "16777216"})
+   public int templateSize;
+
+   @Param({"0", "50"})
+   public int runtimeTagPercent;
+
+   private CompiledTemplate compiled;
+   private Bindings bindings;
+
+   /**
+    * Prepares a template with one placeholder per 512 characters.
+    */
+   @Setup
+   public void setUp() {
+      int placeholderCount = templateSize / 512;
+      compiled = CompiledTemplate.compile(BenchmarkTemplates.templateText(templateSize, placeholderCount, false));
+      bindings = Bindings.of(BenchmarkTemplates.variables(placeholderCount, runtimeTagPercent, false));
+   }
+
+   /**
+    * Rendering on the calling thread.
+    *
+    * @return the message
+    */
+   @Benchmark
+   public String sequential() {
+      return compiled.render(bindings);
+   }
+
+   /**
+    * Rendering with fork/join tasks on the common pool.
+    *
+    * @return the message
+    */
+   @Benchmark
+   public String parallel() {
+      return compiled.renderParallel(bindings, ForkJoinPool.commonPool());
+   }
+}
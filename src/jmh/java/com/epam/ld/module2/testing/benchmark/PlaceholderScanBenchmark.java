@@ -0,0 +1,87 @@
+package com.epam.ld.module2.testing.benchmark;
+
+import com.epam.ld.module2.testing.template.CompiledTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Template compilation with the hand-written placeholder scanner against the regular expression
+ * based parsing it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlaceholderScanBenchmark {
+   private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("#\\{([^}]+)}");
+
+   @Param({"65536", "1048576"})
+   public int templateSize;
+
+   @Param({"32", "4096"})
+   public int placeholderCount;
+
+   private String text;
+
+   /**
+    * Prepares the template text.
+    */
+   @Setup
+   public void setUp() {
+      text = BenchmarkTemplates.templateText(templateSize, placeholderCount, false);
+   }
+
+   /**
+    * Compiling with the single-pass scanner.
+    *
+    * @return the slot count
+    */
+   @Benchmark
+   public int scanner() {
+      return CompiledTemplate.compile(text).getSlotCount();
+   }
+
+   /**
+    * Splitting the same text with the previous regular expressions.
+    *
+    * @return the slot count
+    */
+   @Benchmark
+   public int regex() {
+      List<String> literals = new ArrayList<>();
+      List<String> slots = new ArrayList<>();
+      Set<String> placeholders = new LinkedHashSet<>();
+      Matcher matcher = PLACEHOLDER_PATTERN.matcher(text);
+      int last = 0;
+      while (matcher.find()) {
+         String name = matcher.group(1);
+         if (placeholders.add(name) && !name.matches("[a-zA-Z][a-zA-Z0-9]*")) {
+            throw new IllegalArgumentException("Invalid placeholder format: " + name);
+         }
+         literals.add(text.substring(last, matcher.start()));
+         slots.add(name);
+         last = matcher.end();
+      }
+      literals.add(text.substring(last));
+      return slots.size();
+   }
+}
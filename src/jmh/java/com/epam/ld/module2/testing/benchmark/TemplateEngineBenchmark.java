@@ -0,0 +1,146 @@
+package com.epam.ld.module2.testing.benchmark;
+
+import com.epam.ld.module2.testing.Client;
+import com.epam.ld.module2.testing.template.Bindings;
+import com.epam.ld.module2.testing.template.CompiledTemplate;
+import com.epam.ld.module2.testing.template.RenderCache;
+import com.epam.ld.module2.testing.template.Template;
+import com.epam.ld.module2.testing.template.TemplateEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of the template rendering paths.
+ * Run with {@code -prof gc}: the Appendable and ByteBuffer paths should show no allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateEngineBenchmark {
+
+   @Param({"1024", "65536"})
+   public int templateSize;
+
+   @Param({"4", "32"})
+   public int placeholderCount;
+
+   @Param({"0", "50"})
+   public int runtimeTagPercent;
+
+   @Param({"false", "true"})
+   public boolean latin1Heavy;
+
+   private TemplateEngine engine;
+   private TemplateEngine cachingEngine;
+   private Template template;
+   private Client client;
+   private CompiledTemplate compiled;
+   private Map<String, String> variables;
+   private Bindings bindings;
+   private StringBuilder builder;
+   private ByteBuffer buffer;
+
+   /**
+    * Prepares the template and reusable outputs.
+    */
+   @Setup
+   public void setUp() {
+      engine = new TemplateEngine();
+      cachingEngine = new TemplateEngine();
+      cachingEngine.setRenderCache(new RenderCache(1 << 20));
+      template = new Template(BenchmarkTemplates.templateText(templateSize, placeholderCount, latin1Heavy));
+      variables = BenchmarkTemplates.variables(placeholderCount, runtimeTagPercent, latin1Heavy);
+      for (Map.Entry<String, String> variable : variables.entrySet()) {
+         template.addVariable(variable.getKey(), variable.getValue());
+      }
+      bindings = Bindings.of(variables);
+      client = new Client();
+      compiled = engine.compile(template);
+      String rendered = compiled.render(variables);
+      builder = new StringBuilder(rendered.length());
+      buffer = ByteBuffer.allocate(rendered.length());
+   }
+
+   /**
+    * Public entry point used by Messenger.
+    *
+    * @return the message
+    */
+   @Benchmark
+   public String generateMessage() {
+      return engine.generateMessage(template, client);
+   }
+
+   /**
+    * Rendering a precompiled template to a new String.
+    *
+    * @return the message
+    */
+   @Benchmark
+   public String renderString() {
+      return compiled.render(bindings);
+   }
+
+   /**
+    * Rendering into a reused StringBuilder.
+    *
+    * @return the message length
+    * @throws IOException never for a StringBuilder
+    */
+   @Benchmark
+   public int renderAppendable() throws IOException {
+      builder.setLength(0);
+      compiled.render(bindings, builder);
+      return builder.length();
+   }
+
+   /**
+    * Rendering into a reused Latin-1 byte buffer.
+    *
+    * @return the message size in bytes
+    */
+   @Benchmark
+   public int renderByteBuffer() {
+      buffer.clear();
+      compiled.render(bindings, buffer);
+      return buffer.position();
+   }
+
+   /**
+    * Rendering to an exactly sized Latin-1 byte array.
+    *
+    * @return the message
+    */
+   @Benchmark
+   public byte[] renderBytes() {
+      return compiled.renderBytes(bindings);
+   }
+
+   /**
+    * Rendering the same values through an engine with a render cache, answered from the cache
+    * after the first call.
+    *
+    * @return the message
+    */
+   @Benchmark
+   public String renderCached() {
+      return cachingEngine.render(compiled, bindings);
+   }
+}
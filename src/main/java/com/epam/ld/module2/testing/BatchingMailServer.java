@@ -0,0 +1,209 @@
+package com.epam.ld.module2.testing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Batching mail server.
+ * Decorates a mail server so that sent messages are collected into batches and handed to
+ * {@link MailServer#sendAll(List)} of the delegate from a background thread. A batch is flushed
+ * when it reaches the message count limit, the byte size limit or the linger time, whichever
+ * comes first. Senders block while the queue of pending messages is full.
+ */
+public class BatchingMailServer extends MailServer implements AutoCloseable {
+   private static final MailMessage FLUSH_MARKER = new MailMessage(null, null);
+
+   private final MailServer delegate;
+   private final int maxBatchSize;
+   private final int maxBatchBytes;
+   private final long lingerNanos;
+   private final BlockingQueue<MailMessage> queue;
+   private final Thread flusher;
+   private final Object progress = new Object();
+   private long accepted;
+   private long completed;
+   private volatile boolean closed;
+   private volatile RuntimeException failure;
+
+   /**
+    * Constructor for BatchingMailServer
+    *
+    * @param delegate      mail server receiving the batches
+    * @param maxBatchSize  maximum number of messages in one batch
+    * @param maxBatchBytes maximum size of one batch in bytes, a larger single message is sent alone
+    * @param lingerMillis  maximum time a message waits for its batch to fill up
+    * @param queueCapacity maximum number of messages waiting for delivery before senders block
+    */
+   public BatchingMailServer(MailServer delegate, int maxBatchSize, int maxBatchBytes,
+                             long lingerMillis, int queueCapacity) {
+      if (maxBatchSize < 1 || maxBatchBytes < 1 || lingerMillis < 0 || queueCapacity < 1) {
+         throw new IllegalArgumentException("Invalid batching limits");
+      }
+      this.delegate = delegate;
+      this.maxBatchSize = maxBatchSize;
+      this.maxBatchBytes = maxBatchBytes;
+      this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+      this.queue = new ArrayBlockingQueue<>(queueCapacity);
+      this.flusher = new Thread(this::runFlusher, "batching-mail-server");
+      this.flusher.setDaemon(true);
+      this.flusher.start();
+   }
+
+   /**
+    * Queues a message for batched delivery, blocking while the queue is full.
+    *
+    * @param addresses      the addresses
+    * @param messageContent the message content
+    * @throws IllegalStateException if the server is closed or a previous batch failed
+    */
+   @Override
+   public void send(String addresses, String messageContent) {
+      enqueue(new MailMessage(addresses, messageContent));
+   }
+
+   /**
+    * Queues messages for batched delivery, blocking while the queue is full.
+    *
+    * @param messages the messages in delivery order
+    * @throws IllegalStateException if the server is closed or a previous batch failed
+    */
+   @Override
+   public void sendAll(List<MailMessage> messages) {
+      for (MailMessage message : messages) {
+         enqueue(message);
+      }
+   }
+
+   /**
+    * Delivers all messages queued so far without waiting for the linger time.
+    *
+    * @throws IllegalStateException if a batch failed or the thread is interrupted
+    */
+   public void flush() {
+      long target;
+      synchronized (progress) {
+         target = accepted;
+      }
+      try {
+         queue.put(FLUSH_MARKER);
+         synchronized (progress) {
+            while (completed < target && flusher.isAlive()) {
+               progress.wait();
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while flushing messages", e);
+      }
+      checkFailure();
+   }
+
+   /**
+    * Delivers all queued messages and stops the background thread.
+    *
+    * @throws IllegalStateException if a batch failed or the thread is interrupted
+    */
+   @Override
+   public void close() {
+      if (closed) {
+         return;
+      }
+      try {
+         flush();
+      } finally {
+         closed = true;
+         queue.offer(FLUSH_MARKER);
+         try {
+            flusher.join();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+
+   private void enqueue(MailMessage message) {
+      checkFailure();
+      if (closed) {
+         throw new IllegalStateException("Mail server is closed");
+      }
+      // Count the message before it is visible to the flusher, so a concurrent flush waits for it
+      synchronized (progress) {
+         accepted++;
+      }
+      try {
+         queue.put(message);
+      } catch (InterruptedException e) {
+         // The message is never queued: count it as done so flushes waiting for it return
+         synchronized (progress) {
+            completed++;
+            progress.notifyAll();
+         }
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while queueing message", e);
+      }
+   }
+
+   private void checkFailure() {
+      if (failure != null) {
+         throw new IllegalStateException("Batch delivery failed", failure);
+      }
+   }
+
+   private void runFlusher() {
+      MailMessage carried = null;
+      try {
+         while (true) {
+            MailMessage first = carried;
+            if (first == null) {
+               first = closed ? queue.poll() : queue.take();
+            }
+            carried = null;
+            if (first == null) {
+               return;
+            }
+            if (first == FLUSH_MARKER) {
+               continue;
+            }
+
+            List<MailMessage> batch = new ArrayList<>(maxBatchSize);
+            batch.add(first);
+            int bytes = first.size();
+            long deadline = System.nanoTime() + lingerNanos;
+            while (batch.size() < maxBatchSize && bytes < maxBatchBytes) {
+               long remaining = deadline - System.nanoTime();
+               MailMessage next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+               if (next == null || next == FLUSH_MARKER) {
+                  break;
+               }
+               if (bytes + next.size() > maxBatchBytes) {
+                  carried = next;
+                  break;
+               }
+               batch.add(next);
+               bytes += next.size();
+            }
+            deliver(batch);
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private void deliver(List<MailMessage> batch) {
+      try {
+         delegate.sendAll(batch);
+      } catch (RuntimeException e) {
+         if (failure == null) {
+            failure = e;
+         }
+      } finally {
+         synchronized (progress) {
+            completed += batch.size();
+            progress.notifyAll();
+         }
+      }
+   }
+}
@@ -0,0 +1,59 @@
+package com.epam.ld.module2.testing;
+
+/**
+ * Bit set answering whether a key was possibly added before, sized for an expected number of keys
+ * and a false positive rate. Keys are 64-bit hashes; the bit positions are derived from the two
+ * halves of a mixed hash.
+ */
+final class BloomFilter {
+   private static final double LN2 = Math.log(2);
+
+   private final long[] words;
+   private final long bitCount;
+   private final int hashCount;
+
+   BloomFilter(long expectedKeys, double falsePositiveRate) {
+      if (expectedKeys < 1 || !(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+         throw new IllegalArgumentException("Invalid Bloom filter size");
+      }
+      long bits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (LN2 * LN2));
+      long wordCount = Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE);
+      if (wordCount > Integer.MAX_VALUE - 8) {
+         throw new IllegalArgumentException("Bloom filter too large");
+      }
+      this.words = new long[(int) wordCount];
+      this.bitCount = wordCount * Long.SIZE;
+      this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedKeys * LN2));
+   }
+
+   /**
+    * Adds a key.
+    *
+    * @return {@code true} if the key was definitely not added before
+    */
+   boolean put(long hash) {
+      long mixed = mix(hash);
+      int first = (int) mixed;
+      int second = (int) (mixed >>> 32);
+      boolean changed = false;
+      for (int i = 1; i <= hashCount; i++) {
+         long combined = first + (long) i * second;
+         long bit = (combined & Long.MAX_VALUE) % bitCount;
+         int word = (int) (bit >>> 6);
+         long mask = 1L << bit;
+         if ((words[word] & mask) == 0) {
+            words[word] |= mask;
+            changed = true;
+         }
+      }
+      return changed;
+   }
+
+   private static long mix(long hash) {
+      hash ^= hash >>> 33;
+      hash *= 0xff51afd7ed558ccdL;
+      hash ^= hash >>> 33;
+      hash *= 0xc4ceb9fe1a85ec53L;
+      return hash ^ (hash >>> 33);
+   }
+}
@@ -1,10 +1,13 @@
 package com.epam.ld.module2.testing;
 
+import java.util.List;
+
 /**
  * The type Client.
  */
 public class Client {
     private String addresses;
+    private List<EmailAddress> recipientAddresses;
 
     /**
      * Gets addresses.
@@ -22,5 +25,22 @@ public class Client {
      */
     public void setAddresses(String addresses) {
         this.addresses = addresses;
+        this.recipientAddresses = null;
+    }
+
+    /**
+     * Gets the parsed addresses, in list order and with duplicates.
+     * The addresses are parsed on first use and kept until they are set again.
+     *
+     * @return the recipient addresses, empty if no addresses are set
+     * @throws IllegalArgumentException if an address is invalid
+     */
+    public List<EmailAddress> getRecipientAddresses() {
+        List<EmailAddress> parsed = recipientAddresses;
+        if (parsed == null) {
+            parsed = EmailAddress.parseList(addresses);
+            recipientAddresses = parsed;
+        }
+        return parsed;
     }
 }
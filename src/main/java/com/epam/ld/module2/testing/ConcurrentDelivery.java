@@ -0,0 +1,148 @@
+package com.epam.ld.module2.testing;
+
+import com.epam.ld.module2.testing.template.Bindings;
+import com.epam.ld.module2.testing.template.CompiledTemplate;
+import com.epam.ld.module2.testing.template.TemplateEngine;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The type Concurrent delivery.
+ * Renders and sends messages on worker threads with a cap on the number of deliveries in flight.
+ * By default each delivery runs on its own virtual thread when the JVM provides them, so thousands
+ * of slow sends do not need thousands of platform threads. On older JVMs a cached thread pool is
+ * used instead, bounded by the same cap.
+ */
+public class ConcurrentDelivery implements AutoCloseable {
+   private final MailServer mailServer;
+   private final TemplateEngine templateEngine;
+   private final int maxInFlight;
+   private final Semaphore inFlight;
+   private final ExecutorService executor;
+   private final boolean ownsExecutor;
+
+   /**
+    * Constructor for ConcurrentDelivery running deliveries on virtual threads where available
+    *
+    * @param mailServer     mail server instance
+    * @param templateEngine template engine rendering the messages
+    * @param maxInFlight    maximum number of deliveries running at the same time
+    */
+   public ConcurrentDelivery(MailServer mailServer, TemplateEngine templateEngine, int maxInFlight) {
+      this(mailServer, templateEngine, maxInFlight, newDeliveryExecutor(), true);
+   }
+
+   /**
+    * Constructor for ConcurrentDelivery running deliveries on the given executor
+    *
+    * @param mailServer     mail server instance
+    * @param templateEngine template engine rendering the messages
+    * @param maxInFlight    maximum number of deliveries running at the same time
+    * @param executor       executor for deliveries, not shut down by this instance
+    */
+   public ConcurrentDelivery(MailServer mailServer, TemplateEngine templateEngine, int maxInFlight,
+                             ExecutorService executor) {
+      this(mailServer, templateEngine, maxInFlight, executor, false);
+   }
+
+   private ConcurrentDelivery(MailServer mailServer, TemplateEngine templateEngine, int maxInFlight,
+                              ExecutorService executor, boolean ownsExecutor) {
+      if (maxInFlight < 1) {
+         throw new IllegalArgumentException("Maximum in-flight deliveries must be positive: " + maxInFlight);
+      }
+      this.mailServer = mailServer;
+      this.templateEngine = templateEngine;
+      this.maxInFlight = maxInFlight;
+      this.inFlight = new Semaphore(maxInFlight);
+      this.executor = executor;
+      this.ownsExecutor = ownsExecutor;
+   }
+
+   /**
+    * Starts rendering and sending a message for one recipient.
+    * Blocks the caller while the maximum number of deliveries is in flight.
+    *
+    * @param template  compiled template to render
+    * @param bindings  shared template bindings
+    * @param recipient recipient with own variables
+    * @return future completed with the rendered message, or exceptionally with the failure
+    */
+   public CompletableFuture<String> deliver(CompiledTemplate template, Bindings bindings, Recipient recipient) {
+      CompletableFuture<String> result = new CompletableFuture<>();
+      try {
+         inFlight.acquire();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         result.completeExceptionally(e);
+         return result;
+      }
+      try {
+         executor.execute(() -> {
+            try {
+               String messageContent = templateEngine.render(template, recipient.bindOver(bindings));
+               mailServer.send(recipient.getClient().getAddresses(), messageContent);
+               result.complete(messageContent);
+            } catch (Throwable e) {
+               // Errors too, or callers waiting on the future would hang
+               result.completeExceptionally(e);
+            } finally {
+               inFlight.release();
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         inFlight.release();
+         result.completeExceptionally(e);
+      }
+      return result;
+   }
+
+   /**
+    * Waits until all started deliveries have finished.
+    *
+    * @throws IllegalStateException if the thread is interrupted
+    */
+   public void awaitCompletion() {
+      try {
+         inFlight.acquire(maxInFlight);
+         inFlight.release(maxInFlight);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while waiting for deliveries", e);
+      }
+   }
+
+   /**
+    * Waits for started deliveries and shuts down the default executor.
+    */
+   @Override
+   public void close() {
+      awaitCompletion();
+      if (ownsExecutor) {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * Creates a virtual-thread-per-task executor when the JVM supports it,
+    * otherwise a cached pool of daemon threads.
+    *
+    * @return the executor
+    */
+   static ExecutorService newDeliveryExecutor() {
+      try {
+         Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+         return (ExecutorService) factory.invoke(null);
+      } catch (ReflectiveOperationException e) {
+         return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "message-delivery");
+            thread.setDaemon(true);
+            return thread;
+         });
+      }
+   }
+}
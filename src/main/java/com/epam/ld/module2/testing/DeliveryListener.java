@@ -0,0 +1,23 @@
+package com.epam.ld.module2.testing;
+
+/**
+ * Callback for the outcome of a single message delivery.
+ */
+public interface DeliveryListener {
+
+   /**
+    * Called after the message has been passed to the mail server.
+    *
+    * @param recipient      the recipient
+    * @param messageContent the rendered message
+    */
+   void onDelivered(Recipient recipient, String messageContent);
+
+   /**
+    * Called when rendering or sending the message failed.
+    *
+    * @param recipient the recipient
+    * @param error     the failure
+    */
+   void onFailed(Recipient recipient, Throwable error);
+}
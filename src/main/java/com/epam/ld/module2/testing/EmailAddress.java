@@ -0,0 +1,142 @@
+package com.epam.ld.module2.testing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The type Email address.
+ * One parsed mailbox of a client. Two addresses are equal when their normalised forms are equal:
+ * surrounding whitespace and a display name are dropped and the address is lower-cased, as mail
+ * providers treat mailbox names case-insensitively in practice.
+ */
+public final class EmailAddress {
+   private static final String LIST_SEPARATORS = "[,;]";
+   private static final String WHITESPACE = "\\s+";
+
+   private final String address;
+   private final String localPart;
+   private final String domain;
+   private final String normalized;
+
+   private EmailAddress(String address, int at) {
+      this.address = address;
+      this.localPart = address.substring(0, at);
+      this.domain = address.substring(at + 1).toLowerCase(Locale.ROOT);
+      this.normalized = localPart.toLowerCase(Locale.ROOT) + '@' + domain;
+   }
+
+   /**
+    * Parses one address, either bare or as {@code Name <local@domain>}.
+    *
+    * @param text the address
+    * @return the parsed address
+    * @throws IllegalArgumentException if the text is not a single address
+    */
+   public static EmailAddress parse(String text) {
+      if (text == null) {
+         throw new IllegalArgumentException("Invalid address: null");
+      }
+      String address = text.trim();
+      int open = address.lastIndexOf('<');
+      if (open >= 0 && address.endsWith(">")) {
+         address = address.substring(open + 1, address.length() - 1).trim();
+      }
+      int at = address.indexOf('@');
+      if (at <= 0 || at == address.length() - 1 || address.indexOf('@', at + 1) >= 0
+            || address.indexOf('<') >= 0 || containsWhitespace(address)) {
+         throw new IllegalArgumentException("Invalid address: " + text);
+      }
+      return new EmailAddress(address, at);
+   }
+
+   /**
+    * Parses an address list separated by commas, semicolons or whitespace.
+    * Display names may only be used in lists separated by commas or semicolons.
+    *
+    * @param addresses the address list, may be {@code null}
+    * @return the parsed addresses in list order, duplicates included
+    * @throws IllegalArgumentException if an entry is not a valid address
+    */
+   public static List<EmailAddress> parseList(String addresses) {
+      if (addresses == null || addresses.trim().isEmpty()) {
+         return Collections.emptyList();
+      }
+      List<EmailAddress> parsed = new ArrayList<>();
+      for (String entry : addresses.split(LIST_SEPARATORS)) {
+         String trimmed = entry.trim();
+         if (trimmed.isEmpty()) {
+            continue;
+         }
+         if (trimmed.indexOf('<') >= 0) {
+            parsed.add(parse(trimmed));
+         } else {
+            for (String address : trimmed.split(WHITESPACE)) {
+               parsed.add(parse(address));
+            }
+         }
+      }
+      return Collections.unmodifiableList(parsed);
+   }
+
+   private static boolean containsWhitespace(String address) {
+      for (int i = 0; i < address.length(); i++) {
+         if (Character.isWhitespace(address.charAt(i))) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Gets the address as given, without display name.
+    *
+    * @return the address
+    */
+   public String getAddress() {
+      return address;
+   }
+
+   /**
+    * Gets the part before {@code @} as given.
+    *
+    * @return the local part
+    */
+   public String getLocalPart() {
+      return localPart;
+   }
+
+   /**
+    * Gets the lower-cased domain.
+    *
+    * @return the domain
+    */
+   public String getDomain() {
+      return domain;
+   }
+
+   /**
+    * Gets the normalised address used as the identity of the mailbox.
+    *
+    * @return the normalised address
+    */
+   public String getNormalized() {
+      return normalized;
+   }
+
+   @Override
+   public boolean equals(Object other) {
+      return other instanceof EmailAddress && normalized.equals(((EmailAddress) other).normalized);
+   }
+
+   @Override
+   public int hashCode() {
+      return normalized.hashCode();
+   }
+
+   @Override
+   public String toString() {
+      return address;
+   }
+}
@@ -0,0 +1,48 @@
+package com.epam.ld.module2.testing;
+
+/**
+ * The type Mail message.
+ * Rendered message together with its recipient addresses.
+ */
+public class MailMessage {
+   private final String addresses;
+   private final String content;
+
+   /**
+    * Constructor for MailMessage
+    *
+    * @param addresses the addresses
+    * @param content   the message content
+    */
+   public MailMessage(String addresses, String content) {
+      this.addresses = addresses;
+      this.content = content;
+   }
+
+   /**
+    * Gets addresses.
+    *
+    * @return the addresses
+    */
+   public String getAddresses() {
+      return addresses;
+   }
+
+   /**
+    * Gets message content.
+    *
+    * @return the content
+    */
+   public String getContent() {
+      return content;
+   }
+
+   /**
+    * Gets the approximate size of the message in bytes, one byte per Latin-1 character.
+    *
+    * @return the size in bytes
+    */
+   public int size() {
+      return (addresses == null ? 0 : addresses.length()) + (content == null ? 0 : content.length());
+   }
+}
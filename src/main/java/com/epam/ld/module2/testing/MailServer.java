@@ -1,5 +1,12 @@
 package com.epam.ld.module2.testing;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
 /**
  * Mail server class.
  */
@@ -13,4 +20,44 @@ public class MailServer {
      */
     public void send(String addresses, String messageContent) {
     }
+
+    /**
+     * Send notification whose content is rendered into a buffer as ISO-8859-1 bytes.
+     * The content lies between the position and the limit of the buffer and is only valid until
+     * this method returns, because the buffer is reused afterwards. The default implementation
+     * decodes the content and delegates to {@link #send(String, String)}.
+     *
+     * @param addresses      the addresses
+     * @param messageContent the message content
+     */
+    public void sendBuffer(String addresses, ByteBuffer messageContent) {
+        byte[] content = new byte[messageContent.remaining()];
+        messageContent.get(content);
+        send(addresses, new String(content, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Send several notifications in one transport call.
+     * The default implementation sends the messages one by one.
+     *
+     * @param messages the messages in delivery order
+     */
+    public void sendAll(List<MailMessage> messages) {
+        for (MailMessage message : messages) {
+            send(message.getAddresses(), message.getContent());
+        }
+    }
+
+    /**
+     * Send notification whose content is stored in a UTF-8 encoded file.
+     * The default implementation reads the file and delegates to {@link #send(String, String)};
+     * transports able to stream the content should override it.
+     *
+     * @param addresses   the addresses
+     * @param messageFile the file with the message content
+     * @throws IOException if the file cannot be read
+     */
+    public void sendFile(String addresses, Path messageFile) throws IOException {
+        send(addresses, new String(Files.readAllBytes(messageFile), StandardCharsets.UTF_8));
+    }
 }
@@ -1,26 +1,70 @@
 package com.epam.ld.module2.testing;
 
+import com.epam.ld.module2.testing.buffer.MessageBuffer;
+import com.epam.ld.module2.testing.buffer.MessageBufferPool;
+import com.epam.ld.module2.testing.io.AsyncFiles;
+import com.epam.ld.module2.testing.io.Latin1Transcoder;
+import com.epam.ld.module2.testing.io.RecordFileRenderer;
+import com.epam.ld.module2.testing.io.RecordFormat;
+import com.epam.ld.module2.testing.io.StreamingFileRenderer;
+import com.epam.ld.module2.testing.metrics.MessagingMetrics;
+import com.epam.ld.module2.testing.queue.DurableMessageQueue;
+import com.epam.ld.module2.testing.queue.MessageQueueDrainer;
+import com.epam.ld.module2.testing.template.Bindings;
+import com.epam.ld.module2.testing.template.CompiledTemplate;
 import com.epam.ld.module2.testing.template.Template;
 import com.epam.ld.module2.testing.template.TemplateEngine;
+import com.epam.ld.module2.testing.template.ValueSource;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 /**
  * The type Messenger.
  */
 public class Messenger {
+   private static final String INPUT_VARIABLE = "input";
+   private static final int CONSOLE_BUFFER_SIZE = 1 << 16;
+
    private final MailServer mailServer;
    private final TemplateEngine templateEngine;
+   private final MessagingMetrics metrics;
    private String inputFile;
    private String outputFile;
+   private boolean streaming;
+   private boolean memoryMapped;
+   private boolean byteRendering;
+   private MessageBufferPool bufferPool;
+   private DurableMessageQueue outboundQueue;
+   private RecipientIndex recipientIndex;
+   private RecordFormat recordFormat;
+   private boolean sendRecords;
+   private boolean prevalidation;
+   private ExecutorService asyncExecutor;
+   private boolean consoleStreaming;
 
    /**
     * Constructor for Messenger
@@ -29,8 +73,30 @@ public class Messenger {
     * @param templateEngine template engine instance
     */
    public Messenger(MailServer mailServer, TemplateEngine templateEngine) {
-      this.mailServer = mailServer;
+      this(mailServer, templateEngine, new MessagingMetrics());
+   }
+
+   /**
+    * Constructor for Messenger recording send metrics.
+    * Pass the metrics of the template engine to see rendering and delivery in one snapshot.
+    *
+    * @param mailServer     mail server instance
+    * @param templateEngine template engine instance
+    * @param metrics        metrics for send latency and failures
+    */
+   public Messenger(MailServer mailServer, TemplateEngine templateEngine, MessagingMetrics metrics) {
+      this.mailServer = new MeteredMailServer(mailServer, metrics);
       this.templateEngine = templateEngine;
+      this.metrics = metrics;
+   }
+
+   /**
+    * Gets the metrics this messenger records sends into.
+    *
+    * @return the metrics
+    */
+   public MessagingMetrics getMetrics() {
+      return metrics;
    }
 
    /**
@@ -44,28 +110,170 @@ public class Messenger {
       this.outputFile = outputFile;
    }
 
+   /**
+    * Enables streaming file mode.
+    * The message is rendered straight into the output file and the input file is copied into it
+    * in chunks, so large files are never held in memory. The mail server receives the output file.
+    * Cannot be combined with record mode, byte rendering or an outbound queue.
+    *
+    * @param streaming whether file mode streams the files
+    */
+   public void setStreaming(boolean streaming) {
+      this.streaming = streaming;
+   }
+
+   /**
+    * Sets whether streaming file mode accesses the files through memory-mapped channels.
+    * Only streaming file mode can map the files.
+    *
+    * @param memoryMapped whether the files are memory-mapped
+    */
+   public void setMemoryMapped(boolean memoryMapped) {
+      this.memoryMapped = memoryMapped;
+   }
+
+   /**
+    * Enables record file mode.
+    * The input file holds one record per line and one message is rendered per record; all
+    * messages are appended to the output file. Record values take precedence over the variables
+    * of the template. Cannot be combined with streaming or byte rendering.
+    *
+    * @param format   format of the input records, {@code null} disables record mode
+    * @param sendEach whether each rendered message is also sent to the client
+    */
+   public void setRecordMode(RecordFormat format, boolean sendEach) {
+      this.recordFormat = format;
+      this.sendRecords = sendEach;
+   }
+
+   /**
+    * Enables byte rendering in file mode.
+    * The message is rendered as Latin-1 bytes, written to the output file as UTF-8 without an
+    * intermediate String and handed to {@link MailServer#sendFile(String, Path)}. Characters of
+    * values outside Latin-1 are written as {@code ?}, runtime tags included. The input file is only
+    * read once all other placeholders of the template are known to have values. Cannot be
+    * combined with record mode, streaming or an outbound queue.
+    *
+    * @param byteRendering whether to render bytes instead of a String
+    */
+   public void setByteRendering(boolean byteRendering) {
+      this.byteRendering = byteRendering;
+   }
+
+   /**
+    * Sets the pool of off-heap buffers used by bulk sends.
+    * With a pool each message is rendered as Latin-1 bytes into a leased buffer, passed to
+    * {@link MailServer#sendBuffer(String, java.nio.ByteBuffer)} and returned to the pool once sent, so
+    * no String is created per recipient.
+    *
+    * @param bufferPool the pool, {@code null} to render Strings
+    */
+   public void setBufferPool(MessageBufferPool bufferPool) {
+      this.bufferPool = bufferPool;
+   }
+
+   /**
+    * Sets the durable queue rendered messages are written to instead of the mail server.
+    * A {@link MessageQueueDrainer} then delivers them, so messages survive a crash of the process
+    * or an unavailable mail server. Applies to console, file, record, asynchronous and bulk
+    * sends; streaming and byte rendering hand files to the mail server and cannot use a queue,
+    * and neither can a buffer pool or concurrent sends.
+    *
+    * @param outboundQueue the queue, {@code null} to send directly
+    */
+   public void setOutboundQueue(DurableMessageQueue outboundQueue) {
+      this.outboundQueue = outboundQueue;
+   }
+
+   /**
+    * Sets the index of mailboxes already reached, used to skip duplicates in bulk sends.
+    * With an index the addresses of each recipient are parsed and those recorded in the index
+    * are dropped; a recipient left without addresses gets no message and is not counted as sent.
+    * Keep the same index across the bulk sends of one campaign to merge their lists.
+    *
+    * @param recipientIndex the index, {@code null} to send to every recipient as given
+    */
+   public void setRecipientIndex(RecipientIndex recipientIndex) {
+      this.recipientIndex = recipientIndex;
+   }
+
+   /**
+    * Enables validation of bulk sends before the first message.
+    * The template is checked against the values of every recipient first, and a send with any
+    * problem fails listing all of them before a message is rendered or sent; messages are then
+    * rendered without checking each one again. Applies to bulk sends of an {@link Iterable},
+    * which can be read twice; streams are still checked message by message.
+    *
+    * @param prevalidation whether bulk sends are validated up front
+    */
+   public void setPrevalidation(boolean prevalidation) {
+      this.prevalidation = prevalidation;
+   }
+
+   /**
+    * Enables streaming console mode.
+    * Console mode then sends one message per line of standard input until its end instead of
+    * reading a single line, and leaves standard input and output open. Does not apply while
+    * input and output files are set.
+    *
+    * @param consoleStreaming whether console mode processes every input line
+    * @see #sendLines(Client, Template, Reader, Writer)
+    */
+   public void setConsoleStreaming(boolean consoleStreaming) {
+      this.consoleStreaming = consoleStreaming;
+   }
+
+   /**
+    * Sets the thread pool running asynchronous file mode.
+    * Reads and writes do not occupy a thread while the files are transferred, so a pool of a few
+    * threads serves many concurrent sends; rendering and delivery run on the pool as each file is
+    * read and written.
+    *
+    * @param asyncExecutor the pool, {@code null} for the default pool of the JVM
+    * @see #sendMessageAsync(Client, Template, Path, Path)
+    */
+   public void setAsyncExecutor(ExecutorService asyncExecutor) {
+      this.asyncExecutor = asyncExecutor;
+   }
+
    /**
     * Send message to specified client.
     *
     * @param client   client to receive message
     * @param template template to be processed
+    * @throws IllegalStateException if settings that cannot be combined are enabled
     */
    public void sendMessage(Client client, Template template) {
+      checkMessageSettings();
       try {
          String input;
          String messageContent;
 
-         if (isFileMode()) {
+         if (isFileMode() && recordFormat != null) {
+            renderRecords(client, template);
+            return;
+         } else if (isFileMode() && streaming) {
+            streamFile(client, template);
+            return;
+         } else if (isFileMode() && byteRendering) {
+            renderBytesToFile(client, template);
+            return;
+         } else if (isFileMode()) {
             input = readFile(inputFile);
-            template.addVariable("input", input);
-            messageContent = templateEngine.generateMessage(template, client);
+            messageContent = templateEngine.generateMessage(template, client,
+                  template.getBindings().with(INPUT_VARIABLE, input));
             writeFile(outputFile, messageContent);
+         } else if (consoleStreaming) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                  CONSOLE_BUFFER_SIZE);
+            sendLines(client, template, new InputStreamReader(System.in, StandardCharsets.UTF_8), out);
+            return;
          } else {
             try (BufferedReader reader = new BufferedReader(
                   new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
                input = reader.readLine();
-               template.addVariable("input", input);
-               messageContent = templateEngine.generateMessage(template, client);
+               messageContent = templateEngine.generateMessage(template, client,
+                     template.getBindings().with(INPUT_VARIABLE, input));
                try (PrintWriter writer = new PrintWriter(
                      new OutputStreamWriter(System.out, StandardCharsets.UTF_8), true)) {
                   writer.println(messageContent);
@@ -73,16 +281,370 @@ public class Messenger {
             }
          }
 
-         mailServer.send(client.getAddresses(), messageContent);
+         deliver(client.getAddresses(), messageContent);
+      } catch (IOException e) {
+         throw new RuntimeException("Error processing input/output", e);
+      } catch (UncheckedIOException e) {
+         throw new RuntimeException("Error processing input/output", e.getCause());
+      }
+   }
+
+   /**
+    * Sends one message per input line to the client, writing each message as a line to the output.
+    * The template is validated once, before the first line; each line is then bound to the
+    * {@code input} placeholder and rendered without validating it again. The output is only
+    * flushed when the input has no further line ready and at its end, so piped input is written
+    * in large blocks while interactive input is answered line by line. Neither the input nor the
+    * output is closed.
+    *
+    * @param client   client to receive the messages
+    * @param template template to be processed
+    * @param in       the input lines
+    * @param out      the output, best buffered
+    * @return the number of sent messages
+    * @throws IllegalArgumentException if the template is invalid or lacks a placeholder value
+    */
+   public long sendLines(Client client, Template template, Reader in, Writer out) {
+      BufferedReader lines = in instanceof BufferedReader ? (BufferedReader) in
+            : new BufferedReader(in, CONSOLE_BUFFER_SIZE);
+      Bindings shared = template.getBindings();
+      String addresses = client.getAddresses();
+      String lineSeparator = System.lineSeparator();
+      CompiledTemplate compiled = null;
+      long sent = 0;
+      try {
+         String line;
+         while ((line = lines.readLine()) != null) {
+            if (compiled == null) {
+               templateEngine.validate(template, shared.with(INPUT_VARIABLE, line)).throwIfInvalid();
+               compiled = templateEngine.compile(template);
+            }
+            String messageContent = templateEngine.renderValidated(compiled, shared.with(INPUT_VARIABLE, line));
+            out.write(messageContent);
+            out.write(lineSeparator);
+            deliver(addresses, messageContent);
+            sent++;
+            if (!lines.ready()) {
+               out.flush();
+            }
+         }
+         out.flush();
+      } catch (IOException e) {
+         throw new RuntimeException("Error processing input/output", e);
+      }
+      return sent;
+   }
+
+   /**
+    * Sends a message to the client in file mode without blocking the calling thread.
+    *
+    * @param client   client to receive message
+    * @param template template to be processed
+    * @return a future completing once the message is written and delivered
+    * @throws IllegalStateException if no input and output files are set
+    * @see #sendMessageAsync(Client, Template, Path, Path)
+    */
+   public CompletableFuture<Void> sendMessageAsync(Client client, Template template) {
+      if (!isFileMode()) {
+         throw new IllegalStateException("Input and output files are not set");
+      }
+      return sendMessageAsync(client, template, Paths.get(inputFile), Paths.get(outputFile));
+   }
+
+   /**
+    * Sends a message rendered from an input file to the client, writing it to an output file,
+    * without blocking the calling thread.
+    * Produces the same output file and message as {@link #sendMessage(Client, Template)} in plain
+    * file mode, so it rejects the streaming, record and byte rendering settings. The input is read
+    * through an {@link java.nio.channels.AsynchronousFileChannel}, the message is rendered on the
+    * completion thread and written the same way, so many sends run through the pipeline at once.
+    *
+    * @param client   client to receive message
+    * @param template template to be processed
+    * @param input    the input file
+    * @param output   the output file
+    * @return a future completing once the message is written and delivered; it fails with a
+    *         RuntimeException wrapping the {@link IOException} if a file cannot be read or written,
+    *         or with the exception of rendering or delivery
+    * @throws IllegalStateException if streaming, record mode or byte rendering is enabled
+    * @see #setAsyncExecutor(ExecutorService)
+    */
+   public CompletableFuture<Void> sendMessageAsync(Client client, Template template, Path input, Path output) {
+      if (streaming || memoryMapped || recordFormat != null || byteRendering) {
+         throw new IllegalStateException(
+               "Asynchronous file mode supports neither streaming, record mode nor byte rendering");
+      }
+      CompletableFuture<Void> result = new CompletableFuture<>();
+      AsyncFiles.read(input, asyncExecutor)
+            .thenApply(content -> templateEngine.generateMessage(template, client, template.getBindings()
+                  .with(INPUT_VARIABLE, normalizeInput(StandardCharsets.UTF_8.decode(content).toString()))))
+            .thenCompose(messageContent -> AsyncFiles.write(output, StandardCharsets.UTF_8.encode(messageContent),
+                  asyncExecutor).thenRun(() -> deliver(client.getAddresses(), messageContent)))
+            .whenComplete((done, error) -> {
+               if (error == null) {
+                  result.complete(null);
+                  return;
+               }
+               Throwable cause = error instanceof CompletionException && error.getCause() != null
+                     ? error.getCause() : error;
+               result.completeExceptionally(cause instanceof IOException
+                     ? new RuntimeException("Error processing input/output", cause) : cause);
+            });
+      return result;
+   }
+
+   /**
+    * Sends one template to many recipients.
+    * The template is compiled once and each message is passed to the mail server as soon as it is
+    * rendered, so memory use does not depend on the number of recipients. Per-recipient variables
+    * take precedence over the variables of the template. Recipients without own values for the
+    * placeholders of the template share one message, which is rendered once.
+    *
+    * @param template   template to be processed
+    * @param recipients recipients with their own variables
+    * @return the number of sent messages
+    * @throws IllegalArgumentException if the template is invalid, a recipient lacks a placeholder value
+    *                                  or, with a recipient index, has an invalid address
+    * @throws IllegalStateException    if both a buffer pool and an outbound queue are set
+    * @see #setPrevalidation(boolean)
+    */
+   public long sendMessages(Template template, Iterable<Recipient> recipients) {
+      checkBulkSettings();
+      if (!prevalidation) {
+         return sendMessages(template, recipients.iterator(), false);
+      }
+      Bindings shared = template.getBindings();
+      templateEngine.validate(template, () -> StreamSupport.stream(recipients.spliterator(), false)
+            .map(recipient -> recipient.bindOver(shared)).iterator()).throwIfInvalid();
+      return sendMessages(template, recipients.iterator(), true);
+   }
+
+   /**
+    * Sends one template to a stream of recipients.
+    *
+    * @param template   template to be processed
+    * @param recipients recipients with their own variables
+    * @return the number of sent messages
+    * @see #sendMessages(Template, Iterable)
+    */
+   public long sendMessages(Template template, Stream<Recipient> recipients) {
+      checkBulkSettings();
+      return sendMessages(template, recipients.iterator(), false);
+   }
+
+   /**
+    * Sends one template to many recipients concurrently.
+    * Messages are rendered and sent on virtual threads where the JVM provides them, with at most
+    * {@code maxInFlight} deliveries running at a time. A failure for one recipient is reported to
+    * the listener and does not stop delivery to the others. Returns after all deliveries finished.
+    * Messages go straight to the mail server, rendered as Strings and without recipient
+    * deduplication or validation up front.
+    *
+    * @param template    template to be processed
+    * @param recipients  recipients with their own variables
+    * @param maxInFlight maximum number of deliveries running at the same time
+    * @param listener    listener notified about each delivery outcome
+    * @return the number of successfully sent messages
+    * @throws IllegalArgumentException if the template is invalid
+    * @throws IllegalStateException    if an outbound queue, a recipient index, a buffer pool or
+    *                                  prevalidation is set
+    */
+   public long sendMessagesConcurrently(Template template, Iterable<Recipient> recipients,
+                                        int maxInFlight, DeliveryListener listener) {
+      if (outboundQueue != null || recipientIndex != null || bufferPool != null || prevalidation) {
+         throw new IllegalStateException(
+               "Concurrent sends support neither an outbound queue, a recipient index, a buffer pool "
+                     + "nor prevalidation");
+      }
+      CompiledTemplate compiled = templateEngine.compile(template);
+      Bindings shared = template.getBindings();
+      AtomicLong sent = new AtomicLong();
+      try (ConcurrentDelivery delivery = new ConcurrentDelivery(mailServer, templateEngine, maxInFlight)) {
+         for (Recipient recipient : recipients) {
+            delivery.deliver(compiled, shared, recipient).whenComplete((messageContent, error) -> {
+               if (error == null) {
+                  sent.incrementAndGet();
+                  listener.onDelivered(recipient, messageContent);
+               } else {
+                  listener.onFailed(recipient, error);
+               }
+            });
+         }
+      }
+      return sent.get();
+   }
+
+   private long sendMessages(Template template, Iterator<Recipient> recipients, boolean validated) {
+      CompiledTemplate compiled = templateEngine.compile(template);
+      Bindings shared = template.getBindings();
+      boolean pooled = bufferPool != null;
+      String sharedMessage = null;
+      MessageBuffer sharedBuffer = null;
+      long sent = 0;
+      try {
+         while (recipients.hasNext()) {
+            Recipient recipient = recipients.next();
+            String addresses = recipient.getClient().getAddresses();
+            if (recipientIndex != null) {
+               addresses = unseenAddresses(recipient.getClient());
+               if (addresses.isEmpty()) {
+                  continue;
+               }
+            }
+            boolean personal = isPersonal(compiled, recipient);
+            if (pooled && personal) {
+               try (MessageBuffer message = render(compiled, recipient.bindOver(shared), validated)) {
+                  mailServer.sendBuffer(addresses, message.getBuffer());
+               }
+            } else if (pooled) {
+               if (sharedBuffer == null) {
+                  sharedBuffer = render(compiled, shared, validated);
+               }
+               mailServer.sendBuffer(addresses, sharedBuffer.getBuffer().duplicate());
+            } else if (personal) {
+               deliver(addresses, renderMessage(compiled, recipient.bindOver(shared), validated));
+            } else {
+               if (sharedMessage == null) {
+                  sharedMessage = renderMessage(compiled, shared, validated);
+               }
+               deliver(addresses, sharedMessage);
+            }
+            sent++;
+         }
+      } finally {
+         if (sharedBuffer != null) {
+            sharedBuffer.close();
+         }
+      }
+      return sent;
+   }
+
+   private String renderMessage(CompiledTemplate compiled, Bindings bindings, boolean validated) {
+      return validated
+            ? templateEngine.renderValidated(compiled, bindings)
+            : templateEngine.render(compiled, bindings);
+   }
+
+   private MessageBuffer render(CompiledTemplate compiled, Bindings bindings, boolean validated) {
+      return validated
+            ? templateEngine.renderValidated(compiled, bindings, bufferPool)
+            : templateEngine.render(compiled, bindings, bufferPool);
+   }
+
+   private static boolean isPersonal(CompiledTemplate compiled, Recipient recipient) {
+      Map<String, String> variables = recipient.getVariables();
+      if (variables.isEmpty()) {
+         return false;
+      }
+      for (String placeholder : compiled.getPlaceholders()) {
+         if (variables.containsKey(placeholder)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private String unseenAddresses(Client client) {
+      List<EmailAddress> all = client.getRecipientAddresses();
+      StringJoiner unseen = new StringJoiner(", ");
+      int kept = 0;
+      for (EmailAddress address : all) {
+         if (recipientIndex.add(address)) {
+            unseen.add(address.getAddress());
+            kept++;
+         }
+      }
+      if (kept == 0) {
+         return "";
+      }
+      return kept == all.size() ? client.getAddresses() : unseen.toString();
+   }
+
+   private void deliver(String addresses, String messageContent) {
+      if (outboundQueue == null) {
+         mailServer.send(addresses, messageContent);
+         return;
+      }
+      try {
+         outboundQueue.append(addresses, messageContent);
       } catch (IOException e) {
          throw new RuntimeException("Error processing input/output", e);
       }
    }
 
+   private void renderRecords(Client client, Template template) throws IOException {
+      new RecordFileRenderer(recordFormat).render(templateEngine.compile(template), template.getVariables(),
+            Paths.get(inputFile), Paths.get(outputFile), messageContent -> {
+               if (sendRecords) {
+                  deliver(client.getAddresses(), messageContent);
+               }
+            });
+   }
+
+   private void streamFile(Client client, Template template) throws IOException {
+      Path output = Paths.get(outputFile);
+      new StreamingFileRenderer(memoryMapped).render(templateEngine.compile(template), template.getVariables(),
+            INPUT_VARIABLE, Paths.get(inputFile), output);
+      mailServer.sendFile(client.getAddresses(), output);
+   }
+
+   private void renderBytesToFile(Client client, Template template) throws IOException {
+      // The input is only read once the other placeholders are known to have values
+      Bindings bindings = template.getBindings().withSource(INPUT_VARIABLE, ValueSource.of(() -> {
+         try {
+            return readFile(inputFile);
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+      }));
+      byte[] message = templateEngine.renderBytes(templateEngine.compile(template), bindings);
+      Path output = Paths.get(outputFile);
+      try (OutputStream out = Files.newOutputStream(output)) {
+         Latin1Transcoder.write(message, StandardCharsets.UTF_8, out);
+      }
+      mailServer.sendFile(client.getAddresses(), output);
+   }
+
+   /**
+    * Rejects settings that the mode chosen by {@link #sendMessage(Client, Template)} would ignore.
+    */
+   private void checkMessageSettings() {
+      if (!isFileMode()) {
+         return;
+      }
+      int fileModes = (recordFormat != null ? 1 : 0) + (streaming ? 1 : 0) + (byteRendering ? 1 : 0);
+      if (fileModes > 1) {
+         throw new IllegalStateException("Record mode, streaming and byte rendering cannot be combined");
+      }
+      if (memoryMapped && !streaming) {
+         throw new IllegalStateException("Memory-mapped files require streaming file mode");
+      }
+      if ((streaming || byteRendering) && outboundQueue != null) {
+         throw new IllegalStateException("Streaming and byte rendering send files and cannot use an outbound queue");
+      }
+      if (consoleStreaming) {
+         throw new IllegalStateException("Console streaming does not apply while input and output files are set");
+      }
+   }
+
+   private void checkBulkSettings() {
+      if (bufferPool != null && outboundQueue != null) {
+         throw new IllegalStateException("Pooled buffers cannot be written to an outbound queue");
+      }
+   }
+
    private boolean isFileMode() {
       return inputFile != null && outputFile != null;
    }
 
+   /**
+    * Normalizes file content the way {@link #readFile(String)} reads it: line breaks become
+    * {@code \n} and surrounding whitespace is dropped.
+    */
+   private static String normalizeInput(String content) {
+      return content.replace("\r\n", "\n").replace('\r', '\n').trim();
+   }
+
    String readFile(String path) throws IOException {
       StringBuilder content = new StringBuilder();
       try (BufferedReader reader = new BufferedReader(
@@ -0,0 +1,76 @@
+package com.epam.ld.module2.testing;
+
+import com.epam.ld.module2.testing.metrics.MessagingMetrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The type Metered mail server.
+ * Decorates a mail server to record send latency and failures.
+ */
+public class MeteredMailServer extends MailServer {
+   private final MailServer delegate;
+   private final MessagingMetrics metrics;
+
+   /**
+    * Constructor for MeteredMailServer
+    *
+    * @param delegate mail server doing the actual sending
+    * @param metrics  metrics to record into
+    */
+   public MeteredMailServer(MailServer delegate, MessagingMetrics metrics) {
+      this.delegate = delegate;
+      this.metrics = metrics;
+   }
+
+   @Override
+   public void send(String addresses, String messageContent) {
+      long start = System.nanoTime();
+      try {
+         delegate.send(addresses, messageContent);
+      } catch (RuntimeException e) {
+         metrics.recordSendFailure();
+         throw e;
+      }
+      metrics.recordSend(System.nanoTime() - start);
+   }
+
+   @Override
+   public void sendBuffer(String addresses, ByteBuffer messageContent) {
+      long start = System.nanoTime();
+      try {
+         delegate.sendBuffer(addresses, messageContent);
+      } catch (RuntimeException e) {
+         metrics.recordSendFailure();
+         throw e;
+      }
+      metrics.recordSend(System.nanoTime() - start);
+   }
+
+   @Override
+   public void sendAll(List<MailMessage> messages) {
+      long start = System.nanoTime();
+      try {
+         delegate.sendAll(messages);
+      } catch (RuntimeException e) {
+         metrics.recordSendFailure();
+         throw e;
+      }
+      metrics.recordSend(System.nanoTime() - start);
+   }
+
+   @Override
+   public void sendFile(String addresses, Path messageFile) throws IOException {
+      long start = System.nanoTime();
+      try {
+         delegate.sendFile(addresses, messageFile);
+      } catch (IOException | RuntimeException e) {
+         metrics.recordSendFailure();
+         throw e;
+      }
+      metrics.recordSend(System.nanoTime() - start);
+   }
+}
@@ -0,0 +1,63 @@
+package com.epam.ld.module2.testing;
+
+import com.epam.ld.module2.testing.template.Bindings;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The type Recipient.
+ * Pairs a client with the template variables specific to that client in a bulk send.
+ */
+public class Recipient {
+   private final Client client;
+   private final Map<String, String> variables;
+
+   /**
+    * Constructor for Recipient without own variables
+    *
+    * @param client client to receive message
+    */
+   public Recipient(Client client) {
+      this(client, Collections.<String, String>emptyMap());
+   }
+
+   /**
+    * Constructor for Recipient
+    *
+    * @param client    client to receive message
+    * @param variables per-recipient values for placeholders
+    */
+   public Recipient(Client client, Map<String, String> variables) {
+      this.client = client;
+      this.variables = Collections.unmodifiableMap(variables);
+   }
+
+   /**
+    * Gets client.
+    *
+    * @return the client
+    */
+   public Client getClient() {
+      return client;
+   }
+
+   /**
+    * Gets per-recipient variables.
+    *
+    * @return the variables
+    */
+   public Map<String, String> getVariables() {
+      return variables;
+   }
+
+   /**
+    * Layers the variables of this recipient over the shared template bindings.
+    *
+    * @param shared the template bindings
+    * @return the bindings to render the message for this recipient with
+    */
+   Bindings bindOver(Bindings shared) {
+      return shared.with(variables);
+   }
+}
@@ -0,0 +1,78 @@
+package com.epam.ld.module2.testing;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The type Recipient index.
+ * Remembers the mailboxes a campaign has already reached so that a mailbox appearing in several
+ * merged lists gets the message once. The exact index keeps a hash set of normalised addresses.
+ * For very large campaigns the approximate index keeps only a Bloom filter, using a fixed number
+ * of bits per address at the cost of skipping a distinct mailbox with the configured false
+ * positive rate. An index can be shared by several bulk sends and by several threads.
+ */
+public final class RecipientIndex {
+   private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+   private static final long FNV_PRIME = 0x100000001b3L;
+
+   private final Set<String> seen;
+   private final BloomFilter filter;
+   private long size;
+
+   private RecipientIndex(Set<String> seen, BloomFilter filter) {
+      this.seen = seen;
+      this.filter = filter;
+   }
+
+   /**
+    * Creates an index that never skips a mailbox seen for the first time.
+    *
+    * @return the index
+    */
+   public static RecipientIndex exact() {
+      return new RecipientIndex(new HashSet<>(), null);
+   }
+
+   /**
+    * Creates an index of fixed size backed by a Bloom filter.
+    *
+    * @param expectedAddresses the number of distinct addresses the filter is sized for
+    * @param falsePositiveRate the chance of taking a new address for a duplicate, between 0 and 1
+    * @return the index
+    * @throws IllegalArgumentException if the size or the rate is out of range
+    */
+   public static RecipientIndex approximate(long expectedAddresses, double falsePositiveRate) {
+      return new RecipientIndex(null, new BloomFilter(expectedAddresses, falsePositiveRate));
+   }
+
+   /**
+    * Records an address.
+    *
+    * @param address the address
+    * @return {@code true} if the mailbox was not recorded before
+    */
+   public synchronized boolean add(EmailAddress address) {
+      boolean added = filter == null ? seen.add(address.getNormalized()) : filter.put(hash(address.getNormalized()));
+      if (added) {
+         size++;
+      }
+      return added;
+   }
+
+   /**
+    * Gets the number of recorded mailboxes.
+    *
+    * @return the number of addresses for which {@link #add(EmailAddress)} returned {@code true}
+    */
+   public synchronized long size() {
+      return size;
+   }
+
+   private static long hash(String normalized) {
+      long hash = FNV_OFFSET;
+      for (int i = 0; i < normalized.length(); i++) {
+         hash = (hash ^ normalized.charAt(i)) * FNV_PRIME;
+      }
+      return hash;
+   }
+}
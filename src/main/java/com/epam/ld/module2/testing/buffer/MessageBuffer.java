@@ -0,0 +1,69 @@
+package com.epam.ld.module2.testing.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The type Message buffer.
+ * A direct buffer leased from a {@link MessageBufferPool}. It must be closed once the message
+ * has been delivered, which hands the memory back to the pool; a sampled lease that is dropped
+ * without closing is reported as a leak. The pool reuses the wrapper for later leases, so it must
+ * not be used after closing.
+ */
+public final class MessageBuffer implements AutoCloseable {
+   private final MessageBufferPool pool;
+   private final ByteBuffer buffer;
+   private final int sizeClass;
+   private final AtomicBoolean released = new AtomicBoolean(true);
+   private MessageBufferPool.LeakTracker leakTracker;
+
+   MessageBuffer(MessageBufferPool pool, ByteBuffer buffer, int sizeClass) {
+      this.pool = pool;
+      this.buffer = buffer;
+      this.sizeClass = sizeClass;
+   }
+
+   /**
+    * Gets the underlying buffer.
+    *
+    * @return the buffer
+    * @throws IllegalStateException if the buffer was already released
+    */
+   public ByteBuffer getBuffer() {
+      if (released.get()) {
+         throw new IllegalStateException("Message buffer already released");
+      }
+      return buffer;
+   }
+
+   /**
+    * Returns the buffer to its pool.
+    *
+    * @throws IllegalStateException if the buffer was already released
+    */
+   @Override
+   public void close() {
+      if (!released.compareAndSet(false, true)) {
+         throw new IllegalStateException("Message buffer already released");
+      }
+      MessageBufferPool.LeakTracker tracker = leakTracker;
+      leakTracker = null;
+      pool.release(this, tracker);
+   }
+
+   /**
+    * Clears the buffer for a new lease; the leak tracker must be set before.
+    */
+   void open() {
+      buffer.clear();
+      released.set(false);
+   }
+
+   void setLeakTracker(MessageBufferPool.LeakTracker leakTracker) {
+      this.leakTracker = leakTracker;
+   }
+
+   int getSizeClass() {
+      return sizeClass;
+   }
+}
@@ -0,0 +1,210 @@
+package com.epam.ld.module2.testing.buffer;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Message buffer pool.
+ * Hands out off-heap buffers for rendered messages so that high-volume sends do not allocate a
+ * new object per message. Buffers come in power-of-two size classes between the minimum and the
+ * maximum size; larger requests get an unpooled buffer. Pooled buffers keep their
+ * {@link MessageBuffer} wrapper, so a lease allocates nothing once the pool is warm.
+ *
+ * <p>Leak detection samples the leases: a sampled lease is tracked with a phantom reference and
+ * counted as a leak if it becomes unreachable without being closed. A leaked buffer is never put
+ * back into the pool, as its memory may still be in use elsewhere; it is freed by the garbage
+ * collector instead.
+ */
+public class MessageBufferPool {
+   /**
+    * Default size of the smallest buffer class.
+    */
+   public static final int DEFAULT_MIN_BUFFER_SIZE = 4 * 1024;
+
+   /**
+    * Default size of the largest buffer class.
+    */
+   public static final int DEFAULT_MAX_BUFFER_SIZE = 4 * 1024 * 1024;
+
+   /**
+    * Default number of free buffers kept per size class.
+    */
+   public static final int DEFAULT_MAX_POOLED_PER_CLASS = 64;
+
+   /**
+    * Default leak sampling interval: on average one lease in this many is tracked.
+    */
+   public static final int DEFAULT_LEAK_SAMPLING_INTERVAL = 128;
+
+   static final int UNPOOLED = -1;
+
+   private final int minShift;
+   private final int maxPooledPerClass;
+   private final List<Queue<MessageBuffer>> free;
+   private final AtomicInteger[] freeCounts;
+   private final ReferenceQueue<MessageBuffer> collected = new ReferenceQueue<>();
+   private final Set<LeakTracker> trackers = ConcurrentHashMap.newKeySet();
+   private final AtomicInteger leased = new AtomicInteger();
+   private final LongAdder allocations = new LongAdder();
+   private final LongAdder leaks = new LongAdder();
+   private volatile int leakSamplingInterval = DEFAULT_LEAK_SAMPLING_INTERVAL;
+
+   /**
+    * Constructor for MessageBufferPool with default sizes.
+    */
+   public MessageBufferPool() {
+      this(DEFAULT_MIN_BUFFER_SIZE, DEFAULT_MAX_BUFFER_SIZE, DEFAULT_MAX_POOLED_PER_CLASS);
+   }
+
+   /**
+    * Constructor for MessageBufferPool
+    *
+    * @param minBufferSize     size of the smallest buffer class, rounded up to a power of two
+    * @param maxBufferSize     size of the largest buffer class, rounded up to a power of two
+    * @param maxPooledPerClass maximum number of free buffers kept per size class
+    */
+   public MessageBufferPool(int minBufferSize, int maxBufferSize, int maxPooledPerClass) {
+      if (minBufferSize < 1 || maxBufferSize < minBufferSize || maxBufferSize > 1 << 30
+            || maxPooledPerClass < 0) {
+         throw new IllegalArgumentException("Invalid buffer pool limits");
+      }
+      this.minShift = shiftOf(minBufferSize);
+      this.maxPooledPerClass = maxPooledPerClass;
+      int classes = shiftOf(maxBufferSize) - minShift + 1;
+      this.free = new ArrayList<>(classes);
+      this.freeCounts = new AtomicInteger[classes];
+      for (int i = 0; i < classes; i++) {
+         free.add(new ConcurrentLinkedQueue<>());
+         freeCounts[i] = new AtomicInteger();
+      }
+   }
+
+   /**
+    * Sets how many leases are tracked for leaks.
+    *
+    * @param leakSamplingInterval {@code 0} to disable leak detection, {@code 1} to track every
+    *                             lease, otherwise on average one lease in this many
+    * @throws IllegalArgumentException if the interval is negative
+    */
+   public void setLeakSamplingInterval(int leakSamplingInterval) {
+      if (leakSamplingInterval < 0) {
+         throw new IllegalArgumentException("Leak sampling interval must not be negative");
+      }
+      this.leakSamplingInterval = leakSamplingInterval;
+   }
+
+   /**
+    * Leases a cleared buffer with at least the given capacity.
+    *
+    * @param size the required capacity in bytes
+    * @return the leased buffer, to be closed after use
+    */
+   public MessageBuffer lease(int size) {
+      if (size < 0) {
+         throw new IllegalArgumentException("Buffer size must not be negative");
+      }
+      reclaimLeaks();
+      int sizeClass = Math.max(0, shiftOf(Math.max(1, size)) - minShift);
+      MessageBuffer buffer;
+      if (sizeClass >= free.size()) {
+         allocations.increment();
+         buffer = new MessageBuffer(this, ByteBuffer.allocateDirect(size), UNPOOLED);
+      } else {
+         buffer = free.get(sizeClass).poll();
+         if (buffer == null) {
+            allocations.increment();
+            buffer = new MessageBuffer(this, ByteBuffer.allocateDirect(1 << (minShift + sizeClass)), sizeClass);
+         } else {
+            freeCounts[sizeClass].decrementAndGet();
+         }
+      }
+      int interval = leakSamplingInterval;
+      if (interval > 0 && ThreadLocalRandom.current().nextInt(interval) == 0) {
+         LeakTracker tracker = new LeakTracker(buffer, collected);
+         trackers.add(tracker);
+         buffer.setLeakTracker(tracker);
+      }
+      leased.incrementAndGet();
+      buffer.open();
+      return buffer;
+   }
+
+   /**
+    * Gets the number of buffers allocated so far, pooled or not.
+    *
+    * @return the allocation count
+    */
+   public long getAllocationCount() {
+      return allocations.sum();
+   }
+
+   /**
+    * Gets the number of sampled leases detected as dropped without being closed.
+    * Leaks are found after the garbage collector has reclaimed the lease, on a later lease.
+    *
+    * @return the leak count
+    */
+   public long getLeakCount() {
+      return leaks.sum();
+   }
+
+   /**
+    * Gets the number of buffers currently leased. Leaked leases that were not sampled stay
+    * counted.
+    *
+    * @return the leased buffer count
+    */
+   public int getLeasedCount() {
+      return leased.get();
+   }
+
+   void release(MessageBuffer buffer, LeakTracker tracker) {
+      if (tracker != null && trackers.remove(tracker)) {
+         tracker.clear();
+      }
+      leased.decrementAndGet();
+      int sizeClass = buffer.getSizeClass();
+      if (sizeClass == UNPOOLED) {
+         return;
+      }
+      if (freeCounts[sizeClass].incrementAndGet() <= maxPooledPerClass) {
+         free.get(sizeClass).offer(buffer);
+      } else {
+         freeCounts[sizeClass].decrementAndGet();
+      }
+   }
+
+   private void reclaimLeaks() {
+      LeakTracker tracker;
+      while ((tracker = (LeakTracker) collected.poll()) != null) {
+         if (trackers.remove(tracker)) {
+            leaks.increment();
+            leased.decrementAndGet();
+         }
+      }
+   }
+
+   private static int shiftOf(int size) {
+      return Integer.SIZE - Integer.numberOfLeadingZeros(size - 1);
+   }
+
+   /**
+    * Phantom reference to a sampled lease. It holds nothing of the buffer, so a leaked buffer can
+    * be collected.
+    */
+   static final class LeakTracker extends PhantomReference<MessageBuffer> {
+      LeakTracker(MessageBuffer owner, ReferenceQueue<MessageBuffer> queue) {
+         super(owner, queue);
+      }
+   }
+}
@@ -0,0 +1,152 @@
+package com.epam.ld.module2.testing.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The type Async files.
+ * Reads and writes whole files through {@link AsynchronousFileChannel}s. No thread waits while the
+ * operating system transfers the data: each chunk is requested from the completion handler of the
+ * previous one, and the returned future completes on a thread of the channel's executor, so work
+ * chained to it runs there too.
+ */
+public final class AsyncFiles {
+   private static final Set<OpenOption> READ = Collections.singleton(StandardOpenOption.READ);
+   private static final Set<OpenOption> WRITE = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+         StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)));
+
+   private AsyncFiles() {
+   }
+
+   /**
+    * Reads a whole file.
+    *
+    * @param file     the file to read
+    * @param executor runs the completion handlers, {@code null} for the default pool of the JVM
+    * @return a future of the content, flipped and ready to be read; it fails with the
+    *         {@link IOException} of the read
+    */
+   public static CompletableFuture<ByteBuffer> read(Path file, ExecutorService executor) {
+      CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+      AsynchronousFileChannel channel;
+      try {
+         channel = AsynchronousFileChannel.open(file, READ, executor);
+      } catch (IOException e) {
+         result.completeExceptionally(e);
+         return result;
+      }
+      try {
+         long size = channel.size();
+         if (size > Integer.MAX_VALUE) {
+            throw new IOException("File too large to read into memory: " + file);
+         }
+         ByteBuffer content = ByteBuffer.allocate((int) size);
+         channel.read(content, 0, content, new Transfer<>(channel, result, content, true));
+      } catch (IOException | RuntimeException e) {
+         close(channel, result, e);
+      }
+      return result;
+   }
+
+   /**
+    * Writes the remaining bytes of the buffer as the whole content of a file.
+    * The file is created or truncated first.
+    *
+    * @param file     the file to write
+    * @param content  the bytes to write, read from its position
+    * @param executor runs the completion handlers, {@code null} for the default pool of the JVM
+    * @return a future completing once all bytes are written; it fails with the
+    *         {@link IOException} of the write
+    */
+   public static CompletableFuture<Void> write(Path file, ByteBuffer content, ExecutorService executor) {
+      CompletableFuture<Void> result = new CompletableFuture<>();
+      AsynchronousFileChannel channel;
+      try {
+         channel = AsynchronousFileChannel.open(file, WRITE, executor);
+      } catch (IOException e) {
+         result.completeExceptionally(e);
+         return result;
+      }
+      try {
+         channel.write(content, 0, content, new Transfer<>(channel, result, null, false));
+      } catch (RuntimeException e) {
+         close(channel, result, e);
+      }
+      return result;
+   }
+
+   /**
+    * Closes the channel and fails the future, keeping a failure of the close as suppressed.
+    */
+   private static void close(AsynchronousFileChannel channel, CompletableFuture<?> result, Throwable failure) {
+      try {
+         channel.close();
+      } catch (IOException e) {
+         failure.addSuppressed(e);
+      }
+      result.completeExceptionally(failure);
+   }
+
+   /**
+    * Continues a read or write from the end of the previous chunk until the buffer is done.
+    */
+   private static final class Transfer<T> implements CompletionHandler<Integer, ByteBuffer> {
+      private final AsynchronousFileChannel channel;
+      private final CompletableFuture<T> result;
+      private final T value;
+      private final boolean reading;
+      private long position;
+
+      Transfer(AsynchronousFileChannel channel, CompletableFuture<T> result, T value, boolean reading) {
+         this.channel = channel;
+         this.result = result;
+         this.value = value;
+         this.reading = reading;
+      }
+
+      @Override
+      public void completed(Integer count, ByteBuffer buffer) {
+         if (count >= 0) {
+            position += count;
+         }
+         if (count >= 0 && buffer.hasRemaining()) {
+            try {
+               if (reading) {
+                  channel.read(buffer, position, buffer, this);
+               } else {
+                  channel.write(buffer, position, buffer, this);
+               }
+            } catch (RuntimeException e) {
+               close(channel, result, e);
+            }
+            return;
+         }
+         try {
+            channel.close();
+         } catch (IOException e) {
+            result.completeExceptionally(e);
+            return;
+         }
+         if (reading) {
+            buffer.flip();
+         }
+         result.complete(value);
+      }
+
+      @Override
+      public void failed(Throwable failure, ByteBuffer buffer) {
+         close(channel, result, failure);
+      }
+   }
+}
@@ -0,0 +1,73 @@
+package com.epam.ld.module2.testing.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The type Latin-1 transcoder.
+ * Writes ISO-8859-1 rendered bytes in a destination charset without decoding them to a String
+ * first. Latin-1 and ASCII-only content is written as is and UTF-8 is expanded in small chunks.
+ */
+public final class Latin1Transcoder {
+   private static final int CHUNK_SIZE = 8192;
+
+   private Latin1Transcoder() {
+   }
+
+   /**
+    * Writes Latin-1 bytes encoded in the given charset.
+    *
+    * @param latin1  the ISO-8859-1 bytes
+    * @param charset the destination charset
+    * @param out     the output, not closed
+    * @throws IOException if the output fails
+    */
+   public static void write(byte[] latin1, Charset charset, OutputStream out) throws IOException {
+      if (StandardCharsets.ISO_8859_1.equals(charset)) {
+         out.write(latin1);
+      } else if (StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)) {
+         int firstNonAscii = firstNonAscii(latin1);
+         out.write(latin1, 0, firstNonAscii);
+         if (firstNonAscii < latin1.length) {
+            if (StandardCharsets.US_ASCII.equals(charset)) {
+               out.write(new String(latin1, firstNonAscii, latin1.length - firstNonAscii,
+                     StandardCharsets.ISO_8859_1).getBytes(charset));
+            } else {
+               writeUtf8(latin1, firstNonAscii, out);
+            }
+         }
+      } else {
+         out.write(new String(latin1, StandardCharsets.ISO_8859_1).getBytes(charset));
+      }
+   }
+
+   private static int firstNonAscii(byte[] bytes) {
+      for (int i = 0; i < bytes.length; i++) {
+         if (bytes[i] < 0) {
+            return i;
+         }
+      }
+      return bytes.length;
+   }
+
+   private static void writeUtf8(byte[] latin1, int from, OutputStream out) throws IOException {
+      byte[] chunk = new byte[CHUNK_SIZE];
+      int length = 0;
+      for (int i = from; i < latin1.length; i++) {
+         if (length > CHUNK_SIZE - 2) {
+            out.write(chunk, 0, length);
+            length = 0;
+         }
+         int c = latin1[i] & 0xFF;
+         if (c < 0x80) {
+            chunk[length++] = (byte) c;
+         } else {
+            chunk[length++] = (byte) (0xC0 | (c >> 6));
+            chunk[length++] = (byte) (0x80 | (c & 0x3F));
+         }
+      }
+      out.write(chunk, 0, length);
+   }
+}
@@ -0,0 +1,102 @@
+package com.epam.ld.module2.testing.io;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * The type Line normalizing reader.
+ * Streams text the way file mode reads it into memory: line breaks ({@code \r\n}, {@code \r})
+ * become {@code \n} and leading and trailing characters up to space are dropped as by
+ * {@link String#trim()}. Only runs of whitespace are held back, so memory does not depend on the
+ * input size.
+ */
+class LineNormalizingReader extends Reader {
+   private static final int BUFFER_SIZE = 8192;
+
+   private final Reader in;
+   private final char[] buffer = new char[BUFFER_SIZE];
+   private final StringBuilder whitespace = new StringBuilder();
+   private int bufferPos;
+   private int bufferLen;
+   private int drainPos = -1;
+   private boolean started;
+   private boolean skipLineFeed;
+
+   /**
+    * Constructor for LineNormalizingReader
+    *
+    * @param in the reader to normalize
+    */
+   LineNormalizingReader(Reader in) {
+      this.in = in;
+   }
+
+   @Override
+   public int read(char[] cbuf, int off, int len) throws IOException {
+      if (len == 0) {
+         return 0;
+      }
+      int count = 0;
+      while (count < len) {
+         if (drainPos >= 0) {
+            int chunk = Math.min(len - count, whitespace.length() - drainPos);
+            whitespace.getChars(drainPos, drainPos + chunk, cbuf, off + count);
+            count += chunk;
+            drainPos += chunk;
+            if (drainPos == whitespace.length()) {
+               whitespace.setLength(0);
+               drainPos = -1;
+            }
+            continue;
+         }
+
+         int c = nextChar();
+         if (c < 0) {
+            break;
+         }
+         if (c <= ' ') {
+            if (started) {
+               whitespace.append((char) c);
+            }
+         } else if (whitespace.length() > 0) {
+            whitespace.append((char) c);
+            drainPos = 0;
+         } else {
+            started = true;
+            cbuf[off + count++] = (char) c;
+         }
+      }
+      return count == 0 ? -1 : count;
+   }
+
+   @Override
+   public void close() throws IOException {
+      in.close();
+   }
+
+   private int nextChar() throws IOException {
+      while (true) {
+         if (bufferPos == bufferLen) {
+            bufferLen = in.read(buffer, 0, buffer.length);
+            bufferPos = 0;
+            if (bufferLen < 0) {
+               bufferLen = 0;
+               return -1;
+            }
+            continue;
+         }
+         char c = buffer[bufferPos++];
+         if (skipLineFeed) {
+            skipLineFeed = false;
+            if (c == '\n') {
+               continue;
+            }
+         }
+         if (c == '\r') {
+            skipLineFeed = true;
+            return '\n';
+         }
+         return c;
+      }
+   }
+}
@@ -0,0 +1,62 @@
+package com.epam.ld.module2.testing.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The type Mapped file read channel.
+ * Reads a file through successive read-only memory-mapped windows.
+ */
+class MappedFileReadChannel implements ReadableByteChannel {
+   private static final long WINDOW_SIZE = 64L << 20;
+
+   private final FileChannel channel;
+   private final long size;
+   private MappedByteBuffer window;
+   private long windowEnd;
+
+   /**
+    * Constructor for MappedFileReadChannel
+    *
+    * @param path the file to read
+    * @throws IOException if the file cannot be opened
+    */
+   MappedFileReadChannel(Path path) throws IOException {
+      this.channel = FileChannel.open(path, StandardOpenOption.READ);
+      this.size = channel.size();
+   }
+
+   @Override
+   public int read(ByteBuffer dst) throws IOException {
+      if (window == null || !window.hasRemaining()) {
+         if (windowEnd >= size) {
+            return -1;
+         }
+         long length = Math.min(WINDOW_SIZE, size - windowEnd);
+         window = channel.map(FileChannel.MapMode.READ_ONLY, windowEnd, length);
+         windowEnd += length;
+      }
+      int count = Math.min(dst.remaining(), window.remaining());
+      ByteBuffer slice = window.slice();
+      slice.limit(count);
+      dst.put(slice);
+      window.position(window.position() + count);
+      return count;
+   }
+
+   @Override
+   public boolean isOpen() {
+      return channel.isOpen();
+   }
+
+   @Override
+   public void close() throws IOException {
+      window = null;
+      channel.close();
+   }
+}
@@ -0,0 +1,69 @@
+package com.epam.ld.module2.testing.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The type Mapped file write channel.
+ * Writes a file through successive read-write memory-mapped windows. The file grows a window at a
+ * time and is truncated to the written size on close.
+ */
+class MappedFileWriteChannel implements WritableByteChannel {
+   private static final long WINDOW_SIZE = 16L << 20;
+
+   private final FileChannel channel;
+   private MappedByteBuffer window;
+   private long position;
+
+   /**
+    * Constructor for MappedFileWriteChannel
+    *
+    * @param path the file to write, replaced if it exists
+    * @throws IOException if the file cannot be opened
+    */
+   MappedFileWriteChannel(Path path) throws IOException {
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+   }
+
+   @Override
+   public int write(ByteBuffer src) throws IOException {
+      int written = 0;
+      while (src.hasRemaining()) {
+         if (window == null || !window.hasRemaining()) {
+            window = channel.map(FileChannel.MapMode.READ_WRITE, position, WINDOW_SIZE);
+         }
+         int count = Math.min(src.remaining(), window.remaining());
+         ByteBuffer slice = src.slice();
+         slice.limit(count);
+         window.put(slice);
+         src.position(src.position() + count);
+         position += count;
+         written += count;
+      }
+      return written;
+   }
+
+   @Override
+   public boolean isOpen() {
+      return channel.isOpen();
+   }
+
+   @Override
+   public void close() throws IOException {
+      try {
+         if (window != null) {
+            window.force();
+            window = null;
+         }
+         channel.truncate(position);
+      } finally {
+         channel.close();
+      }
+   }
+}
@@ -0,0 +1,152 @@
+package com.epam.ld.module2.testing.io;
+
+import com.epam.ld.module2.testing.template.CompiledTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The type Record file renderer.
+ * Renders a template once per record of an input file and appends every message to an output
+ * file through one buffered writer. Records are read one line at a time, so memory use does not
+ * depend on the number of records. Empty lines are skipped.
+ */
+public class RecordFileRenderer {
+   /**
+    * Variable bound to each line in {@link RecordFormat#LINES} format.
+    */
+   public static final String LINE_VARIABLE = "input";
+
+   private static final int BUFFER_SIZE = 1 << 16;
+   private static final char SEPARATOR = ',';
+   private static final char QUOTE = '"';
+
+   private final RecordFormat format;
+
+   /**
+    * Constructor for RecordFileRenderer
+    *
+    * @param format format of the input records
+    */
+   public RecordFileRenderer(RecordFormat format) {
+      this.format = format;
+   }
+
+   /**
+    * Renders one message per input record into the output file, separated by line breaks.
+    *
+    * @param template  compiled template to render
+    * @param variables values shared by all records, overridden by record values
+    * @param input     the input file, UTF-8 encoded
+    * @param output    the output file, replaced if it exists
+    * @param messages  consumer receiving each rendered message after it was written
+    * @return the number of rendered records
+    * @throws IOException              if a file cannot be read or written
+    * @throws IllegalArgumentException if a record is malformed or lacks a placeholder value
+    */
+   public long render(CompiledTemplate template, Map<String, String> variables, Path input, Path output,
+                      Consumer<String> messages) throws IOException {
+      Map<String, String> recordVariables = new HashMap<>(variables);
+      List<String> fields = new ArrayList<>();
+      long records = 0;
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            Files.newInputStream(input), StandardCharsets.UTF_8), BUFFER_SIZE);
+           Writer writer = new BufferedWriter(new OutputStreamWriter(
+                 Files.newOutputStream(output), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+         String[] names = format == RecordFormat.CSV ? readHeader(reader, fields) : null;
+         long lineNumber = names == null ? 0 : 1;
+         String line;
+         while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty()) {
+               continue;
+            }
+            if (names == null) {
+               recordVariables.put(LINE_VARIABLE, line);
+            } else {
+               bindFields(line, lineNumber, names, fields, recordVariables);
+            }
+
+            String messageContent = template.render(recordVariables);
+            if (records > 0) {
+               writer.write('\n');
+            }
+            writer.write(messageContent);
+            messages.accept(messageContent);
+            records++;
+         }
+      }
+      return records;
+   }
+
+   private static String[] readHeader(BufferedReader reader, List<String> fields) throws IOException {
+      String header = reader.readLine();
+      if (header == null) {
+         return new String[0];
+      }
+      parseCsvLine(header, 1, fields);
+      return fields.toArray(new String[0]);
+   }
+
+   private static void bindFields(String line, long lineNumber, String[] names, List<String> fields,
+                                  Map<String, String> recordVariables) {
+      parseCsvLine(line, lineNumber, fields);
+      if (fields.size() != names.length) {
+         throw new IllegalArgumentException("Expected " + names.length + " fields but found "
+               + fields.size() + " on line " + lineNumber);
+      }
+      for (int i = 0; i < names.length; i++) {
+         recordVariables.put(names[i], fields.get(i));
+      }
+   }
+
+   /**
+    * Splits one CSV line into fields.
+    *
+    * @param line       the line to split
+    * @param lineNumber the line number for error messages
+    * @param fields     list receiving the fields, cleared first
+    */
+   static void parseCsvLine(String line, long lineNumber, List<String> fields) {
+      fields.clear();
+      StringBuilder field = new StringBuilder();
+      boolean quoted = false;
+      int i = 0;
+      while (i < line.length()) {
+         char c = line.charAt(i++);
+         if (quoted) {
+            if (c != QUOTE) {
+               field.append(c);
+            } else if (i < line.length() && line.charAt(i) == QUOTE) {
+               field.append(QUOTE);
+               i++;
+            } else {
+               quoted = false;
+            }
+         } else if (c == QUOTE) {
+            quoted = true;
+         } else if (c == SEPARATOR) {
+            fields.add(field.toString());
+            field.setLength(0);
+         } else {
+            field.append(c);
+         }
+      }
+      if (quoted) {
+         throw new IllegalArgumentException("Unterminated quoted field on line " + lineNumber);
+      }
+      fields.add(field.toString());
+   }
+}
@@ -0,0 +1,16 @@
+package com.epam.ld.module2.testing.io;
+
+/**
+ * Format of the records in a batch input file, one record per line.
+ */
+public enum RecordFormat {
+   /**
+    * Each line is the value of the {@code input} variable.
+    */
+   LINES,
+   /**
+    * Comma-separated values; the first line names the variables, every following line holds
+    * their values. Fields may be quoted with {@code "}, a doubled quote stands for a quote.
+    */
+   CSV
+}
@@ -0,0 +1,179 @@
+package com.epam.ld.module2.testing.io;
+
+import com.epam.ld.module2.testing.template.CompiledTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The type Streaming file renderer.
+ * Renders a template straight into an output file while the value of one placeholder is copied
+ * from an input file in chunks, so memory use does not depend on the file sizes. The input value
+ * is normalized like in file mode: line breaks become {@code \n} and surrounding whitespace is
+ * trimmed. Both files can optionally be accessed through memory-mapped {@link FileChannel}s.
+ */
+public class StreamingFileRenderer {
+   private static final int CHUNK_SIZE = 1 << 16;
+   private static final int LATIN1_MAX = 0xFF;
+   private static final char LATIN1_REPLACEMENT = '?';
+
+   private final boolean memoryMapped;
+
+   /**
+    * Constructor for StreamingFileRenderer
+    *
+    * @param memoryMapped whether input and output files are memory-mapped
+    */
+   public StreamingFileRenderer(boolean memoryMapped) {
+      this.memoryMapped = memoryMapped;
+   }
+
+   /**
+    * Renders the template into the output file.
+    *
+    * @param template     compiled template to render
+    * @param variables    values for all placeholders except the streamed one
+    * @param streamedSlot name of the placeholder whose value is read from the input file
+    * @param input        the input file
+    * @param output       the output file, replaced if it exists
+    * @throws IOException              if a file cannot be read or written
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   public void render(CompiledTemplate template, Map<String, String> variables, String streamedSlot,
+                      Path input, Path output) throws IOException {
+      Map<String, String> required = new HashMap<>(variables);
+      required.put(streamedSlot, "");
+      template.validate(required);
+
+      Boolean rawInput = null;
+      try (Writer writer = openWriter(output)) {
+         int slotCount = template.getSlotCount();
+         for (int i = 0; i < slotCount; i++) {
+            writer.write(template.getLiteral(i));
+            String slot = template.getSlotName(i);
+            if (slot.equals(streamedSlot)) {
+               rawInput = copyInput(input, writer, rawInput);
+            } else {
+               writer.write(CompiledTemplate.prepareValue(variables.get(slot)));
+            }
+         }
+         writer.write(template.getLiteral(slotCount));
+      }
+   }
+
+   /**
+    * Streaming counterpart of {@link CompiledTemplate#isRuntimeTag(String)} for the input file.
+    * Line break normalization and trimming cannot change the result, so the raw text is scanned.
+    * This reads the file once more, which {@link #copyInput} only needs for inputs with a
+    * character outside Latin-1 before a tag is seen.
+    */
+   private boolean isRuntimeTag(Path input) throws IOException {
+      boolean openTag = false;
+      boolean closeBrace = false;
+      char previous = 0;
+      char[] chunk = new char[CHUNK_SIZE];
+      try (Reader reader = openReader(input)) {
+         int count;
+         while ((count = reader.read(chunk, 0, chunk.length)) >= 0) {
+            for (int i = 0; i < count; i++) {
+               char c = chunk[i];
+               openTag |= previous == '#' && c == '{';
+               closeBrace |= c == '}';
+               previous = c;
+            }
+            if (openTag && closeBrace) {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Copies the input value, raw if it is a runtime tag and reduced to Latin-1 otherwise.
+    * Whether it is a tag is detected while copying: both forms are the same until the first
+    * character outside Latin-1, so only reaching such a character before a tag is complete
+    * requires scanning the whole file with {@link #isRuntimeTag(Path)}.
+    *
+    * @param raw whether an earlier copy found a runtime tag, {@code null} if not known yet
+    * @return whether the input is a runtime tag
+    */
+   private boolean copyInput(Path input, Writer writer, Boolean raw) throws IOException {
+      Boolean tag = raw;
+      boolean openTag = false;
+      boolean closeBrace = false;
+      char previous = 0;
+      char[] chunk = new char[CHUNK_SIZE];
+      boolean afterHighSurrogate = false;
+      try (Reader reader = new LineNormalizingReader(openReader(input))) {
+         int count;
+         while ((count = reader.read(chunk, 0, chunk.length)) >= 0) {
+            if (tag == Boolean.TRUE) {
+               writer.write(chunk, 0, count);
+               continue;
+            }
+            int length = 0;
+            for (int i = 0; i < count; i++) {
+               char c = chunk[i];
+               if (tag == null) {
+                  openTag |= previous == '#' && c == '{';
+                  closeBrace |= c == '}';
+                  previous = c;
+                  if (openTag && closeBrace) {
+                     tag = Boolean.TRUE;
+                  } else if (c > LATIN1_MAX) {
+                     tag = isRuntimeTag(input);
+                  }
+               }
+               if (tag == Boolean.TRUE) {
+                  chunk[length++] = c;
+                  continue;
+               }
+               boolean pairedLowSurrogate = afterHighSurrogate && Character.isLowSurrogate(c);
+               afterHighSurrogate = Character.isHighSurrogate(c);
+               if (!pairedLowSurrogate) {
+                  chunk[length++] = c > LATIN1_MAX ? LATIN1_REPLACEMENT : c;
+               }
+            }
+            writer.write(chunk, 0, length);
+         }
+      }
+      return tag == Boolean.TRUE;
+   }
+
+   private Reader openReader(Path path) throws IOException {
+      ReadableByteChannel channel = memoryMapped
+            ? new MappedFileReadChannel(path)
+            : FileChannel.open(path, StandardOpenOption.READ);
+      CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      return Channels.newReader(channel, decoder, CHUNK_SIZE);
+   }
+
+   private Writer openWriter(Path path) throws IOException {
+      WritableByteChannel channel = memoryMapped
+            ? new MappedFileWriteChannel(path)
+            : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+      // Lone surrogates of a raw value are replaced, as String.getBytes does in plain file mode
+      CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      return new BufferedWriter(Channels.newWriter(channel, encoder, CHUNK_SIZE), CHUNK_SIZE);
+   }
+}
@@ -0,0 +1,138 @@
+package com.epam.ld.module2.testing.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Latency histogram.
+ * Counts durations in power-of-two nanosecond buckets. All counters are striped, so recording
+ * from many threads does not contend on a single memory location.
+ */
+public class LatencyHistogram {
+   private static final int BUCKETS = Long.SIZE;
+
+   private final LongAdder[] buckets = new LongAdder[BUCKETS];
+   private final LongAdder totalNanos = new LongAdder();
+   private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+   /**
+    * Constructor for LatencyHistogram
+    */
+   public LatencyHistogram() {
+      for (int i = 0; i < BUCKETS; i++) {
+         buckets[i] = new LongAdder();
+      }
+   }
+
+   /**
+    * Records one duration.
+    *
+    * @param nanos the duration in nanoseconds, negative values count as zero
+    */
+   public void record(long nanos) {
+      long duration = Math.max(0, nanos);
+      buckets[bucketOf(duration)].increment();
+      totalNanos.add(duration);
+      maxNanos.accumulate(duration);
+   }
+
+   /**
+    * Takes a snapshot of the recorded durations.
+    *
+    * @return the snapshot
+    */
+   public Snapshot snapshot() {
+      long[] counts = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; i++) {
+         counts[i] = buckets[i].sum();
+      }
+      return new Snapshot(counts, totalNanos.sum(), maxNanos.get());
+   }
+
+   /**
+    * Gets the bucket of a duration: bucket {@code i} holds durations below {@code 2^i} nanoseconds.
+    */
+   private static int bucketOf(long nanos) {
+      return Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(nanos));
+   }
+
+   /**
+    * Point-in-time view of a latency histogram.
+    * Counters are read one after another, so a snapshot taken while recording is approximate.
+    */
+   public static final class Snapshot {
+      private final long[] counts;
+      private final long count;
+      private final long totalNanos;
+      private final long maxNanos;
+
+      Snapshot(long[] counts, long totalNanos, long maxNanos) {
+         this.counts = counts;
+         long sum = 0;
+         for (long bucketCount : counts) {
+            sum += bucketCount;
+         }
+         this.count = sum;
+         this.totalNanos = totalNanos;
+         this.maxNanos = maxNanos;
+      }
+
+      /**
+       * Gets the number of recorded durations.
+       *
+       * @return the count
+       */
+      public long getCount() {
+         return count;
+      }
+
+      /**
+       * Gets the sum of recorded durations.
+       *
+       * @return the total in nanoseconds
+       */
+      public long getTotalNanos() {
+         return totalNanos;
+      }
+
+      /**
+       * Gets the longest recorded duration.
+       *
+       * @return the maximum in nanoseconds
+       */
+      public long getMaxNanos() {
+         return maxNanos;
+      }
+
+      /**
+       * Gets the mean recorded duration.
+       *
+       * @return the mean in nanoseconds, {@code 0} if nothing was recorded
+       */
+      public double getMeanNanos() {
+         return count == 0 ? 0 : (double) totalNanos / count;
+      }
+
+      /**
+       * Estimates a percentile as the upper bound of the bucket it falls into.
+       *
+       * @param percentile the percentile between 0 and 100
+       * @return the estimated duration in nanoseconds, never above the maximum
+       */
+      public long getPercentileNanos(double percentile) {
+         if (count == 0) {
+            return 0;
+         }
+         long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100);
+         long seen = 0;
+         for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+               long upperBound = i == 0 ? 0 : (i >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << i) - 1);
+               return Math.min(upperBound, maxNanos);
+            }
+         }
+         return maxNanos;
+      }
+   }
+}
@@ -0,0 +1,101 @@
+package com.epam.ld.module2.testing.metrics;
+
+import com.epam.ld.module2.testing.template.PlaceholderIssue;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The type Messaging metrics.
+ * Counters and latency histograms for rendering and delivery. Recording only touches striped
+ * {@link LongAdder}s, so it is cheap on hot paths even under contention. One instance can be
+ * shared by a template engine and the messengers using it.
+ */
+public class MessagingMetrics {
+   private final LatencyHistogram renderLatency = new LatencyHistogram();
+   private final LatencyHistogram sendLatency = new LatencyHistogram();
+   private final LongAdder bytesRendered = new LongAdder();
+   private final LongAdder placeholdersRendered = new LongAdder();
+   private final LongAdder cacheHits = new LongAdder();
+   private final LongAdder cacheMisses = new LongAdder();
+   private final LongAdder sendFailures = new LongAdder();
+   private final Map<PlaceholderIssue, LongAdder> validationFailures = new EnumMap<>(PlaceholderIssue.class);
+
+   /**
+    * Constructor for MessagingMetrics
+    */
+   public MessagingMetrics() {
+      for (PlaceholderIssue issue : PlaceholderIssue.values()) {
+         validationFailures.put(issue, new LongAdder());
+      }
+   }
+
+   /**
+    * Records a successful render.
+    *
+    * @param nanos        render duration in nanoseconds
+    * @param bytes        size of the rendered message, one byte per Latin-1 character
+    * @param placeholders number of substituted placeholder occurrences
+    */
+   public void recordRender(long nanos, long bytes, int placeholders) {
+      renderLatency.record(nanos);
+      bytesRendered.add(bytes);
+      placeholdersRendered.add(placeholders);
+   }
+
+   /**
+    * Records a render rejected by validation.
+    *
+    * @param issue the kind of problem, ignored if {@code null}
+    */
+   public void recordValidationFailure(PlaceholderIssue issue) {
+      if (issue != null) {
+         validationFailures.get(issue).increment();
+      }
+   }
+
+   /**
+    * Records a compiled template cache hit.
+    */
+   public void recordCacheHit() {
+      cacheHits.increment();
+   }
+
+   /**
+    * Records a compiled template cache miss.
+    */
+   public void recordCacheMiss() {
+      cacheMisses.increment();
+   }
+
+   /**
+    * Records a message handed to the mail server.
+    *
+    * @param nanos send duration in nanoseconds
+    */
+   public void recordSend(long nanos) {
+      sendLatency.record(nanos);
+   }
+
+   /**
+    * Records a message the mail server failed to accept.
+    */
+   public void recordSendFailure() {
+      sendFailures.increment();
+   }
+
+   /**
+    * Takes a snapshot of all metrics.
+    *
+    * @return the snapshot
+    */
+   public MetricsSnapshot snapshot() {
+      Map<PlaceholderIssue, Long> failures = new EnumMap<>(PlaceholderIssue.class);
+      for (Map.Entry<PlaceholderIssue, LongAdder> entry : validationFailures.entrySet()) {
+         failures.put(entry.getKey(), entry.getValue().sum());
+      }
+      return new MetricsSnapshot(renderLatency.snapshot(), sendLatency.snapshot(), bytesRendered.sum(),
+            placeholdersRendered.sum(), cacheHits.sum(), cacheMisses.sum(), sendFailures.sum(), failures);
+   }
+}
@@ -0,0 +1,81 @@
+package com.epam.ld.module2.testing.metrics;
+
+import com.epam.ld.module2.testing.template.PlaceholderIssue;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The type Metrics snapshot.
+ * Point-in-time values of {@link MessagingMetrics}.
+ */
+public final class MetricsSnapshot {
+   private final LatencyHistogram.Snapshot renderLatency;
+   private final LatencyHistogram.Snapshot sendLatency;
+   private final long bytesRendered;
+   private final long placeholdersRendered;
+   private final long cacheHits;
+   private final long cacheMisses;
+   private final long sendFailures;
+   private final Map<PlaceholderIssue, Long> validationFailures;
+
+   MetricsSnapshot(LatencyHistogram.Snapshot renderLatency, LatencyHistogram.Snapshot sendLatency,
+                   long bytesRendered, long placeholdersRendered, long cacheHits, long cacheMisses,
+                   long sendFailures, Map<PlaceholderIssue, Long> validationFailures) {
+      this.renderLatency = renderLatency;
+      this.sendLatency = sendLatency;
+      this.bytesRendered = bytesRendered;
+      this.placeholdersRendered = placeholdersRendered;
+      this.cacheHits = cacheHits;
+      this.cacheMisses = cacheMisses;
+      this.sendFailures = sendFailures;
+      this.validationFailures = Collections.unmodifiableMap(validationFailures);
+   }
+
+   public LatencyHistogram.Snapshot getRenderLatency() {
+      return renderLatency;
+   }
+
+   public LatencyHistogram.Snapshot getSendLatency() {
+      return sendLatency;
+   }
+
+   public long getBytesRendered() {
+      return bytesRendered;
+   }
+
+   public long getPlaceholdersRendered() {
+      return placeholdersRendered;
+   }
+
+   public long getCacheHits() {
+      return cacheHits;
+   }
+
+   public long getCacheMisses() {
+      return cacheMisses;
+   }
+
+   public long getSendFailures() {
+      return sendFailures;
+   }
+
+   /**
+    * Gets the number of renders rejected by validation, by kind of problem.
+    *
+    * @return the failure counts
+    */
+   public Map<PlaceholderIssue, Long> getValidationFailures() {
+      return validationFailures;
+   }
+
+   /**
+    * Gets the number of renders rejected for the given kind of problem.
+    *
+    * @param issue the kind of problem
+    * @return the failure count
+    */
+   public long getValidationFailures(PlaceholderIssue issue) {
+      return validationFailures.get(issue);
+   }
+}
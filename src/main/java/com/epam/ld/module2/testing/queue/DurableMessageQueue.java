@@ -0,0 +1,406 @@
+package com.epam.ld.module2.testing.queue;
+
+import com.epam.ld.module2.testing.MailMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The type Durable message queue.
+ * Append-only queue of rendered messages kept in fixed-size memory-mapped segment files. A record
+ * is a header of payload length and CRC-32 followed by the address length, the addresses and the
+ * content, all covered by the CRC; the length is written last, so a record torn by a crash is detected on recovery and dropped together with
+ * everything after it. Consumers read from the acknowledged position, which is stored in a
+ * checkpoint file, so messages read but not acknowledged before a restart are read again.
+ * Fully acknowledged segments are deleted.
+ *
+ * <p>Appended records survive a crash of the process as soon as {@link #append(String, String)}
+ * returns; {@link #force()} also makes them survive a crash of the operating system.
+ */
+public class DurableMessageQueue implements AutoCloseable {
+   /**
+    * Default size of one segment file.
+    */
+   public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+   private static final int HEADER_SIZE = 8;
+   private static final int ADDRESSES_LENGTH_SIZE = 4;
+   private static final int END_OF_SEGMENT = -1;
+   private static final int NULL_ADDRESSES = -1;
+   private static final String SEGMENT_SUFFIX = ".segment";
+   private static final String CHECKPOINT_FILE = "checkpoint";
+   private static final String CHECKPOINT_TEMP_FILE = "checkpoint.tmp";
+   private static final long CHECKPOINT_MAGIC = 0x5155455545434B50L;
+
+   private final Path directory;
+   private final int segmentSize;
+   private final Object writeLock = new Object();
+   private final Object readLock = new Object();
+   private final CRC32 writeCrc = new CRC32();
+   private final CRC32 readCrc = new CRC32();
+   private MappedByteBuffer writeBuffer;
+   private long writePosition;
+   private volatile long published;
+   private MappedByteBuffer readBuffer;
+   private long readSegment = -1;
+   private long acknowledged;
+   private volatile boolean closed;
+
+   /**
+    * Constructor for DurableMessageQueue with the default segment size.
+    *
+    * @param directory directory of the segment and checkpoint files, created if missing
+    * @throws IOException if the queue cannot be opened or recovered
+    */
+   public DurableMessageQueue(Path directory) throws IOException {
+      this(directory, DEFAULT_SEGMENT_SIZE);
+   }
+
+   /**
+    * Constructor for DurableMessageQueue
+    * An existing queue in the directory is recovered: reading resumes at the last checkpoint and
+    * appending after the last intact record. The segment size must match the one the queue was
+    * created with.
+    *
+    * @param directory   directory of the segment and checkpoint files, created if missing
+    * @param segmentSize size of one segment file in bytes, which limits the size of a message
+    * @throws IOException if the queue cannot be opened or recovered
+    */
+   public DurableMessageQueue(Path directory, int segmentSize) throws IOException {
+      if (segmentSize < 64) {
+         throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+      }
+      this.directory = Files.createDirectories(directory);
+      this.segmentSize = segmentSize;
+      recover();
+   }
+
+   /**
+    * Appends a message to the queue.
+    *
+    * @param addresses the addresses, may be {@code null}
+    * @param content   the message content
+    * @throws IOException              if a new segment cannot be created
+    * @throws IllegalArgumentException if the message does not fit into a segment
+    * @throws IllegalStateException    if the queue is closed
+    */
+   public void append(String addresses, String content) throws IOException {
+      byte[] addressBytes = addresses == null ? null : addresses.getBytes(StandardCharsets.UTF_8);
+      byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
+      int addressLength = addressBytes == null ? 0 : addressBytes.length;
+      int payloadLength = ADDRESSES_LENGTH_SIZE + addressLength + contentBytes.length;
+      if (HEADER_SIZE + (long) payloadLength > segmentSize) {
+         throw new IllegalArgumentException("Message too large for queue segment: " + payloadLength + " bytes");
+      }
+
+      synchronized (writeLock) {
+         checkOpen();
+         int offset = offsetOf(writePosition);
+         if (writeBuffer != null && offset + HEADER_SIZE + payloadLength > segmentSize) {
+            if (offset + HEADER_SIZE <= segmentSize) {
+               writeBuffer.putInt(offset, END_OF_SEGMENT);
+            }
+            writePosition = segmentStart(segmentOf(writePosition) + 1);
+            writeBuffer = null;
+            offset = 0;
+         }
+         if (writeBuffer == null) {
+            writeBuffer = mapSegment(segmentOf(writePosition), true);
+         }
+
+         writeBuffer.putInt(offset + HEADER_SIZE, addressBytes == null ? NULL_ADDRESSES : addressLength);
+         writeBuffer.position(offset + HEADER_SIZE + ADDRESSES_LENGTH_SIZE);
+         if (addressBytes != null) {
+            writeBuffer.put(addressBytes);
+         }
+         writeBuffer.put(contentBytes);
+         writeBuffer.putInt(offset + 4, crcOf(writeCrc, writeBuffer, offset, payloadLength));
+         writeBuffer.putInt(offset, payloadLength);
+
+         writePosition += HEADER_SIZE + payloadLength;
+         published = writePosition;
+      }
+   }
+
+   /**
+    * Reads messages from the acknowledged position without consuming them.
+    *
+    * @param maxMessages maximum number of messages to read
+    * @return the messages in append order, empty if all messages are acknowledged
+    * @throws IOException if a segment cannot be read
+    */
+   public List<MailMessage> peek(int maxMessages) throws IOException {
+      synchronized (readLock) {
+         checkOpen();
+         List<MailMessage> messages = new ArrayList<>();
+         long position = acknowledged;
+         long end = published;
+         while (messages.size() < maxMessages && (position = nextRecord(position, end)) < end) {
+            int offset = offsetOf(position);
+            int payloadLength = readBuffer.getInt(offset);
+            messages.add(readMessage(offset, payloadLength));
+            position += HEADER_SIZE + payloadLength;
+         }
+         return messages;
+      }
+   }
+
+   /**
+    * Consumes messages and stores the new position in the checkpoint file.
+    * Segments whose messages are all consumed are deleted.
+    *
+    * @param count number of messages to consume, as previously returned by {@link #peek(int)}
+    * @throws IOException              if the checkpoint cannot be written
+    * @throws IllegalArgumentException if fewer messages are queued
+    */
+   public void acknowledge(int count) throws IOException {
+      synchronized (readLock) {
+         checkOpen();
+         long position = acknowledged;
+         long end = published;
+         for (int i = 0; i < count; i++) {
+            position = nextRecord(position, end);
+            if (position >= end) {
+               throw new IllegalArgumentException("Cannot acknowledge more messages than queued");
+            }
+            position += HEADER_SIZE + readBuffer.getInt(offsetOf(position));
+         }
+         position = nextRecord(position, end);
+         if (position == acknowledged) {
+            return;
+         }
+         writeCheckpoint(position);
+         long firstKept = segmentOf(position);
+         for (long segment = segmentOf(acknowledged); segment < firstKept; segment++) {
+            Files.deleteIfExists(segmentPath(segment));
+         }
+         acknowledged = position;
+      }
+   }
+
+   /**
+    * Checks whether all appended messages are acknowledged.
+    *
+    * @return {@code true} if there is nothing to read
+    * @throws IOException if a segment cannot be read
+    */
+   public boolean isEmpty() throws IOException {
+      synchronized (readLock) {
+         checkOpen();
+         long end = published;
+         return nextRecord(acknowledged, end) >= end;
+      }
+   }
+
+   /**
+    * Writes appended messages through to the storage device.
+    */
+   public void force() {
+      synchronized (writeLock) {
+         if (writeBuffer != null) {
+            writeBuffer.force();
+         }
+      }
+   }
+
+   /**
+    * Closes the queue. Appended messages stay on disk for the next instance.
+    */
+   @Override
+   public void close() {
+      synchronized (writeLock) {
+         synchronized (readLock) {
+            if (!closed) {
+               force();
+               closed = true;
+               writeBuffer = null;
+               readBuffer = null;
+            }
+         }
+      }
+   }
+
+   /**
+    * Moves a position over the end of its segment if no record starts there, mapping the segment
+    * of the returned position for reading.
+    */
+   private long nextRecord(long position, long end) throws IOException {
+      long current = position;
+      while (current < end) {
+         if (readSegment != segmentOf(current)) {
+            readBuffer = mapSegment(segmentOf(current), false);
+            readSegment = segmentOf(current);
+         }
+         int offset = offsetOf(current);
+         if (offset + HEADER_SIZE <= segmentSize && readBuffer.getInt(offset) != END_OF_SEGMENT) {
+            return current;
+         }
+         current = segmentStart(segmentOf(current) + 1);
+      }
+      return end;
+   }
+
+   private MailMessage readMessage(int offset, int payloadLength) {
+      int addressLength = readBuffer.getInt(offset + HEADER_SIZE);
+      byte[] addresses = addressLength == NULL_ADDRESSES ? null : new byte[addressLength];
+      byte[] content = new byte[payloadLength - ADDRESSES_LENGTH_SIZE - (addresses == null ? 0 : addressLength)];
+      readBuffer.position(offset + HEADER_SIZE + ADDRESSES_LENGTH_SIZE);
+      if (addresses != null) {
+         readBuffer.get(addresses);
+      }
+      readBuffer.get(content);
+      return new MailMessage(addresses == null ? null : new String(addresses, StandardCharsets.UTF_8),
+            new String(content, StandardCharsets.UTF_8));
+   }
+
+   private void recover() throws IOException {
+      List<Long> segments = listSegments();
+      long checkpoint = readCheckpoint();
+      if (segments.isEmpty()) {
+         acknowledged = checkpoint;
+         writePosition = checkpoint;
+      } else {
+         long first = segments.get(0);
+         acknowledged = Math.max(checkpoint, segmentStart(first));
+         long last = segments.get(segments.size() - 1);
+         writeBuffer = mapSegment(last, false);
+         int offset = segmentOf(acknowledged) == last ? offsetOf(acknowledged) : 0;
+         offset = lastIntactOffset(writeBuffer, offset);
+         for (int i = offset; i < segmentSize; i++) {
+            writeBuffer.put(i, (byte) 0);
+         }
+         writePosition = segmentStart(last) + offset;
+         if (offset == segmentSize) {
+            writeBuffer = null;
+         }
+      }
+      published = writePosition;
+   }
+
+   /**
+    * Scans records from the given offset and returns the offset after the last intact one.
+    * A segment that was closed with an end marker reports its full size.
+    */
+   private int lastIntactOffset(ByteBuffer segment, int from) {
+      int offset = from;
+      while (offset + HEADER_SIZE <= segmentSize) {
+         int payloadLength = segment.getInt(offset);
+         if (payloadLength == END_OF_SEGMENT) {
+            return segmentSize;
+         }
+         if (payloadLength < ADDRESSES_LENGTH_SIZE || offset + HEADER_SIZE + (long) payloadLength > segmentSize) {
+            return offset;
+         }
+         if (crcOf(readCrc, segment, offset, payloadLength) != segment.getInt(offset + 4)) {
+            return offset;
+         }
+         int addressLength = segment.getInt(offset + HEADER_SIZE);
+         if (addressLength < NULL_ADDRESSES || addressLength > payloadLength - ADDRESSES_LENGTH_SIZE) {
+            return offset;
+         }
+         offset += HEADER_SIZE + payloadLength;
+      }
+      return segmentSize;
+   }
+
+   private List<Long> listSegments() throws IOException {
+      List<Long> segments = new ArrayList<>();
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+         for (Path file : files) {
+            String name = file.getFileName().toString();
+            segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+         }
+      }
+      segments.sort(null);
+      return segments;
+   }
+
+   private long readCheckpoint() throws IOException {
+      Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+      if (!Files.exists(checkpoint)) {
+         return 0;
+      }
+      ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+      if (data.remaining() != 2 * Long.BYTES) {
+         throw new IOException("Corrupt queue checkpoint: " + checkpoint);
+      }
+      long position = data.getLong();
+      if ((position ^ CHECKPOINT_MAGIC) != data.getLong()) {
+         throw new IOException("Corrupt queue checkpoint: " + checkpoint);
+      }
+      return position;
+   }
+
+   private void writeCheckpoint(long position) throws IOException {
+      Path temp = directory.resolve(CHECKPOINT_TEMP_FILE);
+      ByteBuffer data = ByteBuffer.allocate(2 * Long.BYTES);
+      data.putLong(position).putLong(position ^ CHECKPOINT_MAGIC).flip();
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+         while (data.hasRemaining()) {
+            channel.write(data);
+         }
+         channel.force(true);
+      }
+      Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+   }
+
+   /**
+    * Computes the CRC-32 of a record payload, from the address length to the end of the content.
+    */
+   private static int crcOf(CRC32 crc, ByteBuffer segment, int offset, int payloadLength) {
+      ByteBuffer payload = segment.duplicate();
+      payload.position(offset + HEADER_SIZE);
+      payload.limit(offset + HEADER_SIZE + payloadLength);
+      crc.reset();
+      crc.update(payload);
+      return (int) crc.getValue();
+   }
+
+   /**
+    * Maps a segment file read-write. Only a segment about to be appended to is created; recovery
+    * and reads fail on a missing file instead of leaving an empty one behind.
+    */
+   private MappedByteBuffer mapSegment(long segment, boolean create) throws IOException {
+      Path path = segmentPath(segment);
+      try (FileChannel channel = create
+            ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+            : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+         return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+      }
+   }
+
+   private Path segmentPath(long segment) {
+      return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+   }
+
+   private long segmentOf(long position) {
+      return position / segmentSize;
+   }
+
+   private int offsetOf(long position) {
+      return (int) (position % segmentSize);
+   }
+
+   private long segmentStart(long segment) {
+      return segment * segmentSize;
+   }
+
+   private void checkOpen() {
+      if (closed) {
+         throw new IllegalStateException("Message queue is closed");
+      }
+   }
+}
@@ -0,0 +1,167 @@
+package com.epam.ld.module2.testing.queue;
+
+import com.epam.ld.module2.testing.MailMessage;
+import com.epam.ld.module2.testing.MailServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * The type Message queue drainer.
+ * Delivers messages from a {@link DurableMessageQueue} to a mail server with at-least-once
+ * semantics: a batch is acknowledged only up to the last message the mail server accepted, so a
+ * message is never lost but may be sent again after a failure or a restart. Draining can be
+ * called directly or run on a background thread that retries after failures. The background
+ * thread is never interrupted, so a mail server blocked in a send is not torn down midway.
+ */
+public class MessageQueueDrainer implements AutoCloseable {
+   private final DurableMessageQueue queue;
+   private final MailServer mailServer;
+   private final int batchSize;
+   private final long idleMillis;
+   private final Object lock = new Object();
+   private final Object wakeup = new Object();
+   private Thread worker;
+   private volatile boolean running;
+   private volatile RuntimeException lastFailure;
+
+   /**
+    * Constructor for MessageQueueDrainer
+    *
+    * @param queue      the queue to drain
+    * @param mailServer the mail server delivering the messages
+    * @param batchSize  maximum number of messages acknowledged together
+    * @param idleMillis pause of the background thread when the queue is empty or delivery failed
+    */
+   public MessageQueueDrainer(DurableMessageQueue queue, MailServer mailServer, int batchSize, long idleMillis) {
+      if (batchSize < 1 || idleMillis < 0) {
+         throw new IllegalArgumentException("Invalid drainer limits");
+      }
+      this.queue = queue;
+      this.mailServer = mailServer;
+      this.batchSize = batchSize;
+      this.idleMillis = idleMillis;
+   }
+
+   /**
+    * Delivers all queued messages on the calling thread.
+    * When the mail server fails, the messages it accepted before are acknowledged and the
+    * failure is rethrown, with a failure of that acknowledgement suppressed; the failed message
+    * stays first in the queue.
+    *
+    * @return the number of delivered messages
+    * @throws IOException if the queue cannot be read or the checkpoint cannot be written
+    */
+   public long drain() throws IOException {
+      return drain(false);
+   }
+
+   private long drain(boolean background) throws IOException {
+      synchronized (lock) {
+         long delivered = 0;
+         List<MailMessage> batch;
+         while ((!background || running) && !(batch = queue.peek(batchSize)).isEmpty()) {
+            int sent = 0;
+            try {
+               for (MailMessage message : batch) {
+                  mailServer.send(message.getAddresses(), message.getContent());
+                  sent++;
+               }
+            } catch (RuntimeException | Error e) {
+               try {
+                  queue.acknowledge(sent);
+               } catch (IOException | RuntimeException acknowledgeFailure) {
+                  e.addSuppressed(acknowledgeFailure);
+               }
+               throw e;
+            }
+            queue.acknowledge(sent);
+            delivered += sent;
+         }
+         return delivered;
+      }
+   }
+
+   /**
+    * Starts draining on a background thread until {@link #close()}.
+    *
+    * @throws IllegalStateException if the drainer is already running
+    */
+   public synchronized void start() {
+      if (running) {
+         throw new IllegalStateException("Drainer is already running");
+      }
+      running = true;
+      worker = new Thread(this::runWorker, "message-queue-drainer");
+      worker.setDaemon(true);
+      worker.start();
+   }
+
+   /**
+    * Gets the failure of the last background drain attempt.
+    *
+    * @return the failure, {@code null} if the last attempt succeeded
+    */
+   public RuntimeException getLastFailure() {
+      return lastFailure;
+   }
+
+   /**
+    * Stops the background thread after its current batch and waits for it to finish.
+    * Messages still queued stay on disk for the next drainer.
+    */
+   @Override
+   public synchronized void close() {
+      synchronized (wakeup) {
+         running = false;
+         wakeup.notifyAll();
+      }
+      if (worker != null) {
+         try {
+            worker.join();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+         worker = null;
+      }
+   }
+
+   private void runWorker() {
+      while (running) {
+         long delivered = 0;
+         try {
+            delivered = drain(true);
+            lastFailure = null;
+         } catch (IOException e) {
+            lastFailure = new UncheckedIOException(e);
+         } catch (RuntimeException e) {
+            lastFailure = e;
+         } catch (Error e) {
+            // Retrying after an error is unlikely to help; stop and report it instead of dying silently
+            lastFailure = new IllegalStateException("Drainer stopped by an error", e);
+            running = false;
+            return;
+         }
+         if (delivered == 0) {
+            pause();
+         }
+      }
+   }
+
+   /**
+    * Waits before the next attempt, returning early when the drainer is closed.
+    */
+   private void pause() {
+      synchronized (wakeup) {
+         if (!running || idleMillis == 0) {
+            return;
+         }
+         try {
+            wakeup.wait(idleMillis);
+         } catch (InterruptedException e) {
+            // Only close() stops the worker; the loop checks its flag next
+         }
+      }
+   }
+}
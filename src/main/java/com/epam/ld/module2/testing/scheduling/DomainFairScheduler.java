@@ -0,0 +1,327 @@
+package com.epam.ld.module2.testing.scheduling;
+
+import com.epam.ld.module2.testing.EmailAddress;
+import com.epam.ld.module2.testing.MailMessage;
+import com.epam.ld.module2.testing.MailServer;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Domain fair scheduler.
+ * Decorates a mail server so that deliveries respect a global rate limit and a rate limit per
+ * receiving domain. Sent messages are queued per domain; domains whose limit allows a message
+ * take turns, while throttled domains wait aside until their bucket refills and then get the
+ * next turn, so a busy domain neither exceeds its own limit nor holds back the others. A domain
+ * with no queued messages is forgotten once its bucket is full again, so only domains seen
+ * recently are kept.
+ *
+ * <p>A message addressed to several domains is delivered once per domain with the addresses of
+ * that domain. Deliveries are made by {@link #dispatch()}, either called directly, which is how
+ * tests drive a simulated clock, or from the background thread started with {@link #start()}.
+ */
+public class DomainFairScheduler extends MailServer implements AutoCloseable {
+   /**
+    * Value returned by {@link #dispatch()} when no message is queued.
+    */
+   public static final long IDLE = -1;
+
+   private final MailServer delegate;
+   private final NanoClock clock;
+   private final TokenBucket globalBucket;
+   private final RateLimit defaultDomainLimit;
+   private final Map<String, RateLimit> domainLimits = new HashMap<>();
+   private final Map<String, DomainQueue> domains = new HashMap<>();
+   private final Queue<DomainQueue> ready = new ArrayDeque<>();
+   private final Queue<DomainQueue> woken = new ArrayDeque<>();
+   private final PriorityQueue<DomainQueue> throttled =
+         new PriorityQueue<>((first, second) -> Long.compare(first.readyAt, second.readyAt));
+   private final PriorityQueue<DomainQueue> idle =
+         new PriorityQueue<>((first, second) -> Long.compare(first.idleUntil, second.idleUntil));
+   private final Object lock = new Object();
+   private int pending;
+   private int sending;
+   private Thread dispatcher;
+   private volatile boolean running;
+   private volatile RuntimeException lastFailure;
+
+   /**
+    * Constructor for DomainFairScheduler using the system clock.
+    *
+    * @param delegate    mail server doing the actual sending
+    * @param globalLimit limit for all deliveries together
+    * @param domainLimit limit for each receiving domain without its own limit
+    */
+   public DomainFairScheduler(MailServer delegate, RateLimit globalLimit, RateLimit domainLimit) {
+      this(delegate, globalLimit, domainLimit, NanoClock.SYSTEM);
+   }
+
+   /**
+    * Constructor for DomainFairScheduler
+    *
+    * @param delegate    mail server doing the actual sending
+    * @param globalLimit limit for all deliveries together
+    * @param domainLimit limit for each receiving domain without its own limit
+    * @param clock       source of time for the rate limits
+    */
+   public DomainFairScheduler(MailServer delegate, RateLimit globalLimit, RateLimit domainLimit, NanoClock clock) {
+      this.delegate = delegate;
+      this.clock = clock;
+      this.globalBucket = new TokenBucket(globalLimit, clock.nanoTime());
+      this.defaultDomainLimit = domainLimit;
+   }
+
+   /**
+    * Sets the limit of one receiving domain, taking effect for domains not seen yet or already
+    * forgotten.
+    *
+    * @param domain the domain, case-insensitive
+    * @param limit  the limit
+    */
+   public void setDomainLimit(String domain, RateLimit limit) {
+      synchronized (lock) {
+         domainLimits.put(domain.toLowerCase(Locale.ROOT), limit);
+      }
+   }
+
+   /**
+    * Queues a message for rate-limited delivery.
+    *
+    * @param addresses      the addresses
+    * @param messageContent the message content
+    * @throws IllegalArgumentException if an address is invalid
+    */
+   @Override
+   public void send(String addresses, String messageContent) {
+      Map<String, String> byDomain = groupByDomain(addresses);
+      synchronized (lock) {
+         long now = clock.nanoTime();
+         for (Map.Entry<String, String> entry : byDomain.entrySet()) {
+            DomainQueue domain = domains.get(entry.getKey());
+            if (domain == null) {
+               RateLimit limit = domainLimits.getOrDefault(entry.getKey(), defaultDomainLimit);
+               domain = new DomainQueue(entry.getKey(), new TokenBucket(limit, now));
+               domains.put(entry.getKey(), domain);
+            }
+            if (domain.messages.isEmpty()) {
+               ready.add(domain);
+            }
+            domain.messages.add(new MailMessage(entry.getValue(), messageContent));
+            pending++;
+         }
+         lock.notifyAll();
+      }
+   }
+
+   /**
+    * Delivers every queued message the rate limits allow at the current time.
+    *
+    * @return nanoseconds until the next message may be sent, or {@link #IDLE} if none is queued
+    * @throws RuntimeException the failure of the mail server; the failed message is dropped
+    */
+   public long dispatch() {
+      while (true) {
+         MailMessage message;
+         synchronized (lock) {
+            long now = clock.nanoTime();
+            forgetIdleDomains(now);
+            while (!throttled.isEmpty() && throttled.peek().readyAt <= now) {
+               woken.add(throttled.poll());
+            }
+            if (ready.isEmpty() && woken.isEmpty()) {
+               return throttled.isEmpty() ? IDLE : throttled.peek().readyAt - now;
+            }
+            long globalWait = globalBucket.nanosUntilAvailable(now);
+            if (globalWait > 0) {
+               return globalWait;
+            }
+
+            // Domains that were throttled have waited their turn already and go first
+            DomainQueue domain = woken.isEmpty() ? ready.poll() : woken.poll();
+            long domainWait = domain.bucket.nanosUntilAvailable(now);
+            if (domainWait > 0) {
+               domain.readyAt = now + domainWait;
+               throttled.add(domain);
+               continue;
+            }
+            domain.bucket.acquire(now);
+            globalBucket.acquire(now);
+            message = domain.messages.poll();
+            pending--;
+            sending++;
+            if (!domain.messages.isEmpty()) {
+               ready.add(domain);
+            } else if (!domain.idle) {
+               domain.idle = true;
+               domain.idleUntil = domain.bucket.getFullAt();
+               idle.add(domain);
+            }
+         }
+         try {
+            delegate.send(message.getAddresses(), message.getContent());
+         } finally {
+            synchronized (lock) {
+               sending--;
+               lock.notifyAll();
+            }
+         }
+      }
+   }
+
+   /**
+    * Gets the number of queued messages, counting one per receiving domain.
+    *
+    * @return the pending message count
+    */
+   public int getPendingCount() {
+      synchronized (lock) {
+         return pending;
+      }
+   }
+
+   /**
+    * Gets the number of receiving domains currently tracked.
+    *
+    * @return the domain count
+    */
+   int getDomainCount() {
+      synchronized (lock) {
+         return domains.size();
+      }
+   }
+
+   /**
+    * Starts delivering on a background thread until {@link #close()}.
+    *
+    * @throws IllegalStateException if the scheduler is already running
+    */
+   public synchronized void start() {
+      if (running) {
+         throw new IllegalStateException("Scheduler is already running");
+      }
+      running = true;
+      dispatcher = new Thread(this::runDispatcher, "domain-fair-scheduler");
+      dispatcher.setDaemon(true);
+      dispatcher.start();
+   }
+
+   /**
+    * Gets the last failure of the mail server seen by the background thread.
+    *
+    * @return the failure, {@code null} if there was none
+    */
+   public RuntimeException getLastFailure() {
+      return lastFailure;
+   }
+
+   /**
+    * Waits until the background thread has delivered all queued messages and stops it.
+    * Without a running background thread queued messages are left undelivered.
+    */
+   @Override
+   public synchronized void close() {
+      if (dispatcher == null) {
+         return;
+      }
+      try {
+         synchronized (lock) {
+            while ((pending > 0 || sending > 0) && dispatcher.isAlive()) {
+               lock.wait();
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      } finally {
+         running = false;
+         dispatcher.interrupt();
+         try {
+            dispatcher.join();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+         dispatcher = null;
+      }
+   }
+
+   /**
+    * Drops domains without queued messages whose bucket is full, since a new bucket would allow
+    * the same. A domain that got messages again leaves the idle queue and rejoins it once drained.
+    */
+   private void forgetIdleDomains(long now) {
+      while (!idle.isEmpty() && idle.peek().idleUntil <= now) {
+         DomainQueue domain = idle.poll();
+         if (!domain.messages.isEmpty()) {
+            domain.idle = false;
+         } else if (domain.bucket.getFullAt() <= now) {
+            domains.remove(domain.name);
+         } else {
+            domain.idleUntil = domain.bucket.getFullAt();
+            idle.add(domain);
+         }
+      }
+   }
+
+   private void runDispatcher() {
+      try {
+         while (running) {
+            long wait;
+            try {
+               wait = dispatch();
+            } catch (RuntimeException e) {
+               lastFailure = e;
+               continue;
+            }
+            synchronized (lock) {
+               if (wait == IDLE && pending == 0) {
+                  lock.wait();
+               } else if (wait > 0) {
+                  TimeUnit.NANOSECONDS.timedWait(lock, wait);
+               }
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /**
+    * Splits an address list into the addresses of each receiving domain, keeping their order and
+    * dropping display names. A message without addresses goes to the empty domain.
+    */
+   static Map<String, String> groupByDomain(String addresses) {
+      Map<String, String> byDomain = new LinkedHashMap<>();
+      List<EmailAddress> parsed = EmailAddress.parseList(addresses);
+      if (parsed.isEmpty()) {
+         byDomain.put("", addresses);
+         return byDomain;
+      }
+      for (EmailAddress address : parsed) {
+         byDomain.merge(address.getDomain(), address.getAddress(), (first, second) -> first + ", " + second);
+      }
+      return byDomain;
+   }
+
+   /**
+    * Messages waiting for one receiving domain together with its rate limit.
+    */
+   private static final class DomainQueue {
+      private final String name;
+      private final Queue<MailMessage> messages = new ArrayDeque<>();
+      private final TokenBucket bucket;
+      private long readyAt;
+      private long idleUntil;
+      private boolean idle;
+
+      DomainQueue(String name, TokenBucket bucket) {
+         this.name = name;
+         this.bucket = bucket;
+      }
+   }
+}
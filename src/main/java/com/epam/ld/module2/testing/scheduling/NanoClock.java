@@ -0,0 +1,20 @@
+package com.epam.ld.module2.testing.scheduling;
+
+/**
+ * The interface Nano clock.
+ * Source of monotonic time for rate limiting, replaceable by a simulated clock in tests.
+ */
+@FunctionalInterface
+public interface NanoClock {
+   /**
+    * Clock backed by {@link System#nanoTime()}.
+    */
+   NanoClock SYSTEM = System::nanoTime;
+
+   /**
+    * Gets the current time.
+    *
+    * @return the time in nanoseconds, only meaningful relative to other readings
+    */
+   long nanoTime();
+}
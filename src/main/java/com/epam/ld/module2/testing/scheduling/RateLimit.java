@@ -0,0 +1,42 @@
+package com.epam.ld.module2.testing.scheduling;
+
+/**
+ * The type Rate limit.
+ * Sustained number of messages per second together with the burst allowed after idle time.
+ */
+public final class RateLimit {
+   private final double messagesPerSecond;
+   private final int burst;
+
+   /**
+    * Constructor for RateLimit
+    *
+    * @param messagesPerSecond sustained rate
+    * @param burst             number of messages that can be sent at once after idle time
+    */
+   public RateLimit(double messagesPerSecond, int burst) {
+      if (!(messagesPerSecond > 0) || burst < 1) {
+         throw new IllegalArgumentException("Invalid rate limit");
+      }
+      this.messagesPerSecond = messagesPerSecond;
+      this.burst = burst;
+   }
+
+   /**
+    * Gets the sustained rate.
+    *
+    * @return messages per second
+    */
+   public double getMessagesPerSecond() {
+      return messagesPerSecond;
+   }
+
+   /**
+    * Gets the burst size.
+    *
+    * @return number of messages
+    */
+   public int getBurst() {
+      return burst;
+   }
+}
@@ -0,0 +1,54 @@
+package com.epam.ld.module2.testing.scheduling;
+
+/**
+ * The type Token bucket.
+ * Rate limiter in the form of the generic cell rate algorithm: instead of counting tokens it keeps
+ * the theoretical arrival time of the next message, which needs no refill step. Not thread-safe.
+ */
+final class TokenBucket {
+   private static final double NANOS_PER_SECOND = 1e9;
+
+   private final long intervalNanos;
+   private final long toleranceNanos;
+   private long theoreticalArrival;
+
+   /**
+    * Constructor for TokenBucket, starting full.
+    *
+    * @param limit the rate limit
+    * @param now   the current time in nanoseconds
+    */
+   TokenBucket(RateLimit limit, long now) {
+      this.intervalNanos = Math.max(1, Math.round(NANOS_PER_SECOND / limit.getMessagesPerSecond()));
+      this.toleranceNanos = intervalNanos * (limit.getBurst() - 1);
+      this.theoreticalArrival = now;
+   }
+
+   /**
+    * Gets the time until the next message may be sent.
+    *
+    * @param now the current time in nanoseconds
+    * @return the wait in nanoseconds, {@code 0} if a message may be sent now
+    */
+   long nanosUntilAvailable(long now) {
+      return Math.max(0, theoreticalArrival - toleranceNanos - now);
+   }
+
+   /**
+    * Gets the time from which the bucket is full again, as if no message had been sent.
+    *
+    * @return the time in nanoseconds
+    */
+   long getFullAt() {
+      return theoreticalArrival;
+   }
+
+   /**
+    * Takes one token, which must be available.
+    *
+    * @param now the current time in nanoseconds
+    */
+   void acquire(long now) {
+      theoreticalArrival = Math.max(theoreticalArrival, now) + intervalNanos;
+   }
+}
@@ -0,0 +1,139 @@
+package com.epam.ld.module2.testing.template;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The type Bindings.
+ * Immutable set of placeholder values for one render. Bindings can be layered: values of an
+ * upper layer hide values of the same name below, so per-recipient values can be put over shared
+ * template values without copying either. Maps passed in are used as is and must not be modified
+ * while renders using them are running. Values can also be bound as {@link ValueSource}s that
+ * are only computed or read when a render writes them.
+ */
+public final class Bindings {
+   private static final Bindings EMPTY = new Bindings(Collections.<String, String>emptyMap(), null);
+
+   private final Map<String, String> values;
+   private final String sourceName;
+   private final ValueSource source;
+   private final Bindings parent;
+
+   private Bindings(Map<String, String> values, Bindings parent) {
+      this(values, null, null, parent);
+   }
+
+   private Bindings(Map<String, String> values, String sourceName, ValueSource source, Bindings parent) {
+      this.values = values;
+      this.sourceName = sourceName;
+      this.source = source;
+      this.parent = parent;
+   }
+
+   /**
+    * Gets bindings without values.
+    *
+    * @return the empty bindings
+    */
+   public static Bindings empty() {
+      return EMPTY;
+   }
+
+   /**
+    * Creates bindings backed by the given map.
+    *
+    * @param values the values for placeholders
+    * @return the bindings
+    */
+   public static Bindings of(Map<String, String> values) {
+      return values.isEmpty() ? EMPTY : new Bindings(values, null);
+   }
+
+   /**
+    * Creates bindings with the given values layered over these ones.
+    *
+    * @param overrides the values taking precedence
+    * @return the layered bindings
+    */
+   public Bindings with(Map<String, String> overrides) {
+      if (overrides.isEmpty()) {
+         return this;
+      }
+      return this == EMPTY ? new Bindings(overrides, null) : new Bindings(overrides, this);
+   }
+
+   /**
+    * Creates bindings with one value layered over these ones.
+    *
+    * @param name  the placeholder name
+    * @param value the value, {@code null} is kept and rejected when rendering
+    * @return the layered bindings
+    */
+   public Bindings with(String name, String value) {
+      return with(Collections.singletonMap(name, value));
+   }
+
+   /**
+    * Creates bindings with one lazily produced value layered over these ones.
+    *
+    * @param name   the placeholder name
+    * @param source the value source
+    * @return the layered bindings
+    */
+   public Bindings withSource(String name, ValueSource source) {
+      return new Bindings(Collections.<String, String>emptyMap(), name, source, this == EMPTY ? null : this);
+   }
+
+   /**
+    * Checks whether a value is bound for the name, including {@code null} values.
+    *
+    * @param name the placeholder name
+    * @return {@code true} if a value is bound
+    */
+   public boolean contains(String name) {
+      for (Bindings layer = this; layer != null; layer = layer.parent) {
+         if (layer.values.containsKey(name) || name.equals(layer.sourceName)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Gets the value bound for the name, producing it if it is bound as a {@link ValueSource}.
+    *
+    * @param name the placeholder name
+    * @return the value, or {@code null} if none is bound
+    * @throws IllegalArgumentException if a value source produces {@code null}
+    */
+   public String get(String name) {
+      Object value = lookup(name);
+      if (!(value instanceof ValueSource)) {
+         return (String) value;
+      }
+      String produced = ((ValueSource) value).value();
+      if (produced == null) {
+         throw new IllegalArgumentException("Null value not allowed for placeholder: " + name);
+      }
+      return produced;
+   }
+
+   /**
+    * Gets the value or the value source bound for the name without producing the value.
+    *
+    * @param name the placeholder name
+    * @return the String or {@link ValueSource}, or {@code null} if none is bound
+    */
+   Object lookup(String name) {
+      for (Bindings layer = this; layer != null; layer = layer.parent) {
+         if (name.equals(layer.sourceName)) {
+            return layer.source;
+         }
+         String value = layer.values.get(name);
+         if (value != null || layer.values.containsKey(name)) {
+            return value;
+         }
+      }
+      return null;
+   }
+}
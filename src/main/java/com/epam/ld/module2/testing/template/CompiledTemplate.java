@@ -0,0 +1,758 @@
+package com.epam.ld.module2.testing.template;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The type Compiled template.
+ * Parsed form of a template text: literal segments interleaved with placeholder slots.
+ * Instances are immutable and render in a single pass over the segments, so one compiled
+ * template can be reused for any number of messages.
+ */
+public final class CompiledTemplate {
+   private static final String PLACEHOLDER_START = "#{";
+   private static final char PLACEHOLDER_END = '}';
+   private static final int LATIN1_MAX = 0xFF;
+   private static final char LATIN1_REPLACEMENT = '?';
+   private static final int PARALLEL_GRAIN = 64 * 1024;
+
+   private final String source;
+   private final String[] literals;
+   private final byte[][] literalBytes;
+   private final String[] slots;
+   private final int[] slotOffsets;
+   private final Set<String> placeholders;
+   private final String[] distinctPlaceholders;
+   private final Set<String> repeatedPlaceholders;
+   private final int literalLength;
+
+   private CompiledTemplate(String source, String[] literals, String[] slots, int[] slotOffsets,
+                            Set<String> placeholders) {
+      this.source = source;
+      this.literals = literals;
+      this.literalBytes = new byte[literals.length][];
+      for (int i = 0; i < literals.length; i++) {
+         literalBytes[i] = literals[i].getBytes(StandardCharsets.ISO_8859_1);
+      }
+      this.slots = slots;
+      this.slotOffsets = slotOffsets;
+      this.placeholders = Collections.unmodifiableSet(placeholders);
+      this.distinctPlaceholders = placeholders.toArray(new String[0]);
+      this.repeatedPlaceholders = new HashSet<>();
+      Set<String> seen = new HashSet<>();
+      for (String slot : slots) {
+         if (!seen.add(slot)) {
+            repeatedPlaceholders.add(slot);
+         }
+      }
+      int length = 0;
+      for (String literal : literals) {
+         length += literal.length();
+      }
+      this.literalLength = length;
+   }
+
+   /**
+    * Compiles the given template text.
+    * A placeholder is <code>#{</code> followed by at least one character up to the nearest
+    * <code>}</code>.
+    * The text is scanned once, finding and validating every placeholder on the way.
+    *
+    * @param templateText the template text
+    * @return the compiled template
+    * @throws IllegalArgumentException if a placeholder name has an invalid format
+    */
+   public static CompiledTemplate compile(String templateText) {
+      return compile(templateText, null);
+   }
+
+   /**
+    * Compiles the given template text, collecting malformed placeholders instead of failing on
+    * the first. Malformed placeholders are kept as literal text.
+    *
+    * @param templateText the template text
+    * @param malformed    receives the malformed placeholder names, {@code null} to throw instead
+    * @return the compiled template
+    * @throws IllegalArgumentException if a placeholder name has an invalid format and malformed
+    *                                  names are not collected
+    */
+   static CompiledTemplate compile(String templateText, List<String> malformed) {
+      String text = toLatin1(templateText);
+      int length = text.length();
+      List<String> literals = new ArrayList<>();
+      List<String> slots = new ArrayList<>();
+      int[] offsets = new int[8];
+      Set<String> placeholders = new LinkedHashSet<>();
+
+      int last = 0;
+      int start = text.indexOf(PLACEHOLDER_START);
+      while (start >= 0) {
+         int nameStart = start + PLACEHOLDER_START.length();
+         int end = nameStart;
+         boolean valid = end < length && isNameStart(text.charAt(end));
+         while (end < length && text.charAt(end) != PLACEHOLDER_END) {
+            valid = valid && isNamePart(text.charAt(end));
+            end++;
+         }
+         if (end == length) {
+            // No closing brace after this point, so no further placeholders either
+            break;
+         }
+         if (end == nameStart) {
+            // "#{}" has no name and is kept as literal text
+            start = text.indexOf(PLACEHOLDER_START, start + 1);
+            continue;
+         }
+
+         String name = text.substring(nameStart, end);
+         if (!valid && malformed != null) {
+            malformed.add(name);
+            start = text.indexOf(PLACEHOLDER_START, end + 1);
+            continue;
+         }
+         if (!valid) {
+            validatePlaceholderFormat(name);
+         }
+         placeholders.add(name);
+         if (slots.size() == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+         }
+         offsets[slots.size()] = start;
+         literals.add(text.substring(last, start));
+         slots.add(name);
+         last = end + 1;
+         start = text.indexOf(PLACEHOLDER_START, last);
+      }
+      literals.add(text.substring(last));
+
+      return new CompiledTemplate(templateText, literals.toArray(new String[0]),
+            slots.toArray(new String[0]), Arrays.copyOf(offsets, slots.size()), placeholders);
+   }
+
+   /**
+    * Rebuilds a compiled template from the slot positions found by an earlier
+    * {@link #compile(String)} of the same text, without scanning or validating it again.
+    *
+    * @param templateText the template text
+    * @param offsets      the offset of each placeholder, as returned by {@link #getSlotOffset(int)}
+    * @param nameLengths  the length of each placeholder name
+    * @return the compiled template
+    * @throws IllegalArgumentException if the positions do not match placeholders of the text
+    */
+   static CompiledTemplate restore(String templateText, int[] offsets, int[] nameLengths) {
+      String text = toLatin1(templateText);
+      String[] literals = new String[offsets.length + 1];
+      String[] slots = new String[offsets.length];
+      Set<String> placeholders = new LinkedHashSet<>();
+      int last = 0;
+      for (int i = 0; i < offsets.length; i++) {
+         int nameStart = offsets[i] + PLACEHOLDER_START.length();
+         int end = nameStart + nameLengths[i];
+         if (offsets[i] < last || nameLengths[i] < 1 || end >= text.length()
+               || !text.startsWith(PLACEHOLDER_START, offsets[i]) || text.charAt(end) != PLACEHOLDER_END) {
+            throw new IllegalArgumentException("Slot positions do not match the template text");
+         }
+         literals[i] = text.substring(last, offsets[i]);
+         slots[i] = text.substring(nameStart, end);
+         placeholders.add(slots[i]);
+         last = end + 1;
+      }
+      literals[offsets.length] = text.substring(last);
+      return new CompiledTemplate(templateText, literals, slots, offsets.clone(), placeholders);
+   }
+
+   /**
+    * Renders the template with the given variables.
+    *
+    * @param variables the values for placeholders
+    * @return the rendered message
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   public String render(Map<String, String> variables) {
+      return render(Bindings.of(variables));
+   }
+
+   /**
+    * Renders the template with the given bindings.
+    *
+    * @param bindings the values for placeholders
+    * @return the rendered message
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   public String render(Bindings bindings) {
+      validate(bindings);
+      return renderValidated(bindings);
+   }
+
+   /**
+    * Renders the template with bindings already validated, e.g. by {@link #collectProblems}.
+    *
+    * @param bindings the values for placeholders
+    * @return the rendered message
+    * @throws NullPointerException if a placeholder value is missing or null
+    */
+   String renderValidated(Bindings bindings) {
+      if (slots.length == 0) {
+         return literals[0];
+      }
+
+      int capacity = literalLength;
+      for (String slot : slots) {
+         Object value = bindings.lookup(slot);
+         capacity += value instanceof String ? ((String) value).length() : 0;
+      }
+
+      StringBuilder result = new StringBuilder(capacity);
+      try {
+         appendTo(result, bindings);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      return result.toString();
+   }
+
+   /**
+    * Renders the template with the given bindings using fork/join tasks.
+    * Segments are split into ranges that are written concurrently into one character array at
+    * precomputed offsets, so the pieces are joined by a single final copy into the String.
+    * The result equals that of {@link #render(Bindings)}; splitting only pays off for large
+    * templates.
+    *
+    * @param bindings the values for placeholders
+    * @param pool     the pool running the tasks
+    * @return the rendered message
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   public String renderParallel(Bindings bindings, ForkJoinPool pool) {
+      validate(bindings);
+      return renderParallelValidated(bindings, pool);
+   }
+
+   /**
+    * Renders the template with bindings already validated using fork/join tasks.
+    *
+    * @param bindings the values for placeholders
+    * @param pool     the pool running the tasks
+    * @return the rendered message
+    * @throws NullPointerException if a placeholder value is missing or null
+    */
+   String renderParallelValidated(Bindings bindings, ForkJoinPool pool) {
+      String[] values = new String[slots.length];
+      int[] offsets = new int[slots.length + 2];
+      int position = 0;
+      for (int i = 0; i < slots.length; i++) {
+         offsets[i] = position;
+         values[i] = bindings.get(slots[i]);
+         position += literals[i].length() + outputLength(values[i]);
+      }
+      offsets[slots.length] = position;
+      offsets[slots.length + 1] = position + literals[slots.length].length();
+
+      char[] out = new char[offsets[slots.length + 1]];
+      pool.invoke(new RenderTask(values, offsets, out, 0, slots.length + 1));
+      return new String(out);
+   }
+
+   /**
+    * Renders the template with the given variables into the given output.
+    *
+    * @param variables the values for placeholders
+    * @param out       the output
+    * @throws IOException              if the output fails
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    * @see #render(Bindings, Appendable)
+    */
+   public void render(Map<String, String> variables, Appendable out) throws IOException {
+      render(Bindings.of(variables), out);
+   }
+
+   /**
+    * Renders the template with the given bindings into the given output.
+    * Streamed {@link ValueSource}s are copied into the output in chunks. Apart from their chunk
+    * buffer nothing is allocated per call beyond what the output itself allocates.
+    *
+    * @param bindings the values for placeholders
+    * @param out      the output
+    * @throws IOException              if the output fails
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   public void render(Bindings bindings, Appendable out) throws IOException {
+      validate(bindings);
+      appendTo(out, bindings);
+   }
+
+   /**
+    * Renders the template with the given variables into the given buffer as ISO-8859-1 bytes.
+    *
+    * @param variables the values for placeholders
+    * @param out       the buffer, written from its position
+    * @throws java.nio.BufferOverflowException if the message does not fit into the buffer
+    * @throws IllegalArgumentException         if a placeholder value is missing or null
+    * @see #render(Bindings, ByteBuffer)
+    */
+   public void render(Map<String, String> variables, ByteBuffer out) {
+      render(Bindings.of(variables), out);
+   }
+
+   /**
+    * Renders the template with the given bindings into the given buffer as ISO-8859-1 bytes.
+    * Characters outside Latin-1 are written as {@code ?}. Nothing is allocated per call, so one
+    * buffer can be reused for any number of messages.
+    *
+    * @param bindings the values for placeholders
+    * @param out      the buffer, written from its position
+    * @throws java.nio.BufferOverflowException if the message does not fit into the buffer
+    * @throws IllegalArgumentException         if a placeholder value is missing or null
+    */
+   public void render(Bindings bindings, ByteBuffer out) {
+      validate(bindings);
+      renderValidated(bindings, out);
+   }
+
+   /**
+    * Renders the template with bindings already validated into the given buffer as ISO-8859-1 bytes.
+    *
+    * @param bindings the values for placeholders
+    * @param out      the buffer, written from its position
+    * @throws java.nio.BufferOverflowException if the message does not fit into the buffer
+    * @throws NullPointerException             if a placeholder value is missing or null
+    */
+   void renderValidated(Bindings bindings, ByteBuffer out) {
+      for (int i = 0; i < slots.length; i++) {
+         out.put(literalBytes[i]);
+         encodeLatin1(bindings.get(slots[i]), out);
+      }
+      out.put(literalBytes[slots.length]);
+   }
+
+   /**
+    * Gets the size of the message rendered with the given bindings in ISO-8859-1 bytes.
+    *
+    * @param bindings the values for placeholders
+    * @return the size in bytes
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   public int byteLength(Bindings bindings) {
+      validate(bindings);
+      return byteLengthValidated(bindings);
+   }
+
+   /**
+    * Gets the size of the message rendered with bindings already validated in ISO-8859-1 bytes.
+    *
+    * @param bindings the values for placeholders
+    * @return the size in bytes
+    * @throws NullPointerException if a placeholder value is missing or null
+    */
+   int byteLengthValidated(Bindings bindings) {
+      int size = literalLength;
+      for (String slot : slots) {
+         size += encodedLength(bindings.get(slot));
+      }
+      return size;
+   }
+
+   /**
+    * Renders the template with the given bindings as ISO-8859-1 bytes.
+    * Literal segments are copied from their stored Latin-1 form and values are encoded straight
+    * into the result, which is allocated once at its exact size. Characters outside Latin-1,
+    * runtime tags included, are written as {@code ?}.
+    *
+    * @param bindings the values for placeholders
+    * @return the rendered message in ISO-8859-1
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   public byte[] renderBytes(Bindings bindings) {
+      byte[] result = new byte[byteLength(bindings)];
+      int position = 0;
+      for (int i = 0; i < slots.length; i++) {
+         byte[] literal = literalBytes[i];
+         System.arraycopy(literal, 0, result, position, literal.length);
+         position = encodeLatin1(bindings.get(slots[i]), result, position + literal.length);
+      }
+      byte[] literal = literalBytes[slots.length];
+      System.arraycopy(literal, 0, result, position, literal.length);
+      return result;
+   }
+
+   /**
+    * Validates whether all placeholders have corresponding non-null values.
+    *
+    * @param variables the values for placeholders
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   public void validate(Map<String, String> variables) {
+      validate(Bindings.of(variables));
+   }
+
+   /**
+    * Validates whether all placeholders have corresponding non-null values.
+    *
+    * @param bindings the values for placeholders
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   public void validate(Bindings bindings) {
+      List<String> missing = null;
+      for (String placeholder : distinctPlaceholders) {
+         if (bindings.lookup(placeholder) != null) {
+            continue;
+         }
+         if (bindings.contains(placeholder)) {
+            throw new IllegalArgumentException("Null value not allowed for placeholder: " + placeholder);
+         }
+         if (missing == null) {
+            missing = new ArrayList<>();
+         }
+         missing.add(placeholder);
+      }
+
+      if (missing != null) {
+         throw new IllegalArgumentException("Missing values for placeholders: " +
+               String.join(", ", missing));
+      }
+   }
+
+   /**
+    * Finds the kind of problem that made validating or rendering the bindings fail.
+    * A {@code null} value takes precedence, as in {@link #validate(Bindings)}; when every
+    * placeholder is bound, the failure came from a value source producing {@code null}.
+    *
+    * @param bindings the values that failed
+    * @return the kind of problem
+    */
+   PlaceholderIssue findIssue(Bindings bindings) {
+      PlaceholderIssue issue = PlaceholderIssue.NULL_VALUE;
+      for (String placeholder : distinctPlaceholders) {
+         if (bindings.lookup(placeholder) == null) {
+            if (bindings.contains(placeholder)) {
+               return PlaceholderIssue.NULL_VALUE;
+            }
+            issue = PlaceholderIssue.MISSING;
+         }
+      }
+      return issue;
+   }
+
+   /**
+    * Adds every problem of the bindings to the report instead of failing on the first.
+    * Values that are runtime tags are reported as well; values of {@link ValueSource}s are not
+    * produced, so they are never reported as runtime tags.
+    *
+    * @param bindings the values for placeholders
+    * @param index    position of the bindings in the validated batch
+    * @param report   the report to add the problems to
+    */
+   void collectProblems(Bindings bindings, long index, ValidationReport report) {
+      for (String placeholder : distinctPlaceholders) {
+         Object value = bindings.lookup(placeholder);
+         if (value == null) {
+            report.add(bindings.contains(placeholder) ? PlaceholderIssue.NULL_VALUE : PlaceholderIssue.MISSING,
+                  placeholder, index);
+         } else if (value instanceof String && isRuntimeTag((String) value)) {
+            report.add(PlaceholderIssue.RUNTIME_TAG, placeholder, index);
+         }
+      }
+   }
+
+   /**
+    * Gets the original template text.
+    *
+    * @return the template text
+    */
+   public String getSource() {
+      return source;
+   }
+
+   /**
+    * Gets the distinct placeholder names in order of first occurrence.
+    *
+    * @return the placeholder names
+    */
+   public Set<String> getPlaceholders() {
+      return placeholders;
+   }
+
+   /**
+    * Gets the number of placeholder slots, one per placeholder occurrence.
+    *
+    * @return the slot count
+    */
+   public int getSlotCount() {
+      return slots.length;
+   }
+
+   /**
+    * Gets the literal text preceding the slot with the given index.
+    * The literal at index {@link #getSlotCount()} is the text after the last slot.
+    *
+    * @param index the literal index
+    * @return the literal text
+    */
+   public String getLiteral(int index) {
+      return literals[index];
+   }
+
+   /**
+    * Gets the placeholder name of the slot with the given index.
+    *
+    * @param index the slot index
+    * @return the placeholder name
+    */
+   public String getSlotName(int index) {
+      return slots[index];
+   }
+
+   /**
+    * Gets the position of the slot with the given index in the template text.
+    * The position is that of the opening <code>#</code> after the text is restricted to Latin-1.
+    *
+    * @param index the slot index
+    * @return the offset of the placeholder
+    */
+   public int getSlotOffset(int index) {
+      return slotOffsets[index];
+   }
+
+   /**
+    * Converts a placeholder value to the form it takes in the rendered output.
+    * Runtime tags are kept as is, other values are restricted to Latin-1.
+    *
+    * @param value the placeholder value
+    * @return the output value
+    */
+   public static String prepareValue(String value) {
+      return isRuntimeTag(value) ? value : toLatin1(value);
+   }
+
+   private void appendTo(Appendable out, Bindings bindings) throws IOException {
+      for (int i = 0; i < slots.length; i++) {
+         out.append(literals[i]);
+         Object value = bindings.lookup(slots[i]);
+         if (value instanceof ValueSource && ((ValueSource) value).isStreaming()
+               && !repeatedPlaceholders.contains(slots[i])) {
+            ((ValueSource) value).writeTo(out);
+         } else {
+            appendValue(out, value instanceof String ? (String) value : bindings.get(slots[i]));
+         }
+      }
+      out.append(literals[slots.length]);
+   }
+
+   private static void appendValue(Appendable out, String value) throws IOException {
+      if (isRuntimeTag(value) || isLatin1(value)) {
+         out.append(value);
+         return;
+      }
+      for (int i = 0; i < value.length(); i++) {
+         char c = value.charAt(i);
+         if (c <= LATIN1_MAX) {
+            out.append(c);
+         } else {
+            out.append(LATIN1_REPLACEMENT);
+            i += isSurrogatePair(value, i) ? 1 : 0;
+         }
+      }
+   }
+
+   /**
+    * Gets the number of chars a value takes in the rendered output.
+    */
+   private static int outputLength(String value) {
+      return isRuntimeTag(value) ? value.length() : encodedLength(value);
+   }
+
+   private static void writeValue(String value, char[] out, int position) {
+      if (isRuntimeTag(value) || isLatin1(value)) {
+         value.getChars(0, value.length(), out, position);
+         return;
+      }
+      int next = position;
+      for (int i = 0; i < value.length(); i++) {
+         char c = value.charAt(i);
+         if (c <= LATIN1_MAX) {
+            out[next++] = c;
+         } else {
+            out[next++] = LATIN1_REPLACEMENT;
+            i += isSurrogatePair(value, i) ? 1 : 0;
+         }
+      }
+   }
+
+   private static void encodeLatin1(String value, ByteBuffer out) {
+      if (out.hasArray()) {
+         int length = encodedLength(value);
+         if (length > out.remaining()) {
+            throw new BufferOverflowException();
+         }
+         encodeLatin1(value, out.array(), out.arrayOffset() + out.position());
+         out.position(out.position() + length);
+         return;
+      }
+      for (int i = 0; i < value.length(); i++) {
+         char c = value.charAt(i);
+         if (c <= LATIN1_MAX) {
+            out.put((byte) c);
+         } else {
+            out.put((byte) LATIN1_REPLACEMENT);
+            i += isSurrogatePair(value, i) ? 1 : 0;
+         }
+      }
+   }
+
+   /**
+    * Encodes a value into the array and returns the position after it.
+    * Latin-1 values are copied with {@link String#getBytes(int, int, byte[], int)}, which keeps the
+    * low byte of each char and is a plain array copy for compact strings.
+    */
+   @SuppressWarnings("deprecation")
+   private static int encodeLatin1(String value, byte[] out, int position) {
+      if (isLatin1(value)) {
+         value.getBytes(0, value.length(), out, position);
+         return position + value.length();
+      }
+      int next = position;
+      for (int i = 0; i < value.length(); i++) {
+         char c = value.charAt(i);
+         if (c <= LATIN1_MAX) {
+            out[next++] = (byte) c;
+         } else {
+            out[next++] = (byte) LATIN1_REPLACEMENT;
+            i += isSurrogatePair(value, i) ? 1 : 0;
+         }
+      }
+      return next;
+   }
+
+   private static int encodedLength(String value) {
+      int length = value.length();
+      for (int i = 0; i < value.length(); i++) {
+         if (value.charAt(i) > LATIN1_MAX && isSurrogatePair(value, i)) {
+            length--;
+            i++;
+         }
+      }
+      return length;
+   }
+
+   private static boolean isSurrogatePair(String value, int index) {
+      return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+            && Character.isLowSurrogate(value.charAt(index + 1));
+   }
+
+   static boolean isLatin1(String text) {
+      for (int i = 0; i < text.length(); i++) {
+         if (text.charAt(i) > LATIN1_MAX) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Ensures that the provided string is encoded using Latin-1 (ISO-8859-1).
+    * Strings that are already Latin-1 are returned without copying.
+    *
+    * @param text the input text to encode
+    * @return the encoded string
+    */
+   static String toLatin1(String text) {
+      if (isLatin1(text)) {
+         return text;
+      }
+      return new String(text.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.ISO_8859_1);
+   }
+
+   /**
+    * Validates the format of a given placeholder.
+    * Placeholders must start with a letter and can only contain alphanumeric characters.
+    *
+    * @param placeholder the placeholder name to validate
+    * @throws IllegalArgumentException if the placeholder format is invalid
+    */
+   static void validatePlaceholderFormat(String placeholder) {
+      if (placeholder == null) {
+         throw new IllegalArgumentException("Invalid placeholder: null name");
+      }
+      if (placeholder.isEmpty()) {
+         throw new IllegalArgumentException("Invalid placeholder: empty name");
+      }
+      boolean valid = isNameStart(placeholder.charAt(0));
+      for (int i = 1; valid && i < placeholder.length(); i++) {
+         valid = isNamePart(placeholder.charAt(i));
+      }
+      if (!valid) {
+         throw new IllegalArgumentException("Invalid placeholder format: " + placeholder);
+      }
+   }
+
+   private static boolean isNameStart(char c) {
+      return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+   }
+
+   private static boolean isNamePart(char c) {
+      return isNameStart(c) || (c >= '0' && c <= '9');
+   }
+
+   /**
+    * Determines if the given value is a runtime tag, meaning it contains a placeholder format
+    * or additional runtime-based expressions (e.g., surrounded by #{..}).
+    *
+    * @param value the string to check
+    * @return {@code true} if the value is a runtime tag, otherwise {@code false}
+    */
+   public static boolean isRuntimeTag(String value) {
+      return value != null && value.contains("#{") && value.indexOf('}') >= 0;
+   }
+
+   /**
+    * Writes a range of segments, each a literal followed by its slot value, splitting large
+    * ranges in two.
+    */
+   private final class RenderTask extends RecursiveAction {
+      private static final long serialVersionUID = 1L;
+
+      private final String[] values;
+      private final int[] offsets;
+      private final char[] out;
+      private final int from;
+      private final int to;
+
+      RenderTask(String[] values, int[] offsets, char[] out, int from, int to) {
+         this.values = values;
+         this.offsets = offsets;
+         this.out = out;
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from == 1 || offsets[to] - offsets[from] <= PARALLEL_GRAIN) {
+            for (int i = from; i < to; i++) {
+               String literal = literals[i];
+               literal.getChars(0, literal.length(), out, offsets[i]);
+               if (i < slots.length) {
+                  writeValue(values[i], out, offsets[i] + literal.length());
+               }
+            }
+            return;
+         }
+         int middle = (from + to) >>> 1;
+         invokeAll(new RenderTask(values, offsets, out, from, middle),
+               new RenderTask(values, offsets, out, middle, to));
+      }
+   }
+}
@@ -0,0 +1,76 @@
+package com.epam.ld.module2.testing.template;
+
+import com.epam.ld.module2.testing.metrics.MessagingMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The type Compiled template cache.
+ * Bounded least-recently-used cache of compiled templates keyed by template text.
+ */
+final class CompiledTemplateCache {
+   private final int capacity;
+   private final MessagingMetrics metrics;
+   private final Map<String, CompiledTemplate> entries;
+
+   /**
+    * Constructor for CompiledTemplateCache
+    *
+    * @param capacity maximum number of cached templates, {@code 0} disables caching
+    * @param metrics  metrics recording cache hits and misses
+    */
+   CompiledTemplateCache(int capacity, MessagingMetrics metrics) {
+      if (capacity < 0) {
+         throw new IllegalArgumentException("Cache capacity must not be negative: " + capacity);
+      }
+      this.capacity = capacity;
+      this.metrics = metrics;
+      this.entries = new LinkedHashMap<String, CompiledTemplate>(16, 0.75f, true) {
+         private static final long serialVersionUID = 1L;
+
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<String, CompiledTemplate> eldest) {
+            return size() > CompiledTemplateCache.this.capacity;
+         }
+      };
+   }
+
+   /**
+    * Returns the compiled form of the given text, compiling and caching it on a miss.
+    *
+    * @param templateText the template text
+    * @return the compiled template
+    */
+   CompiledTemplate get(String templateText) {
+      if (capacity == 0) {
+         metrics.recordCacheMiss();
+         return CompiledTemplate.compile(templateText);
+      }
+      CompiledTemplate compiled;
+      synchronized (entries) {
+         compiled = entries.get(templateText);
+      }
+      if (compiled != null) {
+         metrics.recordCacheHit();
+      } else {
+         metrics.recordCacheMiss();
+         compiled = CompiledTemplate.compile(templateText);
+         synchronized (entries) {
+            entries.put(templateText, compiled);
+         }
+      }
+      return compiled;
+   }
+
+   /**
+    * Gets the number of cached templates.
+    *
+    * @return the cache size
+    */
+   int size() {
+      synchronized (entries) {
+         return entries.size();
+      }
+   }
+}
@@ -0,0 +1,304 @@
+package com.epam.ld.module2.testing.template;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Incremental renderer.
+ * Keeps the last message rendered from a compiled template and rebuilds only the slots whose
+ * values change. Values that keep their length are overwritten in place; otherwise the message is
+ * rebuilt with one bulk copy per unchanged span between changed slots, so the unchanged literals
+ * and values are neither looked up nor converted again. While the message is Latin-1 it is kept
+ * as bytes, which become a compact String with a plain copy. Output equals that of
+ * {@link CompiledTemplate#render(Bindings)}.
+ *
+ * <p>Instances hold mutable state and are meant for one thread, e.g. one per worker of a bulk send.
+ */
+public final class IncrementalRenderer {
+   private final CompiledTemplate template;
+   private final String[] names;
+   private final Map<String, Integer> indexes;
+   private final int[][] slotsOf;
+   private final int[] slotPlaceholder;
+   private final String[] values;
+   private final String[] pending;
+   private final int[] slotStart;
+   private Object output;
+   private Object spare;
+   private boolean latin1;
+   private int length;
+   private String message;
+
+   /**
+    * Constructor for IncrementalRenderer rendering the first message.
+    *
+    * @param template the compiled template
+    * @param bindings the values for placeholders
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   public IncrementalRenderer(CompiledTemplate template, Bindings bindings) {
+      template.validate(bindings);
+      this.template = template;
+      this.names = template.getPlaceholders().toArray(new String[0]);
+      this.indexes = new HashMap<>();
+      for (int i = 0; i < names.length; i++) {
+         indexes.put(names[i], i);
+      }
+      int slotCount = template.getSlotCount();
+      this.slotPlaceholder = new int[slotCount];
+      List<List<Integer>> occurrences = new ArrayList<>();
+      for (int i = 0; i < names.length; i++) {
+         occurrences.add(new ArrayList<>());
+      }
+      for (int slot = 0; slot < slotCount; slot++) {
+         int placeholder = indexes.get(template.getSlotName(slot));
+         slotPlaceholder[slot] = placeholder;
+         occurrences.get(placeholder).add(slot);
+      }
+      this.slotsOf = new int[names.length][];
+      for (int i = 0; i < names.length; i++) {
+         slotsOf[i] = occurrences.get(i).stream().mapToInt(Integer::intValue).toArray();
+      }
+      this.values = new String[names.length];
+      this.pending = new String[names.length];
+      for (int i = 0; i < names.length; i++) {
+         values[i] = CompiledTemplate.prepareValue(bindings.get(names[i]));
+      }
+      this.slotStart = new int[slotCount];
+      renderAll();
+   }
+
+   /**
+    * Renders the message for the given bindings, rebuilding the slots whose values differ from
+    * the previous message.
+    *
+    * @param bindings the values for placeholders
+    * @return the rendered message
+    * @throws IllegalArgumentException if a placeholder value is missing or null; the previous
+    *                                  message is kept, as it is when reading a value fails
+    */
+   public String render(Bindings bindings) {
+      template.validate(bindings);
+      boolean changed = false;
+      try {
+         for (int i = 0; i < names.length; i++) {
+            changed |= stage(i, bindings.get(names[i]));
+         }
+      } catch (RuntimeException | Error e) {
+         // Drop the values staged so far, or the next update would apply them
+         Arrays.fill(pending, null);
+         throw e;
+      }
+      return changed ? apply() : getMessage();
+   }
+
+   /**
+    * Applies changed values to the previous message.
+    * Names the template does not use are ignored.
+    *
+    * @param changes the new values by placeholder name
+    * @return the rendered message
+    * @throws IllegalArgumentException if a changed value is null; the previous message is kept
+    */
+   public String update(Map<String, String> changes) {
+      for (Map.Entry<String, String> change : changes.entrySet()) {
+         if (change.getValue() == null && indexes.containsKey(change.getKey())) {
+            throw new IllegalArgumentException("Null value not allowed for placeholder: " + change.getKey());
+         }
+      }
+      boolean changed = false;
+      for (Map.Entry<String, String> change : changes.entrySet()) {
+         Integer placeholder = indexes.get(change.getKey());
+         if (placeholder != null) {
+            changed |= stage(placeholder, change.getValue());
+         }
+      }
+      return changed ? apply() : getMessage();
+   }
+
+   /**
+    * Gets the last rendered message.
+    *
+    * @return the message
+    */
+   public String getMessage() {
+      String current = message;
+      if (current == null) {
+         current = latin1
+               ? new String((byte[]) output, 0, length, StandardCharsets.ISO_8859_1)
+               : new String((char[]) output, 0, length);
+         message = current;
+      }
+      return current;
+   }
+
+   /**
+    * Writes the last rendered message without creating a String.
+    *
+    * @param out the target
+    * @throws IOException if the target fails
+    */
+   public void writeTo(Appendable out) throws IOException {
+      if (out instanceof StringBuilder && !latin1) {
+         ((StringBuilder) out).append((char[]) output, 0, length);
+      } else {
+         out.append(getMessage());
+      }
+   }
+
+   /**
+    * Gets the length of the last rendered message.
+    *
+    * @return the length in characters
+    */
+   public int length() {
+      return length;
+   }
+
+   private boolean stage(int placeholder, String value) {
+      if (value == values[placeholder]) {
+         return false;
+      }
+      String prepared = CompiledTemplate.prepareValue(value);
+      if (prepared.equals(values[placeholder])) {
+         return false;
+      }
+      pending[placeholder] = prepared;
+      return true;
+   }
+
+   private String apply() {
+      int delta = 0;
+      for (int i = 0; i < names.length; i++) {
+         if (pending[i] != null) {
+            delta += (pending[i].length() - values[i].length()) * slotsOf[i].length;
+            if (latin1 && !CompiledTemplate.isLatin1(pending[i])) {
+               widen();
+            }
+         }
+      }
+      if (delta == 0 && sameLengths()) {
+         overwrite();
+      } else {
+         rebuild(length + delta);
+      }
+      for (int i = 0; i < names.length; i++) {
+         if (pending[i] != null) {
+            values[i] = pending[i];
+            pending[i] = null;
+         }
+      }
+      message = null;
+      return getMessage();
+   }
+
+   private boolean sameLengths() {
+      for (int i = 0; i < names.length; i++) {
+         if (pending[i] != null && pending[i].length() != values[i].length()) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private void overwrite() {
+      for (int i = 0; i < names.length; i++) {
+         String value = pending[i];
+         if (value != null) {
+            for (int slot : slotsOf[i]) {
+               put(value, output, slotStart[slot]);
+            }
+         }
+      }
+   }
+
+   private void rebuild(int newLength) {
+      Object target = spare != null && capacity(spare) >= newLength ? spare : newBuffer(newLength);
+      int copyFrom = 0;
+      int written = 0;
+      for (int slot = 0; slot < slotStart.length; slot++) {
+         int placeholder = slotPlaceholder[slot];
+         String value = pending[placeholder];
+         int oldStart = slotStart[slot];
+         if (value == null) {
+            slotStart[slot] = written + (oldStart - copyFrom);
+            continue;
+         }
+         System.arraycopy(output, copyFrom, target, written, oldStart - copyFrom);
+         written += oldStart - copyFrom;
+         slotStart[slot] = written;
+         put(value, target, written);
+         written += value.length();
+         copyFrom = oldStart + values[placeholder].length();
+      }
+      System.arraycopy(output, copyFrom, target, written, length - copyFrom);
+      spare = output;
+      output = target;
+      length = newLength;
+   }
+
+   private void renderAll() {
+      int size = 0;
+      latin1 = true;
+      for (int slot = 0; slot <= slotStart.length; slot++) {
+         String literal = template.getLiteral(slot);
+         size += literal.length();
+         latin1 &= CompiledTemplate.isLatin1(literal);
+         if (slot < slotStart.length) {
+            String value = values[slotPlaceholder[slot]];
+            size += value.length();
+            latin1 &= CompiledTemplate.isLatin1(value);
+         }
+      }
+      output = newBuffer(size);
+      int written = 0;
+      for (int slot = 0; slot <= slotStart.length; slot++) {
+         String literal = template.getLiteral(slot);
+         put(literal, output, written);
+         written += literal.length();
+         if (slot < slotStart.length) {
+            String value = values[slotPlaceholder[slot]];
+            slotStart[slot] = written;
+            put(value, output, written);
+            written += value.length();
+         }
+      }
+      length = size;
+   }
+
+   /**
+    * Switches from Latin-1 bytes to chars once a value outside Latin-1 is bound.
+    */
+   private void widen() {
+      byte[] bytes = (byte[]) output;
+      char[] chars = new char[bytes.length];
+      for (int i = 0; i < length; i++) {
+         chars[i] = (char) (bytes[i] & 0xFF);
+      }
+      output = chars;
+      spare = null;
+      latin1 = false;
+   }
+
+   private Object newBuffer(int size) {
+      return latin1 ? new byte[size] : new char[size];
+   }
+
+   private static int capacity(Object buffer) {
+      return buffer instanceof byte[] ? ((byte[]) buffer).length : ((char[]) buffer).length;
+   }
+
+   @SuppressWarnings("deprecation")
+   private static void put(String value, Object target, int position) {
+      if (target instanceof byte[]) {
+         value.getBytes(0, value.length(), (byte[]) target, position);
+      } else {
+         value.getChars(0, value.length(), (char[]) target, position);
+      }
+   }
+}
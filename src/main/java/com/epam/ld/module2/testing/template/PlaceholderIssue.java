@@ -0,0 +1,24 @@
+package com.epam.ld.module2.testing.template;
+
+/**
+ * Kind of placeholder problem reported by template validation.
+ */
+public enum PlaceholderIssue {
+   /**
+    * No value is provided for a placeholder.
+    */
+   MISSING,
+   /**
+    * A {@code null} value is provided for a placeholder.
+    */
+   NULL_VALUE,
+   /**
+    * A placeholder name has an invalid format.
+    */
+   MALFORMED,
+   /**
+    * A value is a runtime tag and is written to the message as is.
+    * Reported by validation as a warning; it does not make a template invalid.
+    */
+   RUNTIME_TAG
+}
@@ -0,0 +1,254 @@
+package com.epam.ld.module2.testing.template;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The type Render cache.
+ * Bounded least-recently-used cache of rendered messages keyed by the compiled template and the
+ * values bound for its placeholders, so recipients sharing the same values share one rendering.
+ * Bindings for names the template does not use do not affect the key. The key hash is computed
+ * from the template identity and the value hashes; a hit still compares the values, so two
+ * bindings never share a message by hash collision. Bindings with a {@link ValueSource} are
+ * rendered without the cache, so values produced on demand are never read just to build a key.
+ *
+ * <p>The cache is bounded by the number of characters it holds, those of the messages and of the
+ * values in their keys, plus one byte per character for messages also read as buffers; messages
+ * larger than a quarter of the bound are rendered but not kept. Lookups from many threads are
+ * safe; a message rendered by two threads at once for the same key is rendered twice and stored
+ * once.
+ */
+public final class RenderCache {
+   private final long maxChars;
+   private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+   private long chars;
+   private long hits;
+   private long misses;
+   private long evictions;
+
+   /**
+    * Constructor for RenderCache
+    *
+    * @param maxChars maximum number of message characters to keep
+    * @throws IllegalArgumentException if the bound is not positive
+    */
+   public RenderCache(long maxChars) {
+      if (maxChars < 1) {
+         throw new IllegalArgumentException("Render cache size must be positive: " + maxChars);
+      }
+      this.maxChars = maxChars;
+   }
+
+   /**
+    * Returns the cached message for the values of the bindings, rendering and caching it on a miss.
+    *
+    * @param template the compiled template
+    * @param bindings the values for placeholders
+    * @param renderer renders the message on a miss
+    * @return the rendered message
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   String render(CompiledTemplate template, Bindings bindings, Supplier<String> renderer) {
+      return lookup(template, bindings, renderer).message;
+   }
+
+   /**
+    * Returns the cached message as a read-only ISO-8859-1 buffer shared by all callers with the
+    * same values, rendering and caching it on a miss.
+    *
+    * @param template the compiled template
+    * @param bindings the values for placeholders
+    * @param renderer renders the message on a miss
+    * @return a new read-only view of the message bytes, positioned at the start
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    */
+   ByteBuffer renderBuffer(CompiledTemplate template, Bindings bindings, Supplier<String> renderer) {
+      Entry entry = lookup(template, bindings, renderer);
+      ByteBuffer bytes = entry.bytes;
+      if (bytes == null) {
+         bytes = attachBytes(entry);
+      }
+      return bytes.duplicate();
+   }
+
+   /**
+    * Gets the number of lookups answered from the cache.
+    *
+    * @return the hit count
+    */
+   public synchronized long getHitCount() {
+      return hits;
+   }
+
+   /**
+    * Gets the number of lookups that had to render.
+    *
+    * @return the miss count
+    */
+   public synchronized long getMissCount() {
+      return misses;
+   }
+
+   /**
+    * Gets the number of messages dropped to stay within the bound.
+    *
+    * @return the eviction count
+    */
+   public synchronized long getEvictionCount() {
+      return evictions;
+   }
+
+   /**
+    * Gets the number of cached messages.
+    *
+    * @return the cache size
+    */
+   public synchronized int size() {
+      return entries.size();
+   }
+
+   /**
+    * Gets the size charged for all cached messages: their characters and those of their key
+    * values, plus the bytes of messages also read as buffers.
+    *
+    * @return the cached characters and bytes
+    */
+   public synchronized long getCachedChars() {
+      return chars;
+   }
+
+   private Entry lookup(CompiledTemplate template, Bindings bindings, Supplier<String> renderer) {
+      Key key = Key.of(template, bindings);
+      if (key == null) {
+         // A value is missing or null, which rendering reports, or is produced on demand
+         synchronized (this) {
+            misses++;
+         }
+         return new Entry(renderer.get());
+      }
+      synchronized (this) {
+         Entry entry = entries.get(key);
+         if (entry != null) {
+            hits++;
+            return entry;
+         }
+         misses++;
+      }
+      Entry entry = new Entry(renderer.get());
+      if (entry.message.length() + key.chars <= maxChars / 4) {
+         store(key, entry);
+      }
+      return entry;
+   }
+
+   private synchronized void store(Key key, Entry entry) {
+      Entry previous = entries.put(key, entry);
+      if (previous != null) {
+         chars -= previous.size;
+         previous.cached = false;
+      }
+      entry.size = entry.message.length() + key.chars;
+      entry.cached = true;
+      chars += entry.size;
+      evict();
+   }
+
+   /**
+    * Encodes the message once and charges its bytes to the bound if the entry is still cached.
+    */
+   private ByteBuffer attachBytes(Entry entry) {
+      ByteBuffer bytes = ByteBuffer.wrap(entry.message.getBytes(StandardCharsets.ISO_8859_1)).asReadOnlyBuffer();
+      synchronized (this) {
+         if (entry.bytes != null) {
+            return entry.bytes;
+         }
+         entry.bytes = bytes;
+         if (entry.cached) {
+            entry.size += entry.message.length();
+            chars += entry.message.length();
+            evict();
+         }
+      }
+      return bytes;
+   }
+
+   private void evict() {
+      Iterator<Entry> eldest = entries.values().iterator();
+      while (chars > maxChars) {
+         Entry entry = eldest.next();
+         chars -= entry.size;
+         entry.cached = false;
+         eldest.remove();
+         evictions++;
+      }
+   }
+
+   /**
+    * Template identity and the values bound for its placeholders in order of first occurrence.
+    */
+   private static final class Key {
+      private final CompiledTemplate template;
+      private final String[] values;
+      private final int hash;
+      private final long chars;
+
+      private Key(CompiledTemplate template, String[] values, int hash, long chars) {
+         this.template = template;
+         this.values = values;
+         this.hash = hash;
+         this.chars = chars;
+      }
+
+      static Key of(CompiledTemplate template, Bindings bindings) {
+         String[] values = new String[template.getPlaceholders().size()];
+         int hash = System.identityHashCode(template);
+         long chars = 0;
+         int i = 0;
+         for (String placeholder : template.getPlaceholders()) {
+            Object bound = bindings.lookup(placeholder);
+            if (!(bound instanceof String)) {
+               return null;
+            }
+            String value = (String) bound;
+            values[i++] = value;
+            hash = 31 * hash + value.hashCode();
+            chars += value.length();
+         }
+         return new Key(template, values, hash, chars);
+      }
+
+      @Override
+      public boolean equals(Object other) {
+         if (!(other instanceof Key)) {
+            return false;
+         }
+         Key key = (Key) other;
+         return template == key.template && hash == key.hash && Arrays.equals(values, key.values);
+      }
+
+      @Override
+      public int hashCode() {
+         return hash;
+      }
+   }
+
+   /**
+    * A rendered message with its ISO-8859-1 bytes, encoded on first use. The size charged to the
+    * bound and whether the entry is still cached are guarded by the cache.
+    */
+   private static final class Entry {
+      private final String message;
+      private volatile ByteBuffer bytes;
+      private long size;
+      private boolean cached;
+
+      Entry(String message) {
+         this.message = message;
+      }
+   }
+}
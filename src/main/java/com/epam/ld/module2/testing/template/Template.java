@@ -1,29 +1,114 @@
 package com.epam.ld.module2.testing.template;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * The type Template.
+ * The template text and its compiled form never change, so one template can be rendered from
+ * many threads at once with separate {@link Bindings}. Variables are default values: a template
+ * must not be changed with {@link #addVariable(String, String)} or
+ * {@link #addLazyVariable(String, Supplier)} once it is shared, while
+ * {@link #withVariable(String, String)} leaves it unchanged and returns a copy.
  */
 public class Template {
    private final String templateText;
    private final Map<String, String> variables;
+   private final Map<String, ValueSource> lazyVariables;
+   private volatile CompiledTemplate compiled;
+   private volatile Bindings bindings;
 
    public Template(String templateText) {
+      this(templateText, new HashMap<>(), new LinkedHashMap<>(), null);
+   }
+
+   private Template(String templateText, Map<String, String> variables, Map<String, ValueSource> lazyVariables,
+                    CompiledTemplate compiled) {
       this.templateText = templateText;
-      this.variables = new HashMap<>();
+      this.variables = variables;
+      this.lazyVariables = lazyVariables;
+      this.compiled = compiled;
    }
 
    public void addVariable(String key, String value) {
       variables.put(key, value);
+      lazyVariables.remove(key);
+      bindings = null;
+   }
+
+   /**
+    * Returns a copy of this template with the variable added, sharing its compiled form.
+    * This template is left unchanged, so it can be used while it is shared.
+    *
+    * @param key   the placeholder name
+    * @param value the value
+    * @return the new template
+    */
+   public Template withVariable(String key, String value) {
+      Template copy = new Template(templateText, new HashMap<>(variables), new LinkedHashMap<>(lazyVariables), compiled);
+      copy.addVariable(key, value);
+      return copy;
+   }
+
+   /**
+    * Adds a variable whose value is computed when a render first writes it and then kept.
+    * Renders that fail validation never compute it.
+    *
+    * @param key   the placeholder name
+    * @param value computes the value; a {@code null} result is rejected when rendering
+    */
+   public void addLazyVariable(String key, Supplier<String> value) {
+      lazyVariables.put(key, ValueSource.of(value));
+      variables.remove(key);
+      bindings = null;
    }
 
    public String getTemplateText() {
       return templateText;
    }
 
+   /**
+    * Gets the variables, computing the values of lazy variables.
+    *
+    * @return the variables
+    */
    public Map<String, String> getVariables() {
-      return new HashMap<>(variables);
+      if (lazyVariables.isEmpty()) {
+         return Collections.unmodifiableMap(variables);
+      }
+      Map<String, String> all = new HashMap<>(variables);
+      for (Map.Entry<String, ValueSource> variable : lazyVariables.entrySet()) {
+         all.put(variable.getKey(), variable.getValue().value());
+      }
+      return Collections.unmodifiableMap(all);
+   }
+
+   /**
+    * Gets a snapshot of the variables added so far as bindings.
+    * The snapshot is taken once and reused until the next variable is added.
+    *
+    * @return the bindings
+    */
+   public Bindings getBindings() {
+      Bindings snapshot = bindings;
+      if (snapshot == null) {
+         snapshot = Bindings.of(new HashMap<>(variables));
+         for (Map.Entry<String, ValueSource> variable : lazyVariables.entrySet()) {
+            snapshot = snapshot.withSource(variable.getKey(), variable.getValue());
+         }
+         bindings = snapshot;
+      }
+      return snapshot;
+   }
+
+   CompiledTemplate getCompiled() {
+      return compiled;
+   }
+
+   void setCompiled(CompiledTemplate compiled) {
+      this.compiled = compiled;
    }
-}
\ No newline at end of file
+}
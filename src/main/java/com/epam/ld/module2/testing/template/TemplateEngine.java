@@ -1,12 +1,15 @@
 package com.epam.ld.module2.testing.template;
 
 import com.epam.ld.module2.testing.Client;
+import com.epam.ld.module2.testing.buffer.MessageBuffer;
+import com.epam.ld.module2.testing.buffer.MessageBufferPool;
+import com.epam.ld.module2.testing.metrics.MessagingMetrics;
 
-import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The type Template engine.
@@ -14,7 +17,49 @@ import java.util.regex.Pattern;
  * with corresponding values from the provided variables map in the template.
  */
 public class TemplateEngine {
-   private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("#\\{([^}]+)}");
+   /**
+    * Default number of compiled templates kept by an engine.
+    */
+   public static final int DEFAULT_CACHE_CAPACITY = 256;
+
+   /**
+    * Default template size in characters from which messages are rendered in parallel.
+    * Parallel rendering is off until a threshold is measured with ParallelRenderBenchmark on the
+    * target hardware and set with {@link #setParallelThreshold(int)}.
+    */
+   public static final int DEFAULT_PARALLEL_THRESHOLD = Integer.MAX_VALUE;
+
+   private final CompiledTemplateCache cache;
+   private final MessagingMetrics metrics;
+   private volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+   private volatile RenderCache renderCache;
+
+   /**
+    * Constructor for TemplateEngine with the default compiled template cache capacity.
+    */
+   public TemplateEngine() {
+      this(DEFAULT_CACHE_CAPACITY);
+   }
+
+   /**
+    * Constructor for TemplateEngine
+    *
+    * @param cacheCapacity maximum number of compiled templates to keep, {@code 0} disables caching
+    */
+   public TemplateEngine(int cacheCapacity) {
+      this(cacheCapacity, new MessagingMetrics());
+   }
+
+   /**
+    * Constructor for TemplateEngine recording into the given metrics
+    *
+    * @param cacheCapacity maximum number of compiled templates to keep, {@code 0} disables caching
+    * @param metrics       metrics for render latency, sizes, cache use and validation failures
+    */
+   public TemplateEngine(int cacheCapacity, MessagingMetrics metrics) {
+      this.metrics = metrics;
+      this.cache = new CompiledTemplateCache(cacheCapacity, metrics);
+   }
 
    /**
     * Generates a message by replacing placeholders in the template with appropriate values.
@@ -24,119 +69,282 @@ public class TemplateEngine {
     * @return the generated message with placeholders replaced
     */
    public String generateMessage(Template template, Client client) {
-      String templateText = new String(
-            template.getTemplateText().getBytes(StandardCharsets.ISO_8859_1),
-            StandardCharsets.ISO_8859_1
-      );
-
-      Set<String> placeholders = extractPlaceholders(templateText);
-      validatePlaceholders(placeholders, template);
-
-      Set<String> runtimeTags = new HashSet<>();
-      for (String placeholder : placeholders) {
-         String value = template.getVariables().get(placeholder);
-         if (isRuntimeTag(value)) {
-            runtimeTags.add(placeholder);
-         }
+      return generateMessage(template, client, template.getBindings());
+   }
+
+   /**
+    * Generates a message by replacing placeholders in the template with the given bindings.
+    * The template is not modified, so one template can be used from many threads at once.
+    *
+    * @param template the template containing text and placeholders
+    * @param client   the client for additional context (not used in this implementation)
+    * @param bindings the values for placeholders
+    * @return the generated message with placeholders replaced
+    */
+   public String generateMessage(Template template, Client client, Bindings bindings) {
+      CompiledTemplate compiled;
+      try {
+         compiled = compile(template);
+      } catch (IllegalArgumentException e) {
+         metrics.recordValidationFailure(PlaceholderIssue.MALFORMED);
+         throw e;
       }
+      return render(compiled, bindings);
+   }
+
+   /**
+    * Checks a template against bindings and reports every problem instead of failing on the first.
+    *
+    * @param template the template containing text and placeholders
+    * @param bindings the values for placeholders
+    * @return the report
+    * @see #validate(Template, Iterable)
+    */
+   public ValidationReport validate(Template template, Bindings bindings) {
+      return validate(template, Collections.singletonList(bindings));
+   }
 
-      String result = templateText;
-      for (String placeholder : placeholders) {
-         if (!runtimeTags.contains(placeholder)) {
-            String value = ensureLatin1Encoding(template.getVariables().get(placeholder));
-            result = result.replace("#{" + placeholder + "}", value);
+   /**
+    * Checks a template against a batch of bindings before any message is rendered.
+    * The report lists all malformed placeholder names of the template text, and for each
+    * placeholder the bindings lacking a value, binding it to {@code null} or binding a runtime tag.
+    * Once the report is valid, messages can be rendered with
+    * {@link #renderValidated(CompiledTemplate, Bindings)}, which skips validation. Each problem
+    * that makes the template invalid is recorded as one validation failure.
+    *
+    * @param template the template containing text and placeholders
+    * @param batch    the values for placeholders of each message
+    * @return the report
+    */
+   public ValidationReport validate(Template template, Iterable<Bindings> batch) {
+      ValidationReport report = new ValidationReport();
+      CompiledTemplate compiled;
+      try {
+         compiled = compile(template);
+      } catch (IllegalArgumentException e) {
+         List<String> malformed = new ArrayList<>();
+         compiled = CompiledTemplate.compile(template.getTemplateText(), malformed);
+         for (String name : malformed) {
+            report.add(PlaceholderIssue.MALFORMED, name, -1);
          }
       }
-
-      for (String placeholder : runtimeTags) {
-         String value = template.getVariables().get(placeholder);
-         result = result.replace("#{" + placeholder + "}", value);
+      long index = 0;
+      for (Bindings bindings : batch) {
+         compiled.collectProblems(bindings, index++, report);
+         report.countBindings();
       }
+      for (ValidationReport.Problem problem : report.getProblems()) {
+         if (problem.getIssue() != PlaceholderIssue.RUNTIME_TAG) {
+            metrics.recordValidationFailure(problem.getIssue());
+         }
+      }
+      return report;
+   }
 
-      return result;
+   /**
+    * Sets the template size from which messages are rendered with fork/join tasks on the common
+    * pool instead of on the calling thread.
+    *
+    * @param parallelThreshold template size in characters, {@link Integer#MAX_VALUE} disables
+    *                          parallel rendering
+    * @throws IllegalArgumentException if the threshold is negative
+    */
+   public void setParallelThreshold(int parallelThreshold) {
+      if (parallelThreshold < 0) {
+         throw new IllegalArgumentException("Parallel threshold must not be negative");
+      }
+      this.parallelThreshold = parallelThreshold;
    }
 
    /**
-    * Ensures that the provided string is encoded using Latin-1 (ISO-8859-1).
+    * Sets the cache of rendered messages consulted by {@link #render(CompiledTemplate, Bindings)}
+    * and {@link #renderBuffer(CompiledTemplate, Bindings)}.
     *
-    * @param text the input text to encode
-    * @return the encoded string
+    * @param renderCache the cache, {@code null} to render every message
     */
-   private String ensureLatin1Encoding(String text) {
-      return new String(text.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.ISO_8859_1);
+   public void setRenderCache(RenderCache renderCache) {
+      this.renderCache = renderCache;
    }
 
    /**
-    * Extracts all placeholders within the given template string.
-    * Placeholders are enclosed in #{..}.
+    * Renders a compiled template with the given bindings and records render metrics.
+    * Templates of at least the parallel threshold size are rendered in parallel. With a render
+    * cache a message already rendered for the same values is returned from the cache.
     *
-    * @param template the template string
-    * @return a set of extracted placeholder names
+    * @param template the compiled template
+    * @param bindings the values for placeholders
+    * @return the rendered message
+    * @throws IllegalArgumentException if a placeholder value is missing or null
     */
-   private Set<String> extractPlaceholders(String template) {
-      Set<String> placeholders = new HashSet<>();
-      Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
-      while (matcher.find()) {
-         placeholders.add(matcher.group(1));
+   public String render(CompiledTemplate template, Bindings bindings) {
+      long start = System.nanoTime();
+      RenderCache results = renderCache;
+      String message;
+      try {
+         message = results == null
+               ? renderMessage(template, bindings, false)
+               : results.render(template, bindings, () -> renderMessage(template, bindings, false));
+      } catch (IllegalArgumentException e) {
+         metrics.recordValidationFailure(template.findIssue(bindings));
+         throw e;
       }
-      return placeholders;
+      metrics.recordRender(System.nanoTime() - start, message.length(), template.getSlotCount());
+      return message;
    }
 
    /**
-    * Validates whether all required placeholders have corresponding values in the template.
-    * Also validates the format of the placeholders.
+    * Renders a compiled template with bindings already checked by
+    * {@link #validate(Template, Iterable)} and records render metrics. Placeholder values are not
+    * checked again.
     *
-    * @param required the set of required placeholders
-    * @param template the template containing the variables map with values for placeholders
+    * @param template the compiled template
+    * @param bindings the values for placeholders, valid for the template
+    * @return the rendered message
+    * @throws NullPointerException if a placeholder value is missing or null after all
     */
-   private void validatePlaceholders(Set<String> required, Template template) {
-      Set<String> missing = new HashSet<>();
-      for (String placeholder : required) {
-         validatePlaceholderFormat(placeholder);
-         if (!template.getVariables().containsKey(placeholder)) {
-            missing.add(placeholder);
-         } else if (template.getVariables().get(placeholder) == null) {
-            throw new IllegalArgumentException("Null value not allowed for placeholder: " + placeholder);
-         }
+   public String renderValidated(CompiledTemplate template, Bindings bindings) {
+      long start = System.nanoTime();
+      RenderCache results = renderCache;
+      String message = results == null
+            ? renderMessage(template, bindings, true)
+            : results.render(template, bindings, () -> renderMessage(template, bindings, true));
+      metrics.recordRender(System.nanoTime() - start, message.length(), template.getSlotCount());
+      return message;
+   }
+
+   /**
+    * Renders a compiled template with the given bindings as ISO-8859-1 bytes and records render
+    * metrics.
+    *
+    * @param template the compiled template
+    * @param bindings the values for placeholders
+    * @return the rendered message in ISO-8859-1
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    * @see CompiledTemplate#renderBytes(Bindings)
+    */
+   public byte[] renderBytes(CompiledTemplate template, Bindings bindings) {
+      long start = System.nanoTime();
+      byte[] message;
+      try {
+         message = template.renderBytes(bindings);
+      } catch (IllegalArgumentException e) {
+         metrics.recordValidationFailure(template.findIssue(bindings));
+         throw e;
       }
+      metrics.recordRender(System.nanoTime() - start, message.length, template.getSlotCount());
+      return message;
+   }
 
-      if (!missing.isEmpty()) {
-         throw new IllegalArgumentException("Missing values for placeholders: " +
-               String.join(", ", missing));
+   /**
+    * Renders a compiled template as a read-only ISO-8859-1 buffer and records render metrics.
+    * With a render cache, callers rendering the same values get views of one shared buffer.
+    *
+    * @param template the compiled template
+    * @param bindings the values for placeholders
+    * @return the rendered message, positioned at the start
+    * @throws IllegalArgumentException if a placeholder value is missing or null
+    * @see CompiledTemplate#renderBytes(Bindings)
+    */
+   public ByteBuffer renderBuffer(CompiledTemplate template, Bindings bindings) {
+      RenderCache results = renderCache;
+      if (results == null) {
+         return ByteBuffer.wrap(renderBytes(template, bindings)).asReadOnlyBuffer();
+      }
+      long start = System.nanoTime();
+      ByteBuffer message;
+      try {
+         message = results.renderBuffer(template, bindings, () -> renderMessage(template, bindings, false));
+      } catch (IllegalArgumentException e) {
+         metrics.recordValidationFailure(template.findIssue(bindings));
+         throw e;
       }
+      metrics.recordRender(System.nanoTime() - start, message.remaining(), template.getSlotCount());
+      return message;
    }
 
    /**
-    * Validates the format of a given placeholder.
-    * Placeholders must start with a letter and can only contain alphanumeric characters.
+    * Renders a compiled template as ISO-8859-1 bytes into a buffer leased from the pool and
+    * records render metrics. The returned buffer is flipped, ready to be read, and must be closed
+    * once the message is delivered.
     *
-    * @param placeholder the placeholder name to validate
-    * @throws IllegalArgumentException if the placeholder format is invalid
+    * @param template the compiled template
+    * @param bindings the values for placeholders
+    * @param pool     the pool to lease the buffer from
+    * @return the leased buffer holding the message
+    * @throws IllegalArgumentException if a placeholder value is missing or null
     */
-   private void validatePlaceholderFormat(String placeholder) {
-      if (placeholder == null) {
-         throw new IllegalArgumentException("Invalid placeholder: null name");
+   public MessageBuffer render(CompiledTemplate template, Bindings bindings, MessageBufferPool pool) {
+      try {
+         template.validate(bindings);
+      } catch (IllegalArgumentException e) {
+         metrics.recordValidationFailure(template.findIssue(bindings));
+         throw e;
       }
-      if (placeholder.isEmpty()) {
-         throw new IllegalArgumentException("Invalid placeholder: empty name");
+      return renderValidated(template, bindings, pool);
+   }
+
+   /**
+    * Renders a compiled template with bindings already checked by
+    * {@link #validate(Template, Iterable)} into a buffer leased from the pool and records render
+    * metrics. Placeholder values are not checked again.
+    *
+    * @param template the compiled template
+    * @param bindings the values for placeholders, valid for the template
+    * @param pool     the pool to lease the buffer from
+    * @return the leased buffer holding the message, to be closed once the message is delivered
+    * @throws NullPointerException if a placeholder value is missing or null after all
+    */
+   public MessageBuffer renderValidated(CompiledTemplate template, Bindings bindings, MessageBufferPool pool) {
+      long start = System.nanoTime();
+      int size = template.byteLengthValidated(bindings);
+      MessageBuffer message = pool.lease(size);
+      try {
+         ByteBuffer buffer = message.getBuffer();
+         template.renderValidated(bindings, buffer);
+         buffer.flip();
+      } catch (RuntimeException e) {
+         message.close();
+         throw e;
       }
-      if (!placeholder.matches("[a-zA-Z][a-zA-Z0-9]*")) {
-         throw new IllegalArgumentException("Invalid placeholder format: " + placeholder);
+      metrics.recordRender(System.nanoTime() - start, size, template.getSlotCount());
+      return message;
+   }
+
+   private String renderMessage(CompiledTemplate template, Bindings bindings, boolean validated) {
+      if (!validated) {
+         template.validate(bindings);
       }
+      return template.getSource().length() >= parallelThreshold
+            ? template.renderParallelValidated(bindings, ForkJoinPool.commonPool())
+            : template.renderValidated(bindings);
+   }
+
+   /**
+    * Gets the metrics this engine records into.
+    *
+    * @return the metrics
+    */
+   public MessagingMetrics getMetrics() {
+      return metrics;
    }
 
    /**
-    * Determines if the given value is a runtime tag, meaning it contains a placeholder format
-    * or additional runtime-based expressions (e.g., surrounded by #{..}).
+    * Returns the compiled form of the template text.
+    * The compiled form is kept by the template and shared between templates with the same text,
+    * so repeated calls are cheap.
     *
-    * @param value the string to check
-    * @return {@code true} if the value is a runtime tag, otherwise {@code false}
+    * @param template the template to compile
+    * @return the compiled template
+    * @throws IllegalArgumentException if a placeholder name has an invalid format
     */
-   private boolean isRuntimeTag(String value) {
-      if (value == null) {
-         return false;
+   public CompiledTemplate compile(Template template) {
+      CompiledTemplate compiled = template.getCompiled();
+      if (compiled != null) {
+         metrics.recordCacheHit();
+      } else {
+         compiled = cache.get(template.getTemplateText());
+         template.setCompiled(compiled);
       }
-      Matcher matcher = PLACEHOLDER_PATTERN.matcher(value);
-      return matcher.matches() || value.contains("#{") && value.contains("}");
+      return compiled;
    }
-}
\ No newline at end of file
+}
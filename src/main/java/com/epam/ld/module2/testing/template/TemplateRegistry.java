@@ -0,0 +1,375 @@
+package com.epam.ld.module2.testing.template;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * The type Template registry.
+ * Loads every file of a directory as a UTF-8 template named after the file without its extension
+ * and keeps the compiled forms in a binary snapshot file. On the next load the snapshot is mapped
+ * into memory and templates whose file size and modification time are unchanged are restored from
+ * it without reading their files; other files are read and hashed, and only those whose content
+ * hash changed are compiled again, in parallel. A missing or corrupt snapshot is ignored and
+ * rewritten. The snapshot may be kept in the template directory; it is not loaded as a template.
+ *
+ * <p>Each load builds a complete new set of compiled templates and publishes it with one reference
+ * swap, so lookups never lock and never see a partly loaded directory; a failed load keeps the
+ * templates published before. A {@link TemplateWatcher} reloads the registry when files change.
+ */
+public class TemplateRegistry {
+   private static final int SNAPSHOT_MAGIC = 0x54504C53;
+   private static final int SNAPSHOT_VERSION = 1;
+   private static final String TEMP_SUFFIX = ".tmp";
+   private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+   private static final long FNV_PRIME = 0x100000001b3L;
+
+   private final Path directory;
+   private final Path snapshot;
+   private final AtomicReference<Map<String, Entry>> entries = new AtomicReference<>(Collections.emptyMap());
+   private volatile int compiledCount;
+   private volatile int restoredCount;
+
+   /**
+    * Constructor for TemplateRegistry
+    *
+    * @param directory directory holding the template files
+    * @param snapshot  file keeping the compiled templates between loads
+    */
+   public TemplateRegistry(Path directory, Path snapshot) {
+      this.directory = directory;
+      this.snapshot = snapshot;
+   }
+
+   /**
+    * Loads the templates of the directory, replacing those loaded before.
+    * The first load restores templates from the snapshot, later loads from the templates already
+    * loaded. The snapshot is rewritten if a template was added, changed or removed.
+    *
+    * @throws IOException              if the directory or a template file cannot be read, or the
+    *                                  snapshot cannot be written
+    * @throws IllegalArgumentException if a template is invalid or two files have the same name
+    */
+   public void load() throws IOException {
+      load(Collections.emptySet());
+   }
+
+   /**
+    * Loads the templates of the directory, reading the named files even if their size and
+    * modification time are unchanged, as an edit may keep both.
+    *
+    * @param changed file names reported as changed
+    * @throws IOException              if the directory or a template file cannot be read, or the
+    *                                  snapshot cannot be written
+    * @throws IllegalArgumentException if a template is invalid or two files have the same name
+    */
+   synchronized void load(Set<Path> changed) throws IOException {
+      Map<String, Entry> current = entries.get();
+      boolean fromSnapshot = current.isEmpty();
+      Map<String, Entry> previous = fromSnapshot ? readSnapshot() : current;
+      Map<String, Path> files = listTemplates();
+      AtomicInteger compiled = new AtomicInteger();
+      AtomicInteger rehashed = new AtomicInteger();
+      Map<String, Entry> loaded;
+      try {
+         loaded = files.entrySet().parallelStream()
+               .map(file -> load(file.getKey(), file.getValue(), previous.get(file.getKey()),
+                     changed.contains(file.getValue().getFileName()), compiled, rehashed))
+               .collect(Collectors.toMap(entry -> entry.name, entry -> entry));
+      } catch (UncheckedIOException e) {
+         throw e.getCause();
+      }
+      Map<String, Entry> published = Collections.unmodifiableMap(new TreeMap<>(loaded));
+      entries.set(published);
+      compiledCount = compiled.get();
+      restoredCount = fromSnapshot ? loaded.size() - compiled.get() : 0;
+      if (compiled.get() > 0 || rehashed.get() > 0 || !previous.keySet().equals(loaded.keySet())) {
+         writeSnapshot(published.values());
+      }
+   }
+
+   /**
+    * Gets the directory holding the template files.
+    *
+    * @return the directory
+    */
+   public Path getDirectory() {
+      return directory;
+   }
+
+   /**
+    * Gets a new template for the name, already compiled.
+    *
+    * @param name the template name
+    * @return the template, {@code null} if there is none with the name
+    */
+   public Template getTemplate(String name) {
+      Entry entry = entries.get().get(name);
+      if (entry == null) {
+         return null;
+      }
+      Template template = new Template(entry.compiled.getSource());
+      template.setCompiled(entry.compiled);
+      return template;
+   }
+
+   /**
+    * Gets the compiled template for the name.
+    *
+    * @param name the template name
+    * @return the compiled template, {@code null} if there is none with the name
+    */
+   public CompiledTemplate getCompiled(String name) {
+      Entry entry = entries.get().get(name);
+      return entry == null ? null : entry.compiled;
+   }
+
+   /**
+    * Gets the names of the loaded templates.
+    *
+    * @return the sorted template names
+    */
+   public Set<String> getNames() {
+      return entries.get().keySet();
+   }
+
+   /**
+    * Gets the number of templates compiled by the last load.
+    *
+    * @return the compiled count
+    */
+   public int getCompiledCount() {
+      return compiledCount;
+   }
+
+   /**
+    * Gets the number of templates the last load restored from the snapshot. Templates a reload
+    * kept from memory are not counted.
+    *
+    * @return the restored count
+    */
+   public int getRestoredCount() {
+      return restoredCount;
+   }
+
+   /**
+    * Checks whether a file of the template directory is the snapshot or its temporary file.
+    *
+    * @param fileName the file name within the directory
+    * @return {@code true} if the file is not a template
+    */
+   boolean isSnapshotFile(Path fileName) {
+      Path file = directory.resolve(fileName).toAbsolutePath().normalize();
+      return file.equals(snapshot.toAbsolutePath().normalize()) || file.equals(tempSnapshot().toAbsolutePath().normalize());
+   }
+
+   private Entry load(String name, Path file, Entry previous, boolean changed, AtomicInteger compiled,
+                      AtomicInteger rehashed) {
+      try {
+         BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+         long size = attributes.size();
+         long modified = attributes.lastModifiedTime().toMillis();
+         if (previous != null && !changed && previous.size == size && previous.modified == modified) {
+            return previous;
+         }
+         byte[] content = Files.readAllBytes(file);
+         long hash = hash(content);
+         if (previous != null && previous.hash == hash) {
+            rehashed.incrementAndGet();
+            return new Entry(name, content.length, modified, hash, previous.compiled);
+         }
+         CompiledTemplate template;
+         try {
+            template = CompiledTemplate.compile(new String(content, StandardCharsets.UTF_8));
+         } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid template " + name + ": " + e.getMessage(), e);
+         }
+         compiled.incrementAndGet();
+         return new Entry(name, content.length, modified, hash, template);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   private Map<String, Path> listTemplates() throws IOException {
+      Map<String, Path> files = new HashMap<>();
+      Path temp = tempSnapshot();
+      try (Stream<Path> paths = Files.list(directory)) {
+         for (Path file : (Iterable<Path>) paths::iterator) {
+            if (!Files.isRegularFile(file) || isSameFile(file, snapshot) || isSameFile(file, temp)) {
+               continue;
+            }
+            String fileName = file.getFileName().toString();
+            int dot = fileName.lastIndexOf('.');
+            String name = dot > 0 ? fileName.substring(0, dot) : fileName;
+            Path other = files.put(name, file);
+            if (other != null) {
+               throw new IllegalArgumentException("Duplicate template name " + name + ": "
+                     + other.getFileName() + ", " + fileName);
+            }
+         }
+      }
+      return files;
+   }
+
+   /**
+    * Reads the entries of the snapshot; an unreadable snapshot counts as empty.
+    */
+   private Map<String, Entry> readSnapshot() throws IOException {
+      MappedByteBuffer data;
+      try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+         data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      } catch (NoSuchFileException e) {
+         return Collections.emptyMap();
+      }
+      try {
+         if (data.limit() < 3 * Integer.BYTES + Long.BYTES || data.getInt() != SNAPSHOT_MAGIC
+               || data.getInt() != SNAPSHOT_VERSION) {
+            return Collections.emptyMap();
+         }
+         CRC32 crc = new CRC32();
+         ByteBuffer content = data.duplicate();
+         content.position(0).limit(data.limit() - Long.BYTES);
+         crc.update(content);
+         if (crc.getValue() != data.getLong(data.limit() - Long.BYTES)) {
+            return Collections.emptyMap();
+         }
+         int count = data.getInt();
+         Map<String, Entry> read = new HashMap<>();
+         for (int i = 0; i < count; i++) {
+            String name = readString(data);
+            long size = data.getLong();
+            long modified = data.getLong();
+            long hash = data.getLong();
+            String source = readString(data);
+            int slotCount = data.getInt();
+            int[] offsets = new int[slotCount];
+            int[] nameLengths = new int[slotCount];
+            for (int slot = 0; slot < slotCount; slot++) {
+               offsets[slot] = data.getInt();
+               nameLengths[slot] = data.getInt();
+            }
+            read.put(name, new Entry(name, size, modified, hash, CompiledTemplate.restore(source, offsets, nameLengths)));
+         }
+         return read;
+      } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+         return Collections.emptyMap();
+      }
+   }
+
+   private void writeSnapshot(Collection<Entry> written) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeInt(SNAPSHOT_VERSION);
+      out.writeInt(written.size());
+      for (Entry entry : written) {
+         writeString(out, entry.name);
+         out.writeLong(entry.size);
+         out.writeLong(entry.modified);
+         out.writeLong(entry.hash);
+         writeString(out, entry.compiled.getSource());
+         int slotCount = entry.compiled.getSlotCount();
+         out.writeInt(slotCount);
+         for (int slot = 0; slot < slotCount; slot++) {
+            out.writeInt(entry.compiled.getSlotOffset(slot));
+            out.writeInt(entry.compiled.getSlotName(slot).length());
+         }
+      }
+      CRC32 crc = new CRC32();
+      crc.update(bytes.toByteArray());
+      out.writeLong(crc.getValue());
+      out.flush();
+
+      Path temp = tempSnapshot();
+      try {
+         try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+               StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer data = ByteBuffer.wrap(bytes.toByteArray());
+            while (data.hasRemaining()) {
+               channel.write(data);
+            }
+            channel.force(true);
+         }
+         Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException | RuntimeException e) {
+         // Leave no partial snapshot behind; the previous snapshot stays in place
+         try {
+            Files.deleteIfExists(temp);
+         } catch (IOException deleteFailure) {
+            e.addSuppressed(deleteFailure);
+         }
+         throw e;
+      }
+   }
+
+   private Path tempSnapshot() {
+      return snapshot.resolveSibling(snapshot.getFileName() + TEMP_SUFFIX);
+   }
+
+   private static boolean isSameFile(Path file, Path other) throws IOException {
+      return Files.exists(other) && Files.isSameFile(file, other);
+   }
+
+   private static void writeString(DataOutputStream out, String value) throws IOException {
+      byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(encoded.length);
+      out.write(encoded);
+   }
+
+   private static String readString(ByteBuffer data) {
+      byte[] encoded = new byte[data.getInt()];
+      data.get(encoded);
+      return new String(encoded, StandardCharsets.UTF_8);
+   }
+
+   private static long hash(byte[] content) {
+      long hash = FNV_OFFSET;
+      for (byte b : content) {
+         hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+      }
+      return hash;
+   }
+
+   /**
+    * A compiled template with the file state it was compiled from.
+    */
+   private static final class Entry {
+      private final String name;
+      private final long size;
+      private final long modified;
+      private final long hash;
+      private final CompiledTemplate compiled;
+
+      Entry(String name, long size, long modified, long hash, CompiledTemplate compiled) {
+         this.name = name;
+         this.size = size;
+         this.modified = modified;
+         this.hash = hash;
+         this.compiled = compiled;
+      }
+   }
+}
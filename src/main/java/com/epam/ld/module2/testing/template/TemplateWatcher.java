@@ -0,0 +1,182 @@
+package com.epam.ld.module2.testing.template;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The type Template watcher.
+ * Watches the directory of a {@link TemplateRegistry} and reloads the registry on a background
+ * thread when template files are created, changed or deleted. Events arriving within the quiet
+ * period of each other are handled by one reload, so an editor saving a file in several writes
+ * causes a single recompilation. Only templates whose content changed are compiled again.
+ *
+ * <p>Reloads publish the new templates with one reference swap: renders already holding a compiled
+ * template finish with it, and lookups never block or see a template that is still being compiled.
+ * A reload failing on an invalid template keeps the templates published before and is reported by
+ * {@link #getLastFailure()} until a later reload succeeds. A file rewritten in place may be read
+ * while it is being written; writing a file elsewhere and moving it into the directory publishes
+ * only complete templates.
+ */
+public class TemplateWatcher implements AutoCloseable {
+   private final TemplateRegistry registry;
+   private final long quietMillis;
+   private final AtomicLong reloadCount = new AtomicLong();
+   private WatchService watchService;
+   private WatchKey watchKey;
+   private Thread worker;
+   private volatile RuntimeException lastFailure;
+
+   /**
+    * Constructor for TemplateWatcher
+    *
+    * @param registry    the registry to reload
+    * @param quietMillis time without further events before a reload starts
+    * @throws IllegalArgumentException if the quiet period is negative
+    */
+   public TemplateWatcher(TemplateRegistry registry, long quietMillis) {
+      if (quietMillis < 0) {
+         throw new IllegalArgumentException("Quiet period must not be negative");
+      }
+      this.registry = registry;
+      this.quietMillis = quietMillis;
+   }
+
+   /**
+    * Loads the registry and starts watching its directory until {@link #close()}.
+    * Watching starts before the load, so no change made during it is missed.
+    *
+    * @throws IOException              if the directory cannot be watched or the load fails
+    * @throws IllegalArgumentException if a template is invalid or two files have the same name
+    * @throws IllegalStateException    if the watcher is already running
+    */
+   public synchronized void start() throws IOException {
+      if (worker != null) {
+         throw new IllegalStateException("Watcher is already running");
+      }
+      Path directory = registry.getDirectory();
+      WatchService service = directory.getFileSystem().newWatchService();
+      WatchKey key;
+      try {
+         key = directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+               StandardWatchEventKinds.ENTRY_MODIFY);
+         registry.load();
+      } catch (IOException | RuntimeException e) {
+         service.close();
+         throw e;
+      }
+      watchService = service;
+      watchKey = key;
+      worker = new Thread(this::runWorker, "template-watcher");
+      worker.setDaemon(true);
+      worker.start();
+   }
+
+   /**
+    * Gets the number of reloads completed since the start.
+    *
+    * @return the reload count
+    */
+   public long getReloadCount() {
+      return reloadCount.get();
+   }
+
+   /**
+    * Gets the failure of the last reload.
+    *
+    * @return the failure, {@code null} if the last reload succeeded
+    */
+   public RuntimeException getLastFailure() {
+      return lastFailure;
+   }
+
+   /**
+    * Stops watching after the current reload.
+    * The worker is not interrupted, so a reload in progress reads its files and writes the
+    * snapshot to the end.
+    */
+   @Override
+   public synchronized void close() {
+      if (worker == null) {
+         return;
+      }
+      try {
+         watchService.close();
+      } catch (IOException e) {
+         lastFailure = new UncheckedIOException(e);
+      }
+      try {
+         worker.join();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      worker = null;
+   }
+
+   private void runWorker() {
+      while (true) {
+         Set<Path> changed = new HashSet<>();
+         boolean relevant;
+         try {
+            relevant = collect(watchService.take(), changed);
+            WatchKey next;
+            while ((next = watchService.poll(quietMillis, TimeUnit.MILLISECONDS)) != null) {
+               relevant |= collect(next, changed);
+            }
+         } catch (InterruptedException | ClosedWatchServiceException e) {
+            return;
+         }
+         if (relevant) {
+            reload(changed);
+         }
+         if (!watchKey.isValid()) {
+            lastFailure = new IllegalStateException("Template directory is no longer watched: "
+                  + registry.getDirectory());
+            return;
+         }
+      }
+   }
+
+   /**
+    * Adds the template files named by the events of the key and re-arms it.
+    *
+    * @return {@code true} if a template file may have changed
+    */
+   private boolean collect(WatchKey key, Set<Path> changed) {
+      boolean relevant = false;
+      for (WatchEvent<?> event : key.pollEvents()) {
+         if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            relevant = true;
+            continue;
+         }
+         Path fileName = (Path) event.context();
+         if (!registry.isSnapshotFile(fileName)) {
+            changed.add(fileName);
+            relevant = true;
+         }
+      }
+      key.reset();
+      return relevant;
+   }
+
+   private void reload(Set<Path> changed) {
+      try {
+         registry.load(changed);
+         lastFailure = null;
+      } catch (IOException e) {
+         lastFailure = new UncheckedIOException(e);
+      } catch (RuntimeException e) {
+         lastFailure = e;
+      }
+      reloadCount.incrementAndGet();
+   }
+}
@@ -0,0 +1,162 @@
+package com.epam.ld.module2.testing.template;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * The type Validation report.
+ * Every placeholder problem found by {@link TemplateEngine#validate(Template, Iterable)}, instead
+ * of only the first. Problems are grouped by kind and placeholder name, so a batch where many
+ * bindings lack the same value yields one problem with the number of affected bindings and the
+ * position of the first; the report stays small however large the batch is.
+ */
+public final class ValidationReport {
+   private final Map<String, Problem> problems = new LinkedHashMap<>();
+   private long checkedBindings;
+
+   ValidationReport() {
+   }
+
+   /**
+    * Gets all problems in the order they were first found.
+    *
+    * @return the problems, warnings included
+    */
+   public List<Problem> getProblems() {
+      return Collections.unmodifiableList(new ArrayList<>(problems.values()));
+   }
+
+   /**
+    * Gets the problems of one kind.
+    *
+    * @param issue the kind of problem
+    * @return the problems of that kind
+    */
+   public List<Problem> getProblems(PlaceholderIssue issue) {
+      List<Problem> found = new ArrayList<>();
+      for (Problem problem : problems.values()) {
+         if (problem.issue == issue) {
+            found.add(problem);
+         }
+      }
+      return found;
+   }
+
+   /**
+    * Checks whether every message can be rendered.
+    * Runtime tags are warnings and do not make the template invalid.
+    *
+    * @return {@code true} if no problem other than a runtime tag was found
+    */
+   public boolean isValid() {
+      for (Problem problem : problems.values()) {
+         if (problem.issue != PlaceholderIssue.RUNTIME_TAG) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Gets the number of bindings checked against the template.
+    *
+    * @return the checked bindings count
+    */
+   public long getCheckedBindings() {
+      return checkedBindings;
+   }
+
+   /**
+    * Throws if a message cannot be rendered, listing every problem that prevents it.
+    *
+    * @throws IllegalArgumentException if the template is not valid
+    */
+   public void throwIfInvalid() {
+      if (isValid()) {
+         return;
+      }
+      StringJoiner message = new StringJoiner("; ", "Template validation failed: ", "");
+      for (Problem problem : problems.values()) {
+         if (problem.issue != PlaceholderIssue.RUNTIME_TAG) {
+            message.add(problem.toString());
+         }
+      }
+      throw new IllegalArgumentException(message.toString());
+   }
+
+   void add(PlaceholderIssue issue, String placeholder, long index) {
+      Problem problem = problems.computeIfAbsent(issue + ":" + placeholder, key -> new Problem(issue, placeholder, index));
+      problem.count++;
+   }
+
+   void countBindings() {
+      checkedBindings++;
+   }
+
+   @Override
+   public String toString() {
+      return problems.values().toString();
+   }
+
+   /**
+    * A kind of problem with one placeholder and the bindings it was found in.
+    */
+   public static final class Problem {
+      private final PlaceholderIssue issue;
+      private final String placeholder;
+      private final long firstIndex;
+      private long count;
+
+      Problem(PlaceholderIssue issue, String placeholder, long firstIndex) {
+         this.issue = issue;
+         this.placeholder = placeholder;
+         this.firstIndex = firstIndex;
+      }
+
+      /**
+       * Gets the kind of problem.
+       *
+       * @return the issue
+       */
+      public PlaceholderIssue getIssue() {
+         return issue;
+      }
+
+      /**
+       * Gets the placeholder name.
+       *
+       * @return the placeholder
+       */
+      public String getPlaceholder() {
+         return placeholder;
+      }
+
+      /**
+       * Gets the position of the first bindings in the batch with this problem.
+       *
+       * @return the position, {@code -1} for problems of the template text
+       */
+      public long getFirstIndex() {
+         return firstIndex;
+      }
+
+      /**
+       * Gets the number of bindings with this problem.
+       *
+       * @return the count, {@code 1} for problems of the template text
+       */
+      public long getCount() {
+         return count;
+      }
+
+      @Override
+      public String toString() {
+         String text = issue + " " + placeholder;
+         return firstIndex < 0 ? text : text + " in " + count + " bindings, first at " + firstIndex;
+      }
+   }
+}
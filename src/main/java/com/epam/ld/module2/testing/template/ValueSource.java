@@ -0,0 +1,207 @@
+package com.epam.ld.module2.testing.template;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.function.Supplier;
+
+/**
+ * The type Value source.
+ * A placeholder value that is only produced when a render needs it, bound with
+ * {@link Bindings#withSource(String, ValueSource)}. Validation only checks that a source is bound, so a
+ * render failing validation never computes or reads it.
+ *
+ * <p>A computed value is obtained from its supplier once and then kept. A streamed value is read
+ * from a {@link Reader} or a {@link ReadableByteChannel}: rendering to an {@link Appendable}
+ * copies it into the output in chunks, as Latin-1 with other characters written as {@code ?};
+ * other render methods, and placeholders used more than once, read it into memory first.
+ * A streamed value can be read once and closes its source when done, so bindings holding one
+ * serve a single render.
+ */
+public abstract class ValueSource {
+   private static final int CHUNK_SIZE = 8192;
+   private static final int LATIN1_MAX = 0xFF;
+   private static final char LATIN1_REPLACEMENT = '?';
+
+   ValueSource() {
+   }
+
+   /**
+    * Creates a value computed on first use.
+    *
+    * @param supplier computes the value; a {@code null} result is rejected when rendering
+    * @return the value source
+    */
+   public static ValueSource of(Supplier<String> supplier) {
+      return new Computed(supplier);
+   }
+
+   /**
+    * Creates a value streamed from a reader.
+    *
+    * @param reader the reader, closed once the value is read
+    * @return the value source
+    */
+   public static ValueSource of(Reader reader) {
+      return new Streamed(reader);
+   }
+
+   /**
+    * Creates a value streamed from a channel.
+    * Malformed input is replaced rather than rejected.
+    *
+    * @param channel the channel, closed once the value is read
+    * @param charset the encoding of the channel content
+    * @return the value source
+    */
+   public static ValueSource of(ReadableByteChannel channel, Charset charset) {
+      return of(Channels.newReader(channel, charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE), CHUNK_SIZE));
+   }
+
+   /**
+    * Produces the whole value.
+    *
+    * @return the value, {@code null} if a supplier returned it
+    * @throws UncheckedIOException  if a streamed value cannot be read
+    * @throws IllegalStateException if a streamed value was already written
+    */
+   abstract String value();
+
+   /**
+    * Checks whether {@link #writeTo(Appendable)} copies the value without holding it in memory.
+    *
+    * @return {@code true} for streamed values not read yet
+    */
+   abstract boolean isStreaming();
+
+   /**
+    * Copies the value into the output as Latin-1.
+    *
+    * @param out the output
+    * @throws IOException           if a streamed value cannot be read or the output fails
+    * @throws IllegalStateException if a streamed value was already written
+    * @throws NullPointerException  if a supplier returned {@code null}
+    */
+   abstract void writeTo(Appendable out) throws IOException;
+
+   /**
+    * Value obtained from a supplier on first use.
+    */
+   private static final class Computed extends ValueSource {
+      private final Supplier<String> supplier;
+      private volatile boolean computed;
+      private String value;
+
+      Computed(Supplier<String> supplier) {
+         this.supplier = supplier;
+      }
+
+      @Override
+      String value() {
+         if (!computed) {
+            synchronized (this) {
+               if (!computed) {
+                  value = supplier.get();
+                  computed = true;
+               }
+            }
+         }
+         return value;
+      }
+
+      @Override
+      boolean isStreaming() {
+         return false;
+      }
+
+      @Override
+      void writeTo(Appendable out) throws IOException {
+         out.append(CompiledTemplate.toLatin1(value()));
+      }
+   }
+
+   /**
+    * Value read from a reader once.
+    */
+   private static final class Streamed extends ValueSource {
+      private final Reader reader;
+      private String value;
+      private boolean consumed;
+
+      Streamed(Reader reader) {
+         this.reader = reader;
+      }
+
+      @Override
+      synchronized String value() {
+         if (value == null) {
+            StringBuilder content = new StringBuilder();
+            try {
+               copy(content, false);
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+            value = CompiledTemplate.toLatin1(content.toString());
+         }
+         return value;
+      }
+
+      @Override
+      synchronized boolean isStreaming() {
+         return value == null;
+      }
+
+      @Override
+      synchronized void writeTo(Appendable out) throws IOException {
+         if (value != null) {
+            out.append(value);
+         } else {
+            copy(out, true);
+         }
+      }
+
+      private void copy(Appendable out, boolean latin1) throws IOException {
+         if (consumed) {
+            throw new IllegalStateException("Streamed value was already written");
+         }
+         consumed = true;
+         char[] chunk = new char[CHUNK_SIZE];
+         boolean afterHighSurrogate = false;
+         try (Reader in = reader) {
+            int count;
+            while ((count = in.read(chunk, 0, chunk.length)) >= 0) {
+               if (latin1) {
+                  int length = 0;
+                  for (int i = 0; i < count; i++) {
+                     char c = chunk[i];
+                     boolean pairedLowSurrogate = afterHighSurrogate && Character.isLowSurrogate(c);
+                     afterHighSurrogate = Character.isHighSurrogate(c);
+                     if (!pairedLowSurrogate) {
+                        chunk[length++] = c > LATIN1_MAX ? LATIN1_REPLACEMENT : c;
+                     }
+                  }
+                  count = length;
+               }
+               appendChars(out, chunk, count);
+            }
+         }
+      }
+
+      private static void appendChars(Appendable out, char[] chars, int count) throws IOException {
+         if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(chars, 0, count);
+         } else if (out instanceof Writer) {
+            ((Writer) out).write(chars, 0, count);
+         } else {
+            out.append(new String(chars, 0, count));
+         }
+      }
+   }
+}
@@ -0,0 +1,157 @@
+package com.epam.ld.module2.testing;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class BatchingMailServerTest {
+   private static final long LONG_LINGER_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+   @Test
+   void shouldCapBatchesByMessageCount() {
+      // Given
+      RecordingMailServer downstream = new RecordingMailServer();
+      BatchingMailServer server = new BatchingMailServer(downstream, 3, Integer.MAX_VALUE, LONG_LINGER_MILLIS, 100);
+
+      // When
+      for (int i = 0; i < 7; i++) {
+         server.send("client" + i, "message" + i);
+      }
+      server.close();
+
+      // Then
+      assertEquals(Arrays.asList(3, 3, 1), downstream.batchSizes());
+      assertEquals("message6", downstream.batches.get(2).get(0).getContent());
+   }
+
+   @Test
+   void shouldCapBatchesByByteSize() {
+      // Given
+      RecordingMailServer downstream = new RecordingMailServer();
+      BatchingMailServer server = new BatchingMailServer(downstream, 100, 20, LONG_LINGER_MILLIS, 100);
+
+      // When
+      server.send("a", "123456789");
+      server.send("b", "123456789");
+      server.send("c", "123456789");
+      server.send("d", "123456789012345678901234567890");
+      server.close();
+
+      // Then
+      assertEquals(Arrays.asList(2, 1, 1), downstream.batchSizes());
+   }
+
+   @Test
+   void shouldFlushBatchAfterLingerTime() throws InterruptedException {
+      // Given
+      RecordingMailServer downstream = new RecordingMailServer();
+      BatchingMailServer server = new BatchingMailServer(downstream, 100, Integer.MAX_VALUE, 20, 100);
+
+      // When
+      server.send("client", "message");
+
+      // Then
+      assertTrue(downstream.awaitBatches(1), "Batch should be sent without explicit flush");
+      assertEquals(Collections.singletonList(1), downstream.batchSizes());
+      server.close();
+   }
+
+   @Test
+   void shouldBlockSendersWhenDownstreamFallsBehind() throws InterruptedException {
+      // Given
+      CountDownLatch release = new CountDownLatch(1);
+      RecordingMailServer downstream = new RecordingMailServer(release);
+      BatchingMailServer server = new BatchingMailServer(downstream, 1, Integer.MAX_VALUE, 0, 1);
+      server.send("client", "first");
+      assertTrue(downstream.awaitBatches(1));
+      server.send("client", "second");
+
+      // When
+      Thread sender = new Thread(() -> server.send("client", "third"));
+      sender.start();
+      sender.join(200);
+
+      // Then
+      assertTrue(sender.isAlive(), "Sender should wait for free queue space");
+      release.countDown();
+      sender.join(TimeUnit.SECONDS.toMillis(5));
+      assertFalse(sender.isAlive());
+      server.close();
+      assertEquals(Arrays.asList(1, 1, 1), downstream.batchSizes());
+   }
+
+   @Test
+   void shouldReportDownstreamFailureOnFlush() {
+      // Given
+      MailServer failing = new MailServer() {
+         @Override
+         public void sendAll(List<MailMessage> messages) {
+            throw new IllegalStateException("transport down");
+         }
+      };
+      BatchingMailServer server = new BatchingMailServer(failing, 10, Integer.MAX_VALUE, LONG_LINGER_MILLIS, 10);
+      server.send("client", "message");
+
+      // When & Then
+      IllegalStateException exception = assertThrows(IllegalStateException.class, server::flush);
+      assertEquals("transport down", exception.getCause().getMessage());
+      assertThrows(IllegalStateException.class, () -> server.send("client", "next"));
+   }
+
+   /**
+    * Fake mail server recording the batch boundaries it receives.
+    */
+   private static class RecordingMailServer extends MailServer {
+      private final List<List<MailMessage>> batches = Collections.synchronizedList(new ArrayList<>());
+      private final CountDownLatch release;
+
+      RecordingMailServer() {
+         this(new CountDownLatch(0));
+      }
+
+      RecordingMailServer(CountDownLatch release) {
+         this.release = release;
+      }
+
+      @Override
+      public void sendAll(List<MailMessage> messages) {
+         batches.add(new ArrayList<>(messages));
+         try {
+            release.await();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+
+      List<Integer> batchSizes() {
+         List<Integer> sizes = new ArrayList<>();
+         synchronized (batches) {
+            for (List<MailMessage> batch : batches) {
+               sizes.add(batch.size());
+            }
+         }
+         return sizes;
+      }
+
+      boolean awaitBatches(int count) throws InterruptedException {
+         long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+         while (batches.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+         }
+         return batches.size() >= count;
+      }
+   }
+}
@@ -0,0 +1,162 @@
+package com.epam.ld.module2.testing;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import com.epam.ld.module2.testing.template.Bindings;
+import com.epam.ld.module2.testing.template.CompiledTemplate;
+import com.epam.ld.module2.testing.template.Template;
+import com.epam.ld.module2.testing.template.TemplateEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class ConcurrentDeliveryTest {
+
+   @Test
+   void shouldNeverExceedMaxInFlightSends() {
+      // Given
+      SlowMailServer mailServer = new SlowMailServer(20);
+      Messenger messenger = new Messenger(mailServer, new TemplateEngine());
+      List<Recipient> recipients = new ArrayList<>();
+      for (int i = 0; i < 24; i++) {
+         recipients.add(recipient("client" + i + "@example.com", "Client " + i));
+      }
+      RecordingListener listener = new RecordingListener();
+
+      // When
+      long sent = messenger.sendMessagesConcurrently(new Template("Hello, #{name}!"), recipients, 4, listener);
+
+      // Then
+      assertEquals(24, sent);
+      assertEquals(24, mailServer.sent.get());
+      assertEquals(24, listener.delivered.size());
+      assertTrue(mailServer.maxConcurrent.get() <= 4, "At most 4 sends should run at once");
+      assertTrue(mailServer.maxConcurrent.get() > 1, "Sends should run concurrently");
+   }
+
+   @Test
+   void shouldReportFailedRecipientWithoutStoppingOthers() {
+      // Given
+      Messenger messenger = new Messenger(new SlowMailServer(0), new TemplateEngine());
+      Recipient broken = new Recipient(new Client());
+      List<Recipient> recipients = new ArrayList<>();
+      recipients.add(recipient("first@example.com", "First"));
+      recipients.add(broken);
+      recipients.add(recipient("last@example.com", "Last"));
+      RecordingListener listener = new RecordingListener();
+
+      // When
+      long sent = messenger.sendMessagesConcurrently(new Template("Hello, #{name}!"), recipients, 2, listener);
+
+      // Then
+      assertEquals(2, sent);
+      assertEquals(2, listener.delivered.size());
+      assertEquals(Collections.singletonList(broken), listener.failed);
+   }
+
+   @Test
+   void shouldCompleteFutureExceptionallyOnSendFailure() {
+      // Given
+      MailServer failing = new MailServer() {
+         @Override
+         public void send(String addresses, String messageContent) {
+            throw new IllegalStateException("transport down");
+         }
+      };
+      CompiledTemplate template = CompiledTemplate.compile("Hello, #{name}!");
+
+      // When
+      CompletableFuture<String> result;
+      try (ConcurrentDelivery delivery = new ConcurrentDelivery(failing, new TemplateEngine(), 1)) {
+         result = delivery.deliver(template, Bindings.empty(), recipient("client@example.com", "John"));
+      }
+
+      // Then
+      ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+      assertEquals("transport down", exception.getCause().getMessage());
+   }
+
+   @Test
+   void shouldCompleteFutureExceptionallyOnError() {
+      // Given
+      MailServer failing = new MailServer() {
+         @Override
+         public void send(String addresses, String messageContent) {
+            throw new AssertionError("broken transport");
+         }
+      };
+      CompiledTemplate template = CompiledTemplate.compile("Hello, #{name}!");
+
+      // When
+      CompletableFuture<String> result;
+      try (ConcurrentDelivery delivery = new ConcurrentDelivery(failing, new TemplateEngine(), 1)) {
+         result = delivery.deliver(template, Bindings.empty(), recipient("client@example.com", "John"));
+      }
+
+      // Then
+      ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+      assertEquals(AssertionError.class, exception.getCause().getClass());
+   }
+
+   private static Recipient recipient(String addresses, String name) {
+      Client client = new Client();
+      client.setAddresses(addresses);
+      return new Recipient(client, Collections.singletonMap("name", name));
+   }
+
+   /**
+    * Fake mail server that takes a while per send and tracks concurrent calls.
+    */
+   private static class SlowMailServer extends MailServer {
+      private final long delayMillis;
+      private final AtomicInteger current = new AtomicInteger();
+      private final AtomicInteger maxConcurrent = new AtomicInteger();
+      private final AtomicInteger sent = new AtomicInteger();
+
+      SlowMailServer(long delayMillis) {
+         this.delayMillis = delayMillis;
+      }
+
+      @Override
+      public void send(String addresses, String messageContent) {
+         int running = current.incrementAndGet();
+         maxConcurrent.accumulateAndGet(running, Math::max);
+         try {
+            Thread.sleep(delayMillis);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         } finally {
+            current.decrementAndGet();
+         }
+         sent.incrementAndGet();
+      }
+   }
+
+   /**
+    * Listener collecting delivery outcomes.
+    */
+   private static class RecordingListener implements DeliveryListener {
+      private final List<Recipient> delivered = Collections.synchronizedList(new ArrayList<>());
+      private final List<Recipient> failed = Collections.synchronizedList(new ArrayList<>());
+
+      @Override
+      public void onDelivered(Recipient recipient, String messageContent) {
+         delivered.add(recipient);
+      }
+
+      @Override
+      public void onFailed(Recipient recipient, Throwable error) {
+         failed.add(recipient);
+      }
+   }
+}
@@ -0,0 +1,75 @@
+package com.epam.ld.module2.testing;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class EmailAddressTest {
+
+   @Test
+   void shouldNormalizeAddress() {
+      // When
+      EmailAddress address = EmailAddress.parse("  John.Smith@Example.COM ");
+
+      // Then
+      assertEquals("John.Smith@Example.COM", address.getAddress());
+      assertEquals("John.Smith", address.getLocalPart());
+      assertEquals("example.com", address.getDomain());
+      assertEquals("john.smith@example.com", address.getNormalized());
+      assertEquals(EmailAddress.parse("john.smith@example.com"), address);
+      assertNotEquals(EmailAddress.parse("john.smyth@example.com"), address);
+   }
+
+   @Test
+   void shouldParseListWithMixedSeparatorsAndDisplayNames() {
+      // When
+      List<EmailAddress> addresses = EmailAddress.parseList(
+            "john@example.com; Ana Silva <ana@example.org>,bob@example.net  eve@example.com");
+
+      // Then
+      assertEquals(Arrays.asList("john@example.com", "ana@example.org", "bob@example.net", "eve@example.com"),
+            addresses.stream().map(EmailAddress::getAddress).collect(Collectors.toList()));
+   }
+
+   @Test
+   void shouldParseMissingAddressesAsEmptyList() {
+      assertTrue(EmailAddress.parseList(null).isEmpty());
+      assertTrue(EmailAddress.parseList(" ,; ").isEmpty());
+   }
+
+   @Test
+   void shouldRejectInvalidAddresses() {
+      for (String invalid : Arrays.asList("john", "@example.com", "john@", "john@x@example.com", "<john@example.com")) {
+         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+               () -> EmailAddress.parse(invalid));
+         assertEquals("Invalid address: " + invalid, exception.getMessage());
+      }
+   }
+
+   @Test
+   void shouldCacheParsedAddressesOfClientUntilReset() {
+      // Given
+      Client client = new Client();
+      client.setAddresses("john@example.com");
+      List<EmailAddress> first = client.getRecipientAddresses();
+
+      // When
+      client.setAddresses("ana@example.com, bob@example.com");
+
+      // Then
+      assertEquals(1, first.size());
+      assertEquals(2, client.getRecipientAddresses().size());
+      assertSame(client.getRecipientAddresses(), client.getRecipientAddresses());
+   }
+}
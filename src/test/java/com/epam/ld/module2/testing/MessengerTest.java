@@ -1,34 +1,56 @@
 package com.epam.ld.module2.testing;
 
+import com.epam.ld.module2.testing.buffer.MessageBufferPool;
 import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import com.epam.ld.module2.testing.io.RecordFormat;
+import com.epam.ld.module2.testing.queue.DurableMessageQueue;
+import com.epam.ld.module2.testing.queue.MessageQueueDrainer;
+import com.epam.ld.module2.testing.template.Bindings;
 import com.epam.ld.module2.testing.template.Template;
 import com.epam.ld.module2.testing.template.TemplateEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -62,7 +84,8 @@ class MessengerTest {
          // Given
          Template template = new Template("Test template");
          Client client = new Client();
-         when(templateEngine.generateMessage(template, client)).thenReturn("Generated message");
+         when(templateEngine.generateMessage(eq(template), eq(client), any(Bindings.class)))
+               .thenReturn("Generated message");
 
          // When
          messenger.sendMessage(client, template);
@@ -79,6 +102,70 @@ class MessengerTest {
       }
    }
 
+   @Test
+   void shouldProcessEveryConsoleLineInStreamingMode() throws UnsupportedEncodingException {
+      // Given
+      AtomicBoolean inputClosed = new AtomicBoolean();
+      InputStream inStream = new ByteArrayInputStream("first\nsecond\r\nthird".getBytes(StandardCharsets.UTF_8)) {
+         @Override
+         public void close() {
+            inputClosed.set(true);
+         }
+      };
+      ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+      PrintStream originalOut = System.out;
+      InputStream originalIn = System.in;
+      Messenger consoleMessenger = new Messenger(mailServer, new TemplateEngine());
+      consoleMessenger.setConsoleStreaming(true);
+      Template template = new Template("#{greeting}: #{input}");
+      template.addVariable("greeting", "Echo");
+      Client client = new Client();
+      client.setAddresses("john@example.com");
+
+      try {
+         System.setIn(inStream);
+         System.setOut(new PrintStream(outStream, false, StandardCharsets.UTF_8.name()));
+
+         // When
+         consoleMessenger.sendMessage(client, template);
+      } finally {
+         System.setOut(originalOut);
+         System.setIn(originalIn);
+      }
+
+      // Then
+      String separator = System.lineSeparator();
+      assertEquals("Echo: first" + separator + "Echo: second" + separator + "Echo: third" + separator,
+            outStream.toString(StandardCharsets.UTF_8.name()));
+      verify(mailServer).send("john@example.com", "Echo: first");
+      verify(mailServer).send("john@example.com", "Echo: second");
+      verify(mailServer).send("john@example.com", "Echo: third");
+      assertFalse(inputClosed.get());
+   }
+
+   @Test
+   void shouldFlushLinesOnlyWhenNoFurtherInputIsReady() {
+      // Given
+      Messenger consoleMessenger = new Messenger(mailServer, new TemplateEngine());
+      Template template = new Template("> #{input}");
+      List<String> flushed = new ArrayList<>();
+      StringWriter buffer = new StringWriter();
+      Writer out = new FilterWriter(buffer) {
+         @Override
+         public void flush() {
+            flushed.add(buffer.toString());
+         }
+      };
+
+      // When
+      long sent = consoleMessenger.sendLines(new Client(), template, new StringReader("a\nb\nc\n"), out);
+
+      // Then
+      assertEquals(3, sent);
+      String separator = System.lineSeparator();
+      assertEquals(Collections.singletonList("> a" + separator + "> b" + separator + "> c" + separator), flushed);
+   }
+
    @Test
    void shouldSendMessageInFileMode(@TempDir Path tempDir) throws IOException {
       File inputFile = tempDir.resolve("input.txt").toFile();
@@ -93,7 +180,8 @@ class MessengerTest {
       // Given
       Template template = new Template("Test template");
       Client client = new Client();
-      when(templateEngine.generateMessage(template, client)).thenReturn("Generated message");
+      when(templateEngine.generateMessage(eq(template), eq(client), any(Bindings.class)))
+            .thenReturn("Generated message");
 
       // Set file mode
       messenger.setIOFiles(inputFile.getPath(), outputFile.getPath());
@@ -108,6 +196,149 @@ class MessengerTest {
       assertEquals("Generated message", outputContent.trim());
    }
 
+   @Test
+   void shouldSendMessageAsynchronouslyInFileMode(@TempDir Path tempDir) throws IOException {
+      // Given
+      Path inputFile = Files.write(tempDir.resolve("input.txt"), "Test\r\ninput\n".getBytes(StandardCharsets.UTF_8));
+      Path outputFile = tempDir.resolve("output.txt");
+      Template template = new Template("Test template");
+      Client client = new Client();
+      when(templateEngine.generateMessage(eq(template), eq(client), any(Bindings.class)))
+            .thenReturn("Generated message");
+
+      // When
+      messenger.sendMessageAsync(client, template, inputFile, outputFile).join();
+
+      // Then
+      ArgumentCaptor<Bindings> bindings = ArgumentCaptor.forClass(Bindings.class);
+      verify(templateEngine).generateMessage(eq(template), eq(client), bindings.capture());
+      assertEquals("Test\ninput", bindings.getValue().get("input"));
+      verify(mailServer).send(client.getAddresses(), "Generated message");
+      assertEquals("Generated message", new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8));
+   }
+
+   @Test
+   void shouldStreamMessageInFileMode(@TempDir Path tempDir) throws IOException {
+      // Given
+      Path inputFile = Files.write(tempDir.resolve("input.txt"),
+            " first line\r\nsecond line \r\n".getBytes(StandardCharsets.UTF_8));
+      Path outputFile = tempDir.resolve("output.txt");
+      Messenger streamingMessenger = new Messenger(mailServer, new TemplateEngine());
+      streamingMessenger.setIOFiles(inputFile.toString(), outputFile.toString());
+      streamingMessenger.setStreaming(true);
+      Template template = new Template("Input: #{input}");
+      Client client = new Client();
+
+      // When
+      streamingMessenger.sendMessage(client, template);
+
+      // Then
+      assertEquals("Input: first line\nsecond line",
+            new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8));
+      verify(mailServer).sendFile(client.getAddresses(), outputFile);
+   }
+
+   @Test
+   void shouldRenderBytesInFileMode(@TempDir Path tempDir) throws IOException {
+      // Given
+      Path inputFile = Files.write(tempDir.resolve("input.txt"), "Grüße €5".getBytes(StandardCharsets.UTF_8));
+      Path outputFile = tempDir.resolve("output.txt");
+      Messenger byteMessenger = new Messenger(mailServer, new TemplateEngine());
+      byteMessenger.setIOFiles(inputFile.toString(), outputFile.toString());
+      byteMessenger.setByteRendering(true);
+      Template template = new Template("Señor #{name}: #{input}");
+      template.addVariable("name", "Núñez");
+      Client client = new Client();
+
+      // When
+      byteMessenger.sendMessage(client, template);
+
+      // Then
+      assertEquals("Señor Núñez: Grüße ?5", new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8));
+      verify(mailServer).sendFile(client.getAddresses(), outputFile);
+   }
+
+   @Test
+   void shouldNotReadInputFileWhenByteRenderingFailsValidation(@TempDir Path tempDir) throws IOException {
+      // Given
+      Messenger byteMessenger = new Messenger(mailServer, new TemplateEngine());
+      byteMessenger.setIOFiles(tempDir.resolve("missing.txt").toString(), tempDir.resolve("output.txt").toString());
+      byteMessenger.setByteRendering(true);
+      Template template = new Template("Dear #{name}: #{input}");
+
+      // When & Then
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> byteMessenger.sendMessage(new Client(), template));
+      assertEquals("Missing values for placeholders: name", exception.getMessage());
+      verify(mailServer, never()).sendFile(any(), any());
+   }
+
+   @Test
+   void shouldSendEachRecordInRecordFileMode(@TempDir Path tempDir) throws IOException {
+      // Given
+      Path inputFile = Files.write(tempDir.resolve("input.csv"),
+            "name\nJohn\nAna\n".getBytes(StandardCharsets.UTF_8));
+      Path outputFile = tempDir.resolve("output.txt");
+      Messenger recordMessenger = new Messenger(mailServer, new TemplateEngine());
+      recordMessenger.setIOFiles(inputFile.toString(), outputFile.toString());
+      recordMessenger.setRecordMode(RecordFormat.CSV, true);
+      Client client = client("team@example.com");
+
+      // When
+      recordMessenger.sendMessage(client, new Template("Hello, #{name}!"));
+
+      // Then
+      assertEquals("Hello, John!\nHello, Ana!",
+            new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8));
+      verify(mailServer).send("team@example.com", "Hello, John!");
+      verify(mailServer).send("team@example.com", "Hello, Ana!");
+   }
+
+   @Test
+   void shouldRejectFileModesThatCannotBeCombined(@TempDir Path tempDir) throws IOException {
+      // Given
+      Messenger fileMessenger = new Messenger(mailServer, new TemplateEngine());
+      fileMessenger.setIOFiles(tempDir.resolve("input.csv").toString(), tempDir.resolve("output.txt").toString());
+      fileMessenger.setRecordMode(RecordFormat.CSV, true);
+      fileMessenger.setByteRendering(true);
+
+      // When
+      IllegalStateException exception = assertThrows(IllegalStateException.class,
+            () -> fileMessenger.sendMessage(new Client(), new Template("Hello, #{name}!")));
+
+      // Then
+      assertEquals("Record mode, streaming and byte rendering cannot be combined", exception.getMessage());
+      verify(mailServer, never()).sendFile(any(), any());
+   }
+
+   @Test
+   void shouldRejectStreamingToOutboundQueue(@TempDir Path tempDir) throws IOException {
+      // Given
+      Messenger streamingMessenger = new Messenger(mailServer, new TemplateEngine());
+      streamingMessenger.setIOFiles(tempDir.resolve("input.txt").toString(), tempDir.resolve("output.txt").toString());
+      streamingMessenger.setStreaming(true);
+
+      // When & Then
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir.resolve("queue"), 4096)) {
+         streamingMessenger.setOutboundQueue(queue);
+         assertThrows(IllegalStateException.class,
+               () -> streamingMessenger.sendMessage(new Client(), new Template("Input: #{input}")));
+      }
+      assertFalse(Files.exists(tempDir.resolve("output.txt")));
+   }
+
+   @Test
+   void shouldRejectAsynchronousSendWithStreaming(@TempDir Path tempDir) {
+      // Given
+      Messenger asyncMessenger = new Messenger(mailServer, new TemplateEngine());
+      asyncMessenger.setIOFiles(tempDir.resolve("input.txt").toString(), tempDir.resolve("output.txt").toString());
+      asyncMessenger.setStreaming(true);
+
+      // When & Then
+      assertThrows(IllegalStateException.class,
+            () -> asyncMessenger.sendMessageAsync(new Client(), new Template("Input: #{input}")));
+   }
+
    @Test
    void shouldInterceptFileOperations() throws IOException {
       MailServer mockedMailServer = mock(MailServer.class);
@@ -115,7 +346,8 @@ class MessengerTest {
       Messenger messengerSpy = spy(new Messenger(mockedMailServer, mockedTemplateEngine));
 
       String generatedContent = "generated content";
-      when(mockedTemplateEngine.generateMessage(any(Template.class), any(Client.class))).thenReturn(generatedContent);
+      when(mockedTemplateEngine.generateMessage(any(Template.class), any(Client.class), any(Bindings.class)))
+            .thenReturn(generatedContent);
       doReturn("test content").when(messengerSpy).readFile(anyString());
       doNothing().when(messengerSpy).writeFile(anyString(), anyString());
 
@@ -126,7 +358,9 @@ class MessengerTest {
 
       verify(messengerSpy).readFile("input.txt");
       verify(messengerSpy).writeFile("output.txt", generatedContent);
-      verify(mockedTemplateEngine).generateMessage(template, client);
+      verify(mockedTemplateEngine).generateMessage(eq(template), eq(client),
+            argThat(bindings -> "test content".equals(bindings.get("input"))));
+      assertFalse(template.getVariables().containsKey("input"), "Template should not be modified");
    }
 
    @Test
@@ -141,6 +375,214 @@ class MessengerTest {
 
       // Only verify the interactions you care about
       verify(mailServer).send(any(), any());
-      verify(templateEngine).generateMessage(eq(template), eq(client));
+      verify(templateEngine).generateMessage(eq(template), eq(client), any(Bindings.class));
+   }
+
+   @Test
+   void shouldSendTemplateToEachRecipient() {
+      // Given
+      Messenger bulkMessenger = new Messenger(mailServer, new TemplateEngine());
+      Template template = new Template("#{greeting}, #{name}!");
+      template.addVariable("greeting", "Hello");
+
+      // When
+      long sent = bulkMessenger.sendMessages(template, Arrays.asList(
+            recipient("john@example.com", "name", "John"),
+            recipient("ana@example.com", "name", "Ana")));
+
+      // Then
+      assertEquals(2, sent);
+      verify(mailServer).send("john@example.com", "Hello, John!");
+      verify(mailServer).send("ana@example.com", "Hello, Ana!");
+   }
+
+   @Test
+   void shouldPreferRecipientVariablesOverTemplateVariables() {
+      // Given
+      Messenger bulkMessenger = new Messenger(mailServer, new TemplateEngine());
+      Template template = new Template("#{greeting}, #{name}!");
+      template.addVariable("greeting", "Hello");
+      template.addVariable("name", "customer");
+
+      // When
+      bulkMessenger.sendMessages(template, Stream.of(
+            new Recipient(client("first@example.com")),
+            recipient("ana@example.com", "name", "Ana")));
+
+      // Then
+      verify(mailServer).send("first@example.com", "Hello, customer!");
+      verify(mailServer).send("ana@example.com", "Hello, Ana!");
+   }
+
+   @Test
+   void shouldSkipMailboxesAlreadyReachedByMergedLists() {
+      // Given
+      Messenger bulkMessenger = new Messenger(mailServer, new TemplateEngine());
+      bulkMessenger.setRecipientIndex(RecipientIndex.exact());
+      Template template = new Template("Hello, #{name}!");
+
+      // When
+      long firstSent = bulkMessenger.sendMessages(template, Arrays.asList(
+            recipient("john@example.com", "name", "John"),
+            recipient("ana@example.com; John@Example.com", "name", "Ana")));
+      long secondSent = bulkMessenger.sendMessages(template, Collections.singletonList(
+            recipient(" ANA@example.com ", "name", "Ana")));
+
+      // Then
+      assertEquals(2, firstSent);
+      assertEquals(0, secondSent);
+      verify(mailServer).send("john@example.com", "Hello, John!");
+      verify(mailServer).send("ana@example.com", "Hello, Ana!");
+      verify(mailServer, times(2)).send(anyString(), anyString());
+   }
+
+   @Test
+   void shouldRenderSharedMessageOnceForRecipientsWithoutOwnValues() {
+      // Given
+      TemplateEngine engine = new TemplateEngine();
+      Messenger bulkMessenger = new Messenger(mailServer, engine);
+      Template template = new Template("Hello, #{name}!");
+      template.addVariable("name", "customer");
+
+      // When
+      long sent = bulkMessenger.sendMessages(template, Arrays.asList(
+            new Recipient(client("first@example.com")),
+            recipient("second@example.com", "unused", "value"),
+            recipient("ana@example.com", "name", "Ana"),
+            new Recipient(client("third@example.com"))));
+
+      // Then
+      assertEquals(4, sent);
+      assertEquals(2, engine.getMetrics().snapshot().getRenderLatency().getCount());
+      verify(mailServer).send("first@example.com", "Hello, customer!");
+      verify(mailServer).send("second@example.com", "Hello, customer!");
+      verify(mailServer).send("third@example.com", "Hello, customer!");
+      verify(mailServer).send("ana@example.com", "Hello, Ana!");
+   }
+
+   @Test
+   void shouldSendBulkMessagesFromPooledBuffers() {
+      // Given
+      List<String> received = new ArrayList<>();
+      MailServer bufferServer = new MailServer() {
+         @Override
+         public void sendBuffer(String addresses, ByteBuffer messageContent) {
+            byte[] content = new byte[messageContent.remaining()];
+            messageContent.get(content);
+            received.add(addresses + ": " + new String(content, StandardCharsets.ISO_8859_1));
+         }
+      };
+      MessageBufferPool pool = new MessageBufferPool();
+      Messenger bulkMessenger = new Messenger(bufferServer, new TemplateEngine());
+      bulkMessenger.setBufferPool(pool);
+      Template template = new Template("#{greeting}, #{name}!");
+      template.addVariable("greeting", "¡Hola");
+
+      // When
+      long sent = bulkMessenger.sendMessages(template, Arrays.asList(
+            recipient("jose@example.com", "name", "José"),
+            recipient("ana@example.com", "name", "Ana")));
+
+      // Then
+      assertEquals(2, sent);
+      assertEquals(Arrays.asList("jose@example.com: ¡Hola, José!", "ana@example.com: ¡Hola, Ana!"), received);
+      assertEquals(0, pool.getLeasedCount());
+      assertEquals(1, pool.getAllocationCount());
+   }
+
+   @Test
+   void shouldQueueBulkMessagesInsteadOfSending(@TempDir Path tempDir) throws IOException {
+      // Given
+      Messenger queueingMessenger = new Messenger(mailServer, new TemplateEngine());
+      Template template = new Template("Hello, #{name}!");
+
+      // When
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096)) {
+         queueingMessenger.setOutboundQueue(queue);
+         queueingMessenger.sendMessages(template, Collections.singletonList(
+               recipient("john@example.com", "name", "John")));
+         verify(mailServer, never()).send(anyString(), anyString());
+         new MessageQueueDrainer(queue, mailServer, 10, 0).drain();
+      }
+
+      // Then
+      verify(mailServer).send("john@example.com", "Hello, John!");
+   }
+
+   @Test
+   void shouldStopBulkSendOnRecipientWithoutPlaceholderValue() {
+      // Given
+      Messenger bulkMessenger = new Messenger(mailServer, new TemplateEngine());
+      Template template = new Template("Hello, #{name}!");
+
+      // When & Then
+      assertThrows(IllegalArgumentException.class, () -> bulkMessenger.sendMessages(template, Arrays.asList(
+            recipient("john@example.com", "name", "John"),
+            new Recipient(client("ana@example.com")))));
+      verify(mailServer, times(1)).send(anyString(), anyString());
+      verify(mailServer, never()).send(eq("ana@example.com"), anyString());
+   }
+
+   @Test
+   void shouldRejectWholeBulkSendBeforeFirstMessageWithPrevalidation() {
+      // Given
+      Messenger bulkMessenger = new Messenger(mailServer, new TemplateEngine());
+      bulkMessenger.setPrevalidation(true);
+      Template template = new Template("Hello, #{name}! Your code is #{code}.");
+      template.addVariable("code", "X1");
+
+      // When
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> bulkMessenger.sendMessages(template, Arrays.asList(
+                  recipient("john@example.com", "name", "John"),
+                  new Recipient(client("ana@example.com")),
+                  recipient("bob@example.com", "code", null))));
+
+      // Then
+      assertEquals("Template validation failed: MISSING name in 2 bindings, first at 1; "
+            + "NULL_VALUE code in 1 bindings, first at 2", exception.getMessage());
+      verify(mailServer, never()).send(anyString(), anyString());
+   }
+
+   @Test
+   void shouldRejectConcurrentSendWithRecipientIndex() {
+      // Given
+      Messenger concurrentMessenger = new Messenger(mailServer, new TemplateEngine());
+      concurrentMessenger.setRecipientIndex(RecipientIndex.exact());
+
+      // When
+      IllegalStateException exception = assertThrows(IllegalStateException.class,
+            () -> concurrentMessenger.sendMessagesConcurrently(new Template("Hello, #{name}!"),
+                  Collections.singletonList(recipient("john@example.com", "name", "John")), 2, null));
+
+      // Then
+      assertEquals("Concurrent sends support neither an outbound queue, a recipient index, a buffer pool "
+            + "nor prevalidation", exception.getMessage());
+      verify(mailServer, never()).send(anyString(), anyString());
+   }
+
+   @Test
+   void shouldRejectBulkSendWithBufferPoolAndOutboundQueue(@TempDir Path tempDir) throws IOException {
+      // Given
+      Messenger bulkMessenger = new Messenger(mailServer, new TemplateEngine());
+      bulkMessenger.setBufferPool(new MessageBufferPool());
+
+      // When & Then
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096)) {
+         bulkMessenger.setOutboundQueue(queue);
+         assertThrows(IllegalStateException.class, () -> bulkMessenger.sendMessages(new Template("Hello, #{name}!"),
+               Collections.singletonList(recipient("john@example.com", "name", "John"))));
+         assertTrue(queue.isEmpty());
+      }
+   }
+
+   private static Client client(String addresses) {
+      Client client = new Client();
+      client.setAddresses(addresses);
+      return client;
+   }
+
+   private static Recipient recipient(String addresses, String name, String value) {
+      return new Recipient(client(addresses), Collections.singletonMap(name, value));
    }
 }
@@ -0,0 +1,53 @@
+package com.epam.ld.module2.testing;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class RecipientIndexTest {
+
+   @Test
+   void shouldRecordEachNormalizedMailboxOnce() {
+      // Given
+      RecipientIndex index = RecipientIndex.exact();
+
+      // When & Then
+      assertTrue(index.add(EmailAddress.parse("john@example.com")));
+      assertFalse(index.add(EmailAddress.parse("John@EXAMPLE.com")));
+      assertTrue(index.add(EmailAddress.parse("ana@example.com")));
+      assertEquals(2, index.size());
+   }
+
+   @Test
+   void shouldNeverAcceptDuplicateInApproximateIndex() {
+      // Given
+      RecipientIndex index = RecipientIndex.approximate(10_000, 0.01);
+      int distinct = 0;
+
+      // When
+      for (int i = 0; i < 10_000; i++) {
+         if (index.add(EmailAddress.parse("client" + i + "@example.com"))) {
+            distinct++;
+         }
+      }
+
+      // Then
+      for (int i = 0; i < 10_000; i++) {
+         assertFalse(index.add(EmailAddress.parse("Client" + i + "@Example.com")));
+      }
+      assertTrue(distinct > 9_900, "At most about 1% of new addresses may be taken for duplicates: " + distinct);
+      assertEquals(distinct, index.size());
+   }
+
+   @Test
+   void shouldRejectInvalidBloomFilterSize() {
+      assertThrows(IllegalArgumentException.class, () -> RecipientIndex.approximate(0, 0.01));
+      assertThrows(IllegalArgumentException.class, () -> RecipientIndex.approximate(1000, 1.0));
+   }
+}
@@ -0,0 +1,101 @@
+package com.epam.ld.module2.testing.buffer;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class MessageBufferPoolTest {
+
+   @Test
+   void shouldLeaseDirectBuffersBySizeClass() {
+      // Given
+      MessageBufferPool pool = new MessageBufferPool(1024, 8192, 4);
+
+      // When
+      MessageBuffer small = pool.lease(10);
+      MessageBuffer medium = pool.lease(1025);
+      MessageBuffer large = pool.lease(10_000);
+
+      // Then
+      assertTrue(small.getBuffer().isDirect());
+      assertEquals(1024, small.getBuffer().capacity());
+      assertEquals(2048, medium.getBuffer().capacity());
+      assertEquals(10_000, large.getBuffer().capacity());
+      assertEquals(3, pool.getLeasedCount());
+   }
+
+   @Test
+   void shouldReuseReleasedBufferAndWrapper() {
+      // Given
+      MessageBufferPool pool = new MessageBufferPool(1024, 8192, 4);
+      MessageBuffer first = pool.lease(100);
+      ByteBuffer buffer = first.getBuffer();
+      buffer.put((byte) 1);
+
+      // When
+      first.close();
+      assertThrows(IllegalStateException.class, first::close);
+      assertThrows(IllegalStateException.class, first::getBuffer);
+      MessageBuffer second = pool.lease(200);
+
+      // Then
+      assertSame(first, second);
+      assertSame(buffer, second.getBuffer());
+      assertEquals(0, second.getBuffer().position());
+      assertEquals(1, pool.getAllocationCount());
+      assertEquals(1, pool.getLeasedCount());
+   }
+
+   @Test
+   void shouldCountSampledLeakWithoutReusingItsBuffer() throws InterruptedException {
+      // Given
+      MessageBufferPool pool = new MessageBufferPool(1024, 8192, 4);
+      pool.setLeakSamplingInterval(1);
+      leaseAndDrop(pool);
+
+      // When
+      for (int i = 0; i < 50 && pool.getLeakCount() == 0; i++) {
+         System.gc();
+         Thread.sleep(10);
+         pool.lease(1).close();
+      }
+
+      // Then
+      assertEquals(1, pool.getLeakCount());
+      assertEquals(0, pool.getLeasedCount());
+      MessageBuffer first = pool.lease(1);
+      MessageBuffer second = pool.lease(1);
+      assertEquals(3, pool.getAllocationCount(), "Leaked buffer must not be reused");
+      first.close();
+      second.close();
+   }
+
+   @Test
+   void shouldNotTrackLeasesWhenLeakDetectionIsDisabled() throws InterruptedException {
+      // Given
+      MessageBufferPool pool = new MessageBufferPool(1024, 8192, 4);
+      pool.setLeakSamplingInterval(0);
+      leaseAndDrop(pool);
+
+      // When
+      System.gc();
+      Thread.sleep(10);
+      pool.lease(1).close();
+
+      // Then
+      assertEquals(0, pool.getLeakCount());
+      assertEquals(1, pool.getLeasedCount());
+   }
+
+   private static void leaseAndDrop(MessageBufferPool pool) {
+      pool.lease(100).getBuffer().put((byte) 1);
+   }
+}
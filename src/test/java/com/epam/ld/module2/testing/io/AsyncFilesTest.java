@@ -0,0 +1,91 @@
+package com.epam.ld.module2.testing.io;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(TestExecutionLogger.class)
+class AsyncFilesTest {
+   private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+   @TempDir
+   Path tempDir;
+
+   @AfterEach
+   void tearDown() {
+      executor.shutdown();
+   }
+
+   @Test
+   void shouldWriteAndReadWholeFiles() throws Exception {
+      // Given
+      byte[] content = new byte[3 * 1024 * 1024 + 17];
+      new Random(42).nextBytes(content);
+      Path file = tempDir.resolve("large.bin");
+      Files.write(file, new byte[content.length * 2]);
+
+      // When
+      AsyncFiles.write(file, ByteBuffer.wrap(content), executor).get();
+      ByteBuffer read = AsyncFiles.read(file, executor).get();
+
+      // Then
+      assertEquals(content.length, Files.size(file));
+      byte[] readBytes = new byte[read.remaining()];
+      read.get(readBytes);
+      assertArrayEquals(content, readBytes);
+   }
+
+   @Test
+   void shouldReadEmptyFile() throws Exception {
+      // Given
+      Path file = Files.createFile(tempDir.resolve("empty.txt"));
+
+      // When
+      ByteBuffer read = AsyncFiles.read(file, null).get();
+
+      // Then
+      assertEquals(0, read.remaining());
+   }
+
+   @Test
+   void shouldFailFutureWhenFileIsMissing() {
+      // Given
+      Path file = tempDir.resolve("missing.txt");
+
+      // When
+      CompletableFuture<ByteBuffer> read = AsyncFiles.read(file, executor);
+
+      // Then
+      ExecutionException exception = assertThrows(ExecutionException.class, read::get);
+      assertEquals(NoSuchFileException.class, exception.getCause().getClass());
+   }
+
+   @Test
+   void shouldFailFutureWhenDirectoryIsMissing() {
+      // Given
+      Path file = tempDir.resolve("missing").resolve("out.txt");
+
+      // When
+      CompletableFuture<Void> write = AsyncFiles.write(file, ByteBuffer.wrap(new byte[]{1}), executor);
+
+      // Then
+      ExecutionException exception = assertThrows(ExecutionException.class, write::get);
+      assertEquals(NoSuchFileException.class, exception.getCause().getClass());
+   }
+}
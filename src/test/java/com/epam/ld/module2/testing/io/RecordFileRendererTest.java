@@ -0,0 +1,85 @@
+package com.epam.ld.module2.testing.io;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import com.epam.ld.module2.testing.template.CompiledTemplate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class RecordFileRendererTest {
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void shouldRenderOneMessagePerCsvRecord() throws IOException {
+      // Given
+      Path input = write("name,orderId\nJohn,1\n\n\"Smith, Ana\",\"2\"\"b\"\n");
+      Path output = tempDir.resolve("output.txt");
+      Map<String, String> variables = new HashMap<>();
+      variables.put("shop", "Café");
+      List<String> sent = new ArrayList<>();
+
+      // When
+      long records = new RecordFileRenderer(RecordFormat.CSV).render(
+            CompiledTemplate.compile("#{shop}: #{name} #{orderId}"), variables, input, output, sent::add);
+
+      // Then
+      assertEquals(2, records);
+      assertEquals(Arrays.asList("Café: John 1", "Café: Smith, Ana 2\"b"), sent);
+      assertEquals("Café: John 1\nCafé: Smith, Ana 2\"b", read(output));
+   }
+
+   @Test
+   void shouldBindEachLineToInputVariable() throws IOException {
+      // Given
+      Path input = write("first\r\nsecond\r\n");
+      Path output = tempDir.resolve("output.txt");
+
+      // When
+      long records = new RecordFileRenderer(RecordFormat.LINES).render(
+            CompiledTemplate.compile("[#{input}]"), Collections.<String, String>emptyMap(), input, output,
+            message -> {
+            });
+
+      // Then
+      assertEquals(2, records);
+      assertEquals("[first]\n[second]", read(output));
+   }
+
+   @Test
+   void shouldRejectRecordWithWrongFieldCount() throws IOException {
+      Path input = write("name,orderId\nJohn\n");
+
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> new RecordFileRenderer(RecordFormat.CSV).render(CompiledTemplate.compile("#{name}"),
+                  Collections.<String, String>emptyMap(), input, tempDir.resolve("output.txt"), message -> {
+                  }));
+
+      assertTrue(exception.getMessage().contains("line 2"));
+   }
+
+   private Path write(String content) throws IOException {
+      return Files.write(tempDir.resolve("input.csv"), content.getBytes(StandardCharsets.UTF_8));
+   }
+
+   private static String read(Path path) throws IOException {
+      return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+   }
+}
@@ -0,0 +1,108 @@
+package com.epam.ld.module2.testing.io;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import com.epam.ld.module2.testing.template.CompiledTemplate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(TestExecutionLogger.class)
+class StreamingFileRendererTest {
+   private static final String TEMPLATE = "Subject: #{subject}\n---\n#{input}\n---\n#{input}";
+
+   @TempDir
+   Path tempDir;
+
+   @Test
+   void shouldMatchInMemoryRenderingForTypicalInputs() throws IOException {
+      String[] inputs = {
+            "plain text",
+            "  \r\n leading and trailing whitespace \t\r\n\r\n",
+            "windows\r\nline\r\nbreaks\rand old mac",
+            "Café avec crème, señor González",
+            "outside Latin-1: € 😀 end",
+            "runtime tag #{kept} €",
+            "€ before runtime tag #{kept}",
+            "lone brace } and € before #{kept",
+            "",
+      };
+      for (String input : inputs) {
+         assertStreamedEqualsInMemory(input, false);
+         assertStreamedEqualsInMemory(input, true);
+      }
+   }
+
+   @Test
+   void shouldStreamInputLargerThanCopyChunks() throws IOException {
+      StringBuilder input = new StringBuilder();
+      for (int i = 0; i < 50_000; i++) {
+         input.append("line ").append(i).append("\r\n");
+      }
+
+      assertStreamedEqualsInMemory(input.toString(), false);
+      assertStreamedEqualsInMemory(input.toString(), true);
+   }
+
+   @Test
+   void shouldValidateOtherPlaceholdersBeforeWritingOutput() throws IOException {
+      Path input = write("input.txt", "text");
+      Path output = tempDir.resolve("output.txt");
+      CompiledTemplate template = CompiledTemplate.compile(TEMPLATE);
+
+      assertThrows(IllegalArgumentException.class, () -> new StreamingFileRenderer(false)
+            .render(template, Collections.<String, String>emptyMap(), "input", input, output));
+      assertFalse(Files.exists(output));
+   }
+
+   @Test
+   void shouldReplaceLoneSurrogatesLikePlainFileMode() throws IOException {
+      // Given
+      Path input = write("input.txt", "runtime tag #{kept}");
+      Path output = tempDir.resolve("output.txt");
+      CompiledTemplate template = CompiledTemplate.compile("Broken \uD83D pair: #{input}");
+
+      // When
+      new StreamingFileRenderer(false).render(template, Collections.<String, String>emptyMap(), "input", input, output);
+
+      // Then
+      assertEquals("Broken ? pair: runtime tag #{kept}", new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+   }
+
+   private void assertStreamedEqualsInMemory(String input, boolean memoryMapped) throws IOException {
+      // Given
+      Path inputFile = write("input.txt", input);
+      Path outputFile = tempDir.resolve("output.txt");
+      CompiledTemplate template = CompiledTemplate.compile(TEMPLATE);
+      Map<String, String> variables = new HashMap<>();
+      variables.put("subject", "Report");
+
+      // When
+      new StreamingFileRenderer(memoryMapped).render(template, variables, "input", inputFile, outputFile);
+
+      // Then
+      variables.put("input", normalize(input));
+      assertEquals(template.render(variables),
+            new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8),
+            "Streamed output should match in-memory rendering, mapped=" + memoryMapped);
+   }
+
+   private Path write(String name, String content) throws IOException {
+      return Files.write(tempDir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+   }
+
+   private static String normalize(String input) {
+      return input.replace("\r\n", "\n").replace('\r', '\n').trim();
+   }
+}
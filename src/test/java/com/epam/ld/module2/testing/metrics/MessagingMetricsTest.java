@@ -0,0 +1,142 @@
+package com.epam.ld.module2.testing.metrics;
+
+import com.epam.ld.module2.testing.Client;
+import com.epam.ld.module2.testing.MailServer;
+import com.epam.ld.module2.testing.Messenger;
+import com.epam.ld.module2.testing.Recipient;
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import com.epam.ld.module2.testing.template.Bindings;
+import com.epam.ld.module2.testing.template.CompiledTemplate;
+import com.epam.ld.module2.testing.template.PlaceholderIssue;
+import com.epam.ld.module2.testing.template.Template;
+import com.epam.ld.module2.testing.template.TemplateEngine;
+import com.epam.ld.module2.testing.template.ValueSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(TestExecutionLogger.class)
+class MessagingMetricsTest {
+
+   @Test
+   void shouldRecordRendersAndCacheUse() {
+      // Given
+      TemplateEngine engine = new TemplateEngine();
+      Template template = new Template("Hello, #{name}!");
+      template.addVariable("name", "John");
+
+      // When
+      engine.generateMessage(template, new Client());
+      engine.generateMessage(template, new Client());
+      engine.generateMessage(new Template("Hello, #{name}!"), new Client(), template.getBindings());
+
+      // Then
+      MetricsSnapshot snapshot = engine.getMetrics().snapshot();
+      assertEquals(3, snapshot.getRenderLatency().getCount());
+      assertEquals(3 * "Hello, John!".length(), snapshot.getBytesRendered());
+      assertEquals(3, snapshot.getPlaceholdersRendered());
+      assertEquals(1, snapshot.getCacheMisses());
+      assertEquals(2, snapshot.getCacheHits());
+   }
+
+   @Test
+   void shouldCountValidationFailuresByKind() {
+      // Given
+      TemplateEngine engine = new TemplateEngine();
+      Template missing = new Template("Hello, #{name}!");
+      Template nullValue = new Template("Hello, #{name}!");
+      nullValue.addVariable("name", null);
+      Template malformed = new Template("Hello, #{1name}!");
+
+      // When
+      assertThrows(IllegalArgumentException.class, () -> engine.generateMessage(missing, new Client()));
+      assertThrows(IllegalArgumentException.class, () -> engine.generateMessage(nullValue, new Client()));
+      assertThrows(IllegalArgumentException.class, () -> engine.generateMessage(malformed, new Client()));
+
+      // Then
+      MetricsSnapshot snapshot = engine.getMetrics().snapshot();
+      assertEquals(1, snapshot.getValidationFailures(PlaceholderIssue.MISSING));
+      assertEquals(1, snapshot.getValidationFailures(PlaceholderIssue.NULL_VALUE));
+      assertEquals(1, snapshot.getValidationFailures(PlaceholderIssue.MALFORMED));
+      assertEquals(0, snapshot.getRenderLatency().getCount());
+   }
+
+   @Test
+   void shouldCountRenderFailuresByKindOfBindings() {
+      // Given
+      TemplateEngine engine = new TemplateEngine();
+      CompiledTemplate template = engine.compile(new Template("#{a} #{b}"));
+      Bindings missing = Bindings.empty().with("a", "x");
+      Bindings missingAndNull = Bindings.empty().with("b", null);
+      Bindings nullSource = Bindings.empty().withSource("a", ValueSource.of(() -> null)).with("b", "y");
+
+      // When
+      assertThrows(IllegalArgumentException.class, () -> engine.render(template, missing));
+      assertThrows(IllegalArgumentException.class, () -> engine.renderBytes(template, missingAndNull));
+      assertThrows(IllegalArgumentException.class, () -> engine.render(template, nullSource));
+
+      // Then
+      MetricsSnapshot snapshot = engine.getMetrics().snapshot();
+      assertEquals(1, snapshot.getValidationFailures(PlaceholderIssue.MISSING));
+      assertEquals(2, snapshot.getValidationFailures(PlaceholderIssue.NULL_VALUE));
+   }
+
+   @Test
+   void shouldRecordSendsAndSendFailures() {
+      // Given
+      MessagingMetrics metrics = new MessagingMetrics();
+      MailServer failing = new MailServer() {
+         @Override
+         public void send(String addresses, String messageContent) {
+            if (addresses.startsWith("broken")) {
+               throw new IllegalStateException("transport down");
+            }
+         }
+      };
+      Messenger messenger = new Messenger(failing, new TemplateEngine(0, metrics), metrics);
+      Template template = new Template("Hello!");
+
+      // When
+      messenger.sendMessages(template, Collections.singletonList(recipient("client@example.com")));
+      assertThrows(IllegalStateException.class,
+            () -> messenger.sendMessages(template, Collections.singletonList(recipient("broken@example.com"))));
+
+      // Then
+      MetricsSnapshot snapshot = metrics.snapshot();
+      assertEquals(1, snapshot.getSendLatency().getCount());
+      assertEquals(1, snapshot.getSendFailures());
+      assertEquals(2, snapshot.getRenderLatency().getCount());
+   }
+
+   @Test
+   void shouldEstimatePercentilesFromBuckets() {
+      // Given
+      LatencyHistogram histogram = new LatencyHistogram();
+
+      // When
+      for (int i = 0; i < 90; i++) {
+         histogram.record(100);
+      }
+      for (int i = 0; i < 10; i++) {
+         histogram.record(10_000);
+      }
+
+      // Then
+      LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+      assertEquals(100, snapshot.getCount());
+      assertEquals(10_000, snapshot.getMaxNanos());
+      assertEquals(1_090.0, snapshot.getMeanNanos());
+      assertEquals(127, snapshot.getPercentileNanos(50));
+      assertEquals(10_000, snapshot.getPercentileNanos(99));
+   }
+
+   private static Recipient recipient(String addresses) {
+      Client client = new Client();
+      client.setAddresses(addresses);
+      return new Recipient(client);
+   }
+}
@@ -0,0 +1,140 @@
+package com.epam.ld.module2.testing.queue;
+
+import com.epam.ld.module2.testing.MailMessage;
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class DurableMessageQueueTest {
+
+   @Test
+   void shouldResumeFromCheckpointAfterRestart(@TempDir Path tempDir) throws IOException {
+      // Given
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096)) {
+         queue.append("first@example.com", "first");
+         queue.append(null, "second");
+         queue.append("third@example.com", "Grüße third");
+         assertEquals(2, queue.peek(2).size());
+         queue.acknowledge(1);
+      }
+
+      // When
+      List<MailMessage> messages;
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096)) {
+         queue.append("fourth@example.com", "fourth");
+         messages = queue.peek(10);
+      }
+
+      // Then
+      assertEquals(Arrays.asList("second", "Grüße third", "fourth"), contents(messages));
+      assertNull(messages.get(0).getAddresses());
+      assertEquals("third@example.com", messages.get(1).getAddresses());
+   }
+
+   @Test
+   void shouldRollOverAndDeleteConsumedSegments(@TempDir Path tempDir) throws IOException {
+      // Given
+      List<String> expected = new ArrayList<>();
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 128)) {
+         for (int i = 0; i < 20; i++) {
+            queue.append("client@example.com", "message " + i);
+            expected.add("message " + i);
+         }
+         assertTrue(segmentCount(tempDir) > 3, "Messages should span several segments");
+
+         // When
+         List<MailMessage> messages = queue.peek(100);
+         queue.acknowledge(18);
+
+         // Then
+         assertEquals(expected, contents(messages));
+         assertEquals(Arrays.asList("message 18", "message 19"), contents(queue.peek(100)));
+         assertEquals(1, segmentCount(tempDir));
+         assertThrows(IllegalArgumentException.class, () -> queue.acknowledge(3));
+         queue.acknowledge(2);
+         assertTrue(queue.isEmpty());
+      }
+   }
+
+   @Test
+   void shouldDropTornRecordOnRecovery(@TempDir Path tempDir) throws IOException {
+      // Given
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096)) {
+         queue.append("client@example.com", "intact");
+         queue.append("client@example.com", "torn");
+      }
+      Path segment = segments(tempDir).get(0);
+      try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+         int tornContentOffset = 8 + 4 + "client@example.com".length() + "intact".length() + 8 + 4
+               + "client@example.com".length();
+         channel.write(ByteBuffer.wrap(new byte[] {'X'}), tornContentOffset);
+      }
+
+      // When
+      List<MailMessage> messages;
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096)) {
+         queue.append("client@example.com", "after recovery");
+         messages = queue.peek(10);
+      }
+
+      // Then
+      assertEquals(Arrays.asList("intact", "after recovery"), contents(messages));
+   }
+
+   @Test
+   void shouldDropRecordWithCorruptAddressLengthOnRecovery(@TempDir Path tempDir) throws IOException {
+      // Given
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096)) {
+         queue.append("client@example.com", "intact");
+         queue.append("client@example.com", "corrupt");
+      }
+      Path segment = segments(tempDir).get(0);
+      try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+         int addressLengthOffset = 8 + 4 + "client@example.com".length() + "intact".length() + 8;
+         ByteBuffer shorter = ByteBuffer.allocate(4).putInt(0, "client@example.com".length() - 1);
+         channel.write(shorter, addressLengthOffset);
+      }
+
+      // When
+      List<MailMessage> messages;
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096)) {
+         messages = queue.peek(10);
+      }
+
+      // Then
+      assertEquals(Arrays.asList("intact"), contents(messages));
+   }
+
+   private static List<String> contents(List<MailMessage> messages) {
+      return messages.stream().map(MailMessage::getContent).collect(Collectors.toList());
+   }
+
+   private static long segmentCount(Path directory) throws IOException {
+      return segments(directory).size();
+   }
+
+   private static List<Path> segments(Path directory) throws IOException {
+      try (Stream<Path> files = Files.list(directory)) {
+         return files.filter(file -> file.toString().endsWith(".segment")).sorted().collect(Collectors.toList());
+      }
+   }
+}
@@ -0,0 +1,155 @@
+package com.epam.ld.module2.testing.queue;
+
+import com.epam.ld.module2.testing.MailServer;
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class MessageQueueDrainerTest {
+
+   @Test
+   void shouldRedeliverFromFailedMessageAfterRestart(@TempDir Path tempDir) throws IOException {
+      // Given
+      FlakyMailServer mailServer = new FlakyMailServer();
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096)) {
+         for (int i = 0; i < 5; i++) {
+            queue.append("client@example.com", "message " + i);
+         }
+         mailServer.failOn = "message 3";
+
+         // When
+         MessageQueueDrainer drainer = new MessageQueueDrainer(queue, mailServer, 2, 0);
+         assertThrows(IllegalStateException.class, drainer::drain);
+      }
+      mailServer.failOn = null;
+      long delivered;
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096)) {
+         delivered = new MessageQueueDrainer(queue, mailServer, 2, 0).drain();
+      }
+
+      // Then
+      assertEquals(2, delivered);
+      assertEquals(Arrays.asList("message 0", "message 1", "message 2", "message 3", "message 4"),
+            mailServer.sent);
+   }
+
+   @Test
+   void shouldKeepSendFailureWhenAcknowledgeFails(@TempDir Path tempDir) throws IOException {
+      // Given
+      FlakyMailServer mailServer = new FlakyMailServer();
+      mailServer.failOn = "message 1";
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096) {
+         @Override
+         public void acknowledge(int count) throws IOException {
+            throw new IOException("checkpoint failed");
+         }
+      }) {
+         queue.append("client@example.com", "message 0");
+         queue.append("client@example.com", "message 1");
+         MessageQueueDrainer drainer = new MessageQueueDrainer(queue, mailServer, 2, 0);
+
+         // When
+         IllegalStateException exception = assertThrows(IllegalStateException.class, drainer::drain);
+
+         // Then
+         assertEquals("transport down", exception.getMessage());
+         assertEquals(1, exception.getSuppressed().length);
+         assertEquals("checkpoint failed", exception.getSuppressed()[0].getMessage());
+      }
+   }
+
+   @Test
+   void shouldDrainInBackground(@TempDir Path tempDir) throws IOException, InterruptedException {
+      // Given
+      FlakyMailServer mailServer = new FlakyMailServer();
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096);
+           MessageQueueDrainer drainer = new MessageQueueDrainer(queue, mailServer, 10, 5)) {
+         drainer.start();
+
+         // When
+         queue.append("client@example.com", "first");
+         queue.append("client@example.com", "second");
+
+         // Then
+         long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+         while (!queue.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+         }
+         assertTrue(queue.isEmpty());
+      }
+      assertEquals(Arrays.asList("first", "second"), mailServer.sent);
+   }
+
+   @Test
+   void shouldCloseIdleWorkerWithoutWaitingOutPause(@TempDir Path tempDir) throws IOException {
+      // Given
+      FlakyMailServer mailServer = new FlakyMailServer();
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096)) {
+         MessageQueueDrainer drainer = new MessageQueueDrainer(queue, mailServer, 10, TimeUnit.MINUTES.toMillis(10));
+         drainer.start();
+
+         // When
+         long started = System.nanoTime();
+         drainer.close();
+
+         // Then
+         assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+      }
+   }
+
+   @Test
+   void shouldReportErrorThatStopsBackgroundDrain(@TempDir Path tempDir) throws IOException, InterruptedException {
+      // Given
+      MailServer mailServer = new MailServer() {
+         @Override
+         public void send(String addresses, String messageContent) {
+            throw new AssertionError("broken transport");
+         }
+      };
+      try (DurableMessageQueue queue = new DurableMessageQueue(tempDir, 4096);
+           MessageQueueDrainer drainer = new MessageQueueDrainer(queue, mailServer, 10, 5)) {
+         queue.append("client@example.com", "message");
+
+         // When
+         drainer.start();
+         long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+         while (drainer.getLastFailure() == null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+         }
+
+         // Then
+         assertTrue(drainer.getLastFailure().getCause() instanceof AssertionError);
+         assertEquals(1, queue.peek(10).size());
+      }
+   }
+
+   /**
+    * Mail server recording sent content and failing on a chosen message.
+    */
+   private static class FlakyMailServer extends MailServer {
+      private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+      private volatile String failOn;
+
+      @Override
+      public void send(String addresses, String messageContent) {
+         if (messageContent.equals(failOn)) {
+            throw new IllegalStateException("transport down");
+         }
+         sent.add(messageContent);
+      }
+   }
+}
@@ -0,0 +1,231 @@
+package com.epam.ld.module2.testing.scheduling;
+
+import com.epam.ld.module2.testing.MailServer;
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class DomainFairSchedulerTest {
+   private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+   private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+   @Test
+   void shouldAlternateBetweenDomainsWithinLimits() {
+      // Given
+      FakeClock clock = new FakeClock();
+      RecordingMailServer mailServer = new RecordingMailServer(clock);
+      DomainFairScheduler scheduler = new DomainFairScheduler(mailServer,
+            new RateLimit(1000, 10), new RateLimit(1000, 10), clock);
+      for (int i = 0; i < 3; i++) {
+         scheduler.send("user" + i + "@busy.com", "busy " + i);
+      }
+      scheduler.send("user@quiet.org", "quiet");
+
+      // When
+      long wait = scheduler.dispatch();
+
+      // Then
+      assertEquals(DomainFairScheduler.IDLE, wait);
+      assertEquals(Arrays.asList("busy 0", "quiet", "busy 1", "busy 2"), mailServer.contents());
+   }
+
+   @Test
+   void shouldKeepEachDomainBelowItsLimitWhileUsingGlobalLimit() {
+      // Given
+      FakeClock clock = new FakeClock();
+      RecordingMailServer mailServer = new RecordingMailServer(clock);
+      DomainFairScheduler scheduler = new DomainFairScheduler(mailServer,
+            new RateLimit(100, 1), new RateLimit(40, 1), clock);
+      scheduler.setDomainLimit("Slow.com", new RateLimit(5, 1));
+      for (String domain : Arrays.asList("a.com", "b.com", "c.com", "slow.com")) {
+         for (int i = 0; i < 1000; i++) {
+            scheduler.send("user@" + domain, domain);
+         }
+      }
+
+      // When
+      runFor(scheduler, clock, 10 * SECOND);
+
+      // Then
+      Map<String, Integer> perDomain = mailServer.countByContent();
+      int total = mailServer.sent.size();
+      assertTrue(total >= 990 && total <= 1001, "Global limit should be nearly used: " + total);
+      assertTrue(perDomain.get("slow.com") <= 51, "Slow domain over its limit: " + perDomain);
+      assertTrue(perDomain.get("slow.com") >= 45, "Slow domain starved: " + perDomain);
+      for (String domain : Arrays.asList("a.com", "b.com", "c.com")) {
+         assertTrue(Math.abs(perDomain.get(domain) - (total - perDomain.get("slow.com")) / 3) <= 2,
+               "Domains should share the rest fairly: " + perDomain);
+      }
+      assertTrue(mailServer.maxInWindow("slow.com", SECOND) <= 5, "Slow domain exceeded 5 per second");
+      assertTrue(mailServer.maxInWindow("a.com", SECOND) <= 40, "Domain exceeded 40 per second");
+   }
+
+   @Test
+   void shouldSplitMessageForSeveralDomains() {
+      // Given
+      FakeClock clock = new FakeClock();
+      RecordingMailServer mailServer = new RecordingMailServer(clock);
+      DomainFairScheduler scheduler = new DomainFairScheduler(mailServer,
+            new RateLimit(10, 10), new RateLimit(1, 1), clock);
+
+      // When
+      scheduler.send("ann@a.com, bob@B.com; carl@a.com", "hello");
+      scheduler.send("dave@a.com", "again");
+      long wait = scheduler.dispatch();
+
+      // Then
+      assertEquals(Arrays.asList("ann@a.com, carl@a.com", "bob@B.com"), mailServer.addresses);
+      assertEquals(1, scheduler.getPendingCount());
+      assertEquals(SECOND, wait);
+   }
+
+   @Test
+   void shouldGroupAddressesWithDisplayNamesByDomain() {
+      // Given
+      FakeClock clock = new FakeClock();
+      RecordingMailServer mailServer = new RecordingMailServer(clock);
+      DomainFairScheduler scheduler = new DomainFairScheduler(mailServer,
+            new RateLimit(10, 10), new RateLimit(10, 10), clock);
+
+      // When
+      scheduler.send("Ann Lee <ann@a.com>, Bob <bob@b.com>; carl@A.com", "hello");
+      scheduler.dispatch();
+
+      // Then
+      assertEquals(Arrays.asList("ann@a.com, carl@A.com", "bob@b.com"), mailServer.addresses);
+      assertThrows(IllegalArgumentException.class, () -> scheduler.send("not an address", "hello"));
+   }
+
+   @Test
+   void shouldForgetDrainedDomainsOnceTheirBucketIsFull() {
+      // Given
+      FakeClock clock = new FakeClock();
+      RecordingMailServer mailServer = new RecordingMailServer(clock);
+      DomainFairScheduler scheduler = new DomainFairScheduler(mailServer,
+            new RateLimit(1000, 10), new RateLimit(1, 1), clock);
+      scheduler.send("user@a.com", "first");
+      scheduler.send("user@b.com", "first");
+      scheduler.dispatch();
+
+      // When
+      clock.now += SECOND / 2;
+      scheduler.send("user@a.com", "second");
+      long wait = scheduler.dispatch();
+      int halfwayCount = scheduler.getDomainCount();
+      clock.now += SECOND / 2;
+      scheduler.dispatch();
+
+      // Then
+      assertEquals(SECOND / 2, wait);
+      assertEquals(2, halfwayCount);
+      assertEquals(1, scheduler.getDomainCount());
+      clock.now += SECOND;
+      scheduler.dispatch();
+      assertEquals(0, scheduler.getDomainCount());
+      assertEquals(Arrays.asList("first", "first", "second"), mailServer.contents());
+   }
+
+   @Test
+   void shouldDeliverQueuedMessagesBeforeClosing() {
+      // Given
+      FakeClock clock = new FakeClock();
+      RecordingMailServer mailServer = new RecordingMailServer(clock);
+      DomainFairScheduler scheduler = new DomainFairScheduler(mailServer,
+            new RateLimit(1000, 1), new RateLimit(500, 1));
+      scheduler.start();
+
+      // When
+      for (int i = 0; i < 20; i++) {
+         scheduler.send("user@" + (i % 2 == 0 ? "a.com" : "b.com"), "message " + i);
+      }
+      scheduler.close();
+
+      // Then
+      assertEquals(20, mailServer.sent.size());
+      assertEquals(0, scheduler.getPendingCount());
+   }
+
+   private static void runFor(DomainFairScheduler scheduler, FakeClock clock, long duration) {
+      long end = clock.now + duration;
+      while (clock.now < end) {
+         long wait = scheduler.dispatch();
+         clock.now += wait > 0 ? Math.min(wait, MILLI) : MILLI;
+      }
+   }
+
+   /**
+    * Manually advanced clock.
+    */
+   private static class FakeClock implements NanoClock {
+      private long now = 1_000 * SECOND;
+
+      @Override
+      public long nanoTime() {
+         return now;
+      }
+   }
+
+   /**
+    * Fake mail server recording what was sent and when.
+    */
+   private static class RecordingMailServer extends MailServer {
+      private final FakeClock clock;
+      private final List<String> sent = new ArrayList<>();
+      private final List<String> addresses = new ArrayList<>();
+      private final List<Long> times = new ArrayList<>();
+
+      RecordingMailServer(FakeClock clock) {
+         this.clock = clock;
+      }
+
+      @Override
+      public void send(String addresses, String messageContent) {
+         this.addresses.add(addresses);
+         sent.add(messageContent);
+         times.add(clock.now);
+      }
+
+      List<String> contents() {
+         return Collections.unmodifiableList(sent);
+      }
+
+      Map<String, Integer> countByContent() {
+         Map<String, Integer> counts = new HashMap<>();
+         for (String content : sent) {
+            counts.merge(content, 1, Integer::sum);
+         }
+         return counts;
+      }
+
+      int maxInWindow(String content, long window) {
+         List<Long> domainTimes = new ArrayList<>();
+         for (int i = 0; i < sent.size(); i++) {
+            if (sent.get(i).equals(content)) {
+               domainTimes.add(times.get(i));
+            }
+         }
+         int max = 0;
+         int start = 0;
+         for (int i = 0; i < domainTimes.size(); i++) {
+            while (domainTimes.get(i) - domainTimes.get(start) >= window) {
+               start++;
+            }
+            max = Math.max(max, i - start + 1);
+         }
+         return max;
+      }
+   }
+}
@@ -0,0 +1,118 @@
+package com.epam.ld.module2.testing.template;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class BindingsTest {
+
+   @Test
+   void shouldPreferUpperLayerValues() {
+      // Given
+      Map<String, String> shared = new HashMap<>();
+      shared.put("greeting", "Hello");
+      shared.put("name", "customer");
+
+      // When
+      Bindings bindings = Bindings.of(shared).with("name", "Ana");
+
+      // Then
+      assertEquals("Hello", bindings.get("greeting"));
+      assertEquals("Ana", bindings.get("name"));
+      assertEquals("customer", Bindings.of(shared).get("name"));
+   }
+
+   @Test
+   void shouldHideLowerValueWithNull() {
+      Bindings bindings = Bindings.of(Collections.singletonMap("name", "John")).with("name", null);
+
+      assertTrue(bindings.contains("name"));
+      assertNull(bindings.get("name"));
+      assertThrows(IllegalArgumentException.class,
+            () -> CompiledTemplate.compile("#{name}").render(bindings));
+   }
+
+   @Test
+   void shouldNotModifyTemplateWhenRenderingWithBindings() {
+      // Given
+      TemplateEngine engine = new TemplateEngine();
+      Template template = new Template("#{greeting}, #{name}!");
+      template.addVariable("greeting", "Hello");
+
+      // When
+      String result = engine.generateMessage(template, null, template.getBindings().with("name", "John"));
+
+      // Then
+      assertEquals("Hello, John!", result);
+      assertFalse(template.getVariables().containsKey("name"));
+   }
+
+   @Test
+   void shouldReuseBindingsSnapshotUntilVariableIsAdded() {
+      Template template = new Template("#{name}");
+      template.addVariable("name", "John");
+      Bindings first = template.getBindings();
+
+      assertSame(first, template.getBindings());
+      template.addVariable("name", "Ana");
+      assertEquals("Ana", template.getBindings().get("name"));
+      assertEquals("John", first.get("name"));
+   }
+
+   @Test
+   void shouldLeaveSharedTemplateUnchangedWhenAddingVariableToCopy() {
+      // Given
+      TemplateEngine engine = new TemplateEngine();
+      Template shared = new Template("#{greeting}, #{name}!").withVariable("greeting", "Hello");
+      engine.generateMessage(shared, null, shared.getBindings().with("name", "John"));
+
+      // When
+      Template copy = shared.withVariable("name", "Ana");
+
+      // Then
+      assertEquals("Hello, Ana!", engine.generateMessage(copy, null, copy.getBindings()));
+      assertFalse(shared.getVariables().containsKey("name"));
+      assertSame(shared.getCompiled(), copy.getCompiled());
+   }
+
+   @Test
+   void shouldRenderOneTemplateFromManyThreads() throws Exception {
+      // Given
+      TemplateEngine engine = new TemplateEngine();
+      Template template = new Template("Dear #{name}, your code is #{code}.");
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      List<Future<String>> results = new ArrayList<>();
+
+      // When
+      try {
+         for (int i = 0; i < 200; i++) {
+            Bindings bindings = Bindings.empty().with("name", "client" + i).with("code", String.valueOf(i));
+            results.add(executor.submit(() -> engine.generateMessage(template, null, bindings)));
+         }
+
+         // Then
+         for (int i = 0; i < results.size(); i++) {
+            assertEquals("Dear client" + i + ", your code is " + i + ".", results.get(i).get());
+         }
+      } finally {
+         executor.shutdown();
+      }
+   }
+}
@@ -0,0 +1,97 @@
+package com.epam.ld.module2.testing.template;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Differential tests of the placeholder scanner against the regular expression it replaced.
+ */
+@ExtendWith(TestExecutionLogger.class)
+class CompiledTemplateScannerTest {
+   private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("#\\{([^}]+)}");
+   private static final String ALPHABET = "##{{}}aZ09_ -\né€";
+
+   @Test
+   void shouldMatchRegexOnEdgeCases() {
+      String[] texts = {"", "#{", "#{}", "#{a", "a}", "#{a}", "##{a}}", "#{#{a}", "#{a#{b}c}", "#{}{a}",
+            "#{a}#{b}", "#{ a}", "#{1a}", "#{a-b}", "#{é}", "#{€}", "#{a}€#{b}", "#{}#{}#{x}"};
+
+      for (String text : texts) {
+         assertEquals(regexScan(text), scan(text), text);
+      }
+   }
+
+   @Test
+   void shouldMatchRegexOnRandomTemplates() {
+      // Given
+      Random random = new Random(42);
+
+      for (int i = 0; i < 20_000; i++) {
+         String text = randomText(random, random.nextInt(40));
+
+         // When & Then
+         assertEquals(regexScan(text), scan(text), text);
+      }
+   }
+
+   private static List<String> scan(String text) {
+      List<String> result = new ArrayList<>();
+      try {
+         CompiledTemplate compiled = CompiledTemplate.compile(text);
+         for (int i = 0; i < compiled.getSlotCount(); i++) {
+            result.add("literal:" + compiled.getLiteral(i));
+            result.add("slot:" + compiled.getSlotName(i) + "@" + compiled.getSlotOffset(i));
+         }
+         result.add("literal:" + compiled.getLiteral(compiled.getSlotCount()));
+         result.add("placeholders:" + compiled.getPlaceholders());
+      } catch (IllegalArgumentException e) {
+         result.add("error:" + e.getMessage());
+      }
+      return result;
+   }
+
+   /**
+    * Reference implementation: the regular expression based compile this scanner replaced.
+    */
+   private static List<String> regexScan(String templateText) {
+      String text = CompiledTemplate.toLatin1(templateText);
+      List<String> result = new ArrayList<>();
+      List<String> placeholders = new ArrayList<>();
+      Matcher matcher = PLACEHOLDER_PATTERN.matcher(text);
+      int last = 0;
+      while (matcher.find()) {
+         String name = matcher.group(1);
+         if (!placeholders.contains(name)) {
+            if (!name.matches("[a-zA-Z][a-zA-Z0-9]*")) {
+               result.clear();
+               result.add("error:Invalid placeholder format: " + name);
+               return result;
+            }
+            placeholders.add(name);
+         }
+         result.add("literal:" + text.substring(last, matcher.start()));
+         result.add("slot:" + name + "@" + matcher.start());
+         last = matcher.end();
+      }
+      result.add("literal:" + text.substring(last));
+      result.add("placeholders:" + placeholders);
+      return result;
+   }
+
+   private static String randomText(Random random, int length) {
+      StringBuilder text = new StringBuilder(length);
+      for (int i = 0; i < length; i++) {
+         text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+      }
+      return text.toString();
+   }
+}
@@ -0,0 +1,169 @@
+package com.epam.ld.module2.testing.template;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import com.epam.ld.module2.testing.metrics.MessagingMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class CompiledTemplateTest {
+
+   @Test
+   void shouldRenderSameCompiledTemplateWithDifferentVariables() {
+      // Given
+      CompiledTemplate compiled = CompiledTemplate.compile("Dear #{name}, order #{orderId} for #{name}.");
+      Map<String, String> first = new HashMap<>();
+      first.put("name", "John");
+      first.put("orderId", "1");
+      Map<String, String> second = new HashMap<>();
+      second.put("name", "Ana");
+      second.put("orderId", "2");
+
+      // When & Then
+      assertEquals("Dear John, order 1 for John.", compiled.render(first));
+      assertEquals("Dear Ana, order 2 for Ana.", compiled.render(second));
+   }
+
+   @Test
+   void shouldExposeDistinctPlaceholdersInOrder() {
+      CompiledTemplate compiled = CompiledTemplate.compile("#{b} #{a} #{b}");
+
+      assertEquals(Arrays.asList("b", "a"), Arrays.asList(compiled.getPlaceholders().toArray()));
+   }
+
+   @Test
+   void shouldNotSubstituteInsideInsertedValues() {
+      // Given
+      CompiledTemplate compiled = CompiledTemplate.compile("#{first} #{second}");
+      Map<String, String> variables = new HashMap<>();
+      variables.put("first", "#{second}");
+      variables.put("second", "value");
+
+      // When
+      String result = compiled.render(variables);
+
+      // Then
+      assertEquals("#{second} value", result);
+   }
+
+   @Test
+   void shouldRejectInvalidPlaceholderAtCompileTime() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> CompiledTemplate.compile("Hello #{1name}"));
+
+      assertTrue(exception.getMessage().contains("1name"));
+   }
+
+   @Test
+   void shouldReuseCompiledTemplateFromEngineCache() {
+      TemplateEngine engine = new TemplateEngine();
+
+      CompiledTemplate first = engine.compile(new Template("Hello #{name}"));
+      CompiledTemplate second = engine.compile(new Template("Hello #{name}"));
+
+      assertSame(first, second);
+   }
+
+   @Test
+   void shouldEvictLeastRecentlyUsedTemplate() {
+      CompiledTemplateCache cache = new CompiledTemplateCache(2, new MessagingMetrics());
+
+      CompiledTemplate first = cache.get("#{a}");
+      cache.get("#{b}");
+      cache.get("#{a}");
+      cache.get("#{c}");
+
+      assertEquals(2, cache.size());
+      assertSame(first, cache.get("#{a}"));
+   }
+
+   @Test
+   void shouldRenderIntoAppendable() throws IOException {
+      // Given
+      CompiledTemplate compiled = CompiledTemplate.compile("¡Hola #{name}! #{tag} #{price}");
+      Map<String, String> variables = latin1Variables();
+      StringBuilder out = new StringBuilder("> ");
+
+      // When
+      compiled.render(variables, out);
+
+      // Then
+      assertEquals("> " + compiled.render(variables), out.toString());
+      assertEquals("> ¡Hola José! #{runtime €} 5 ?", out.toString());
+   }
+
+   @Test
+   void shouldEncodeIntoReusableLatin1Buffer() {
+      // Given
+      CompiledTemplate compiled = CompiledTemplate.compile("¡Hola #{name}! #{tag} #{price}");
+      Map<String, String> variables = latin1Variables();
+      ByteBuffer buffer = ByteBuffer.allocate(256);
+
+      for (int i = 0; i < 2; i++) {
+         // When
+         buffer.clear();
+         compiled.render(variables, buffer);
+
+         // Then
+         buffer.flip();
+         byte[] bytes = new byte[buffer.remaining()];
+         buffer.get(bytes);
+         assertArrayEquals(compiled.render(variables).getBytes(StandardCharsets.ISO_8859_1), bytes);
+      }
+   }
+
+   @Test
+   void shouldRenderLatin1BytesOfExactSize() {
+      // Given
+      CompiledTemplate compiled = CompiledTemplate.compile("¡Hola #{name}! #{tag} #{price}");
+      Bindings bindings = Bindings.of(latin1Variables());
+
+      // When
+      byte[] bytes = compiled.renderBytes(bindings);
+
+      // Then
+      assertArrayEquals(compiled.render(bindings).getBytes(StandardCharsets.ISO_8859_1), bytes);
+      assertEquals("¡Hola José! #{runtime ?} 5 ?", new String(bytes, StandardCharsets.ISO_8859_1));
+   }
+
+   @Test
+   void shouldRenderSameMessageInParallel() {
+      // Given
+      StringBuilder text = new StringBuilder();
+      Map<String, String> variables = new HashMap<>();
+      for (int i = 0; i < 2_000; i++) {
+         text.append("Segment ").append(i).append(" of the report ¡olé! #{p").append(i).append("} ");
+         variables.put("p" + i, i % 3 == 0 ? "José " + i : (i % 3 == 1 ? "#{tag €}" : "5 €\uD83D\uDE00"));
+      }
+      CompiledTemplate compiled = CompiledTemplate.compile(text.toString());
+      Bindings bindings = Bindings.of(variables);
+
+      // When
+      String parallel = compiled.renderParallel(bindings, new ForkJoinPool(4));
+
+      // Then
+      assertEquals(compiled.render(bindings), parallel);
+   }
+
+   private static Map<String, String> latin1Variables() {
+      Map<String, String> variables = new HashMap<>();
+      variables.put("name", "José");
+      variables.put("tag", "#{runtime €}");
+      variables.put("price", "5 \uD83D\uDE00");
+      return variables;
+   }
+}
@@ -0,0 +1,140 @@
+package com.epam.ld.module2.testing.template;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(TestExecutionLogger.class)
+class IncrementalRendererTest {
+
+   @Test
+   void shouldRebuildOnlyChangedSlots() {
+      // Given
+      CompiledTemplate template = CompiledTemplate.compile("Dear #{name}, #{body} Regards, #{sender}. Bye #{name}!");
+      Map<String, String> values = new HashMap<>();
+      values.put("name", "John");
+      values.put("body", "Your order shipped.");
+      values.put("sender", "Shop");
+      IncrementalRenderer renderer = new IncrementalRenderer(template, Bindings.of(values));
+
+      // When
+      String sameLength = renderer.update(Collections.singletonMap("name", "Jane"));
+      String longer = renderer.update(Collections.singletonMap("name", "Anastasia"));
+      String shorter = renderer.update(Collections.singletonMap("body", "Done."));
+
+      // Then
+      assertEquals("Dear Jane, Your order shipped. Regards, Shop. Bye Jane!", sameLength);
+      assertEquals("Dear Anastasia, Your order shipped. Regards, Shop. Bye Anastasia!", longer);
+      assertEquals("Dear Anastasia, Done. Regards, Shop. Bye Anastasia!", shorter);
+      assertEquals(shorter.length(), renderer.length());
+   }
+
+   @Test
+   void shouldReturnSameMessageWhenNothingChanged() {
+      // Given
+      CompiledTemplate template = CompiledTemplate.compile("Hello, #{name}!");
+      Bindings bindings = Bindings.empty().with("name", "John");
+      IncrementalRenderer renderer = new IncrementalRenderer(template, bindings);
+      String first = renderer.getMessage();
+
+      // When
+      String second = renderer.render(bindings.with("unused", "value"));
+      String third = renderer.update(Collections.singletonMap("name", "John"));
+
+      // Then
+      assertSame(first, second);
+      assertSame(first, third);
+   }
+
+   @Test
+   void shouldMatchFullRenderForRandomChanges() throws IOException {
+      // Given
+      StringBuilder text = new StringBuilder();
+      for (int i = 0; i < 40; i++) {
+         text.append("Segment ").append(i).append(" #{p").append(i % 12).append("} ");
+      }
+      CompiledTemplate template = CompiledTemplate.compile(text.toString());
+      Random random = new Random(42);
+      Map<String, String> values = new HashMap<>();
+      for (int i = 0; i < 12; i++) {
+         values.put("p" + i, "v" + i);
+      }
+      IncrementalRenderer renderer = new IncrementalRenderer(template, Bindings.of(values));
+
+      for (int round = 0; round < 500; round++) {
+         // When
+         for (int change = random.nextInt(3); change >= 0; change--) {
+            values.put("p" + random.nextInt(12), randomValue(random));
+         }
+         String rendered = round % 2 == 0
+               ? renderer.render(Bindings.of(new HashMap<>(values)))
+               : renderer.update(values);
+
+         // Then
+         assertEquals(template.render(values), rendered);
+         StringBuilder written = new StringBuilder();
+         renderer.writeTo(written);
+         assertEquals(rendered, written.toString());
+      }
+   }
+
+   @Test
+   void shouldKeepPreviousMessageOnInvalidChange() {
+      // Given
+      CompiledTemplate template = CompiledTemplate.compile("Hello, #{name}!");
+      IncrementalRenderer renderer = new IncrementalRenderer(template, Bindings.empty().with("name", "John"));
+
+      // When
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> renderer.update(Collections.singletonMap("name", null)));
+      assertThrows(IllegalArgumentException.class, () -> renderer.render(Bindings.empty()));
+
+      // Then
+      assertEquals("Null value not allowed for placeholder: name", exception.getMessage());
+      assertEquals("Hello, John!", renderer.getMessage());
+   }
+
+   @Test
+   void shouldNotApplyValuesStagedByFailedRender() {
+      // Given
+      CompiledTemplate template = CompiledTemplate.compile("#{first}-#{second}");
+      IncrementalRenderer renderer = new IncrementalRenderer(template,
+            Bindings.empty().with("first", "1").with("second", "1"));
+      Map<String, String> failing = new HashMap<String, String>() {
+         private int secondReads;
+
+         @Override
+         public String get(Object key) {
+            // Validation reads each value once; the read while rendering fails
+            if ("second".equals(key) && ++secondReads > 1) {
+               throw new IllegalStateException("value unavailable");
+            }
+            return super.get(key);
+         }
+      };
+      failing.put("first", "2");
+      failing.put("second", "2");
+
+      // When
+      assertThrows(IllegalStateException.class, () -> renderer.render(Bindings.of(failing)));
+      String updated = renderer.update(Collections.singletonMap("second", "3"));
+
+      // Then
+      assertEquals("1-3", updated);
+   }
+
+   private static String randomValue(Random random) {
+      String[] values = {"", "x", "José", "Ψ", "#{tag}", "a much longer replacement value", "abc"};
+      return values[random.nextInt(values.length)];
+   }
+}
@@ -0,0 +1,143 @@
+package com.epam.ld.module2.testing.template;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class RenderCacheTest {
+
+   @Test
+   void shouldReturnStoredMessageForSameValues() {
+      // Given
+      TemplateEngine engine = new TemplateEngine();
+      RenderCache cache = new RenderCache(1024);
+      engine.setRenderCache(cache);
+      CompiledTemplate template = CompiledTemplate.compile("Hello, #{name}!");
+
+      // When
+      String first = engine.render(template, Bindings.of(Collections.singletonMap("name", "John")));
+      String second = engine.render(template, Bindings.empty().with("name", "John").with("unused", "value"));
+      String other = engine.render(template, Bindings.empty().with("name", "Ana"));
+
+      // Then
+      assertEquals("Hello, John!", first);
+      assertSame(first, second);
+      assertEquals("Hello, Ana!", other);
+      assertEquals(1, cache.getHitCount());
+      assertEquals(2, cache.getMissCount());
+      assertEquals(2, cache.size());
+   }
+
+   @Test
+   void shouldShareOneReadOnlyBufferForSameValues() {
+      // Given
+      TemplateEngine engine = new TemplateEngine();
+      engine.setRenderCache(new RenderCache(1024));
+      CompiledTemplate template = CompiledTemplate.compile("¡Hola, #{name}!");
+      Bindings bindings = Bindings.empty().with("name", "José");
+
+      // When
+      ByteBuffer first = engine.renderBuffer(template, bindings);
+      first.get(new byte[first.remaining()]);
+      ByteBuffer second = engine.renderBuffer(template, bindings);
+
+      // Then
+      assertTrue(second.isReadOnly());
+      byte[] content = new byte[second.remaining()];
+      second.get(content);
+      assertEquals("¡Hola, José!", new String(content, StandardCharsets.ISO_8859_1));
+      assertEquals(0, first.remaining());
+   }
+
+   @Test
+   void shouldEvictLeastRecentlyUsedMessagesBeyondBound() {
+      // Given
+      RenderCache cache = new RenderCache(20);
+      TemplateEngine engine = new TemplateEngine();
+      engine.setRenderCache(cache);
+      CompiledTemplate template = CompiledTemplate.compile("Hi #{name}");
+
+      // When
+      for (String name : new String[]{"a", "b", "c", "a", "d", "e"}) {
+         engine.render(template, Bindings.empty().with("name", name));
+      }
+
+      // Then
+      assertEquals(20, cache.getCachedChars());
+      assertEquals(1, cache.getEvictionCount());
+      assertEquals(1, cache.getHitCount());
+      engine.render(template, Bindings.empty().with("name", "a"));
+      assertEquals(2, cache.getHitCount());
+      engine.render(template, Bindings.empty().with("name", "b"));
+      assertEquals(6, cache.getMissCount());
+   }
+
+   @Test
+   void shouldChargeBuffersToBound() {
+      // Given
+      RenderCache cache = new RenderCache(23);
+      TemplateEngine engine = new TemplateEngine();
+      engine.setRenderCache(cache);
+      CompiledTemplate template = CompiledTemplate.compile("Hi #{name}");
+      for (String name : new String[]{"a", "b", "c", "d"}) {
+         engine.render(template, Bindings.empty().with("name", name));
+      }
+
+      // When
+      engine.renderBuffer(template, Bindings.empty().with("name", "d"));
+      engine.renderBuffer(template, Bindings.empty().with("name", "d"));
+
+      // Then
+      assertEquals(19, cache.getCachedChars());
+      assertEquals(1, cache.getEvictionCount());
+      assertEquals(3, cache.size());
+      engine.render(template, Bindings.empty().with("name", "a"));
+      assertEquals(5, cache.getMissCount());
+   }
+
+   @Test
+   void shouldRenderValueSourcesWithoutCaching() {
+      // Given
+      RenderCache cache = new RenderCache(1024);
+      TemplateEngine engine = new TemplateEngine();
+      engine.setRenderCache(cache);
+      CompiledTemplate template = CompiledTemplate.compile("Hello, #{name}!");
+      AtomicInteger produced = new AtomicInteger();
+      Bindings bindings = Bindings.empty().withSource("name", ValueSource.of(() -> "Ana" + produced.incrementAndGet()));
+
+      // When
+      String message = engine.render(template, bindings);
+
+      // Then
+      assertEquals("Hello, Ana1!", message);
+      assertEquals(1, produced.get());
+      assertEquals(0, cache.size());
+      assertEquals(0, cache.getCachedChars());
+   }
+
+   @Test
+   void shouldNotCacheFailedRenders() {
+      // Given
+      RenderCache cache = new RenderCache(1024);
+      TemplateEngine engine = new TemplateEngine();
+      engine.setRenderCache(cache);
+      CompiledTemplate template = CompiledTemplate.compile("Hello, #{name}!");
+
+      // When & Then
+      assertThrows(IllegalArgumentException.class, () -> engine.render(template, Bindings.empty()));
+      assertThrows(IllegalArgumentException.class, () -> engine.render(template, Bindings.empty()));
+      assertEquals(0, cache.size());
+      assertEquals(2, cache.getMissCount());
+   }
+}
@@ -325,6 +325,22 @@ class TemplateEngineTest {
       assertEquals("Test development", engine.generateMessage(template, null));
    }
 
+   @Test
+   void shouldRenderInParallelAboveThreshold() {
+      // Given
+      engine.setParallelThreshold(0);
+      Template template = new Template("Hello, #{name}! Order #{orderId} is ready.");
+      template.addVariable("name", "John");
+      template.addVariable("orderId", "42");
+
+      // When
+      String result = engine.generateMessage(template, null);
+
+      // Then
+      assertEquals("Hello, John! Order 42 is ready.", result);
+      assertThrows(IllegalArgumentException.class, () -> engine.setParallelThreshold(-1));
+   }
+
    @Test
    void shouldThrowExceptionWithProperMessageForMissingPlaceholder() {
       // Given
@@ -0,0 +1,151 @@
+package com.epam.ld.module2.testing.template;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(TestExecutionLogger.class)
+class TemplateRegistryTest {
+
+   @Test
+   void shouldRestoreUnchangedTemplatesFromSnapshot(@TempDir Path tempDir) throws IOException {
+      // Given
+      Path snapshot = tempDir.resolve("templates.snapshot");
+      write(tempDir, "welcome.txt", "Hello, #{name}! Ψ #{}");
+      write(tempDir, "bye.txt", "Bye, #{name}. See you #{day}, #{name}.");
+      TemplateRegistry first = new TemplateRegistry(tempDir, snapshot);
+      first.load();
+
+      // When
+      TemplateRegistry second = new TemplateRegistry(tempDir, snapshot);
+      second.load();
+
+      // Then
+      assertEquals(2, first.getCompiledCount());
+      assertEquals(0, second.getCompiledCount());
+      assertEquals(2, second.getRestoredCount());
+      assertEquals(new HashSet<>(Arrays.asList("bye", "welcome")), second.getNames());
+      Bindings bindings = Bindings.empty().with("name", "Ana").with("day", "Monday");
+      assertEquals("Hello, Ana! ? #{}", second.getCompiled("welcome").render(bindings));
+      assertEquals("Bye, Ana. See you Monday, Ana.", new TemplateEngine().generateMessage(second.getTemplate("bye"),
+            null, bindings));
+      assertEquals(first.getCompiled("bye").getPlaceholders(), second.getCompiled("bye").getPlaceholders());
+      assertNull(second.getTemplate("missing"));
+   }
+
+   @Test
+   void shouldRecompileOnlyTemplatesWhoseContentChanged(@TempDir Path tempDir) throws IOException {
+      // Given
+      Path snapshot = tempDir.resolve("templates.snapshot");
+      Path changed = write(tempDir, "changed.txt", "Old #{value}");
+      Path touched = write(tempDir, "touched.txt", "Same #{value}");
+      Path removed = write(tempDir, "removed.txt", "Gone #{value}");
+      new TemplateRegistry(tempDir, snapshot).load();
+      Files.write(changed, "New #{other}".getBytes(StandardCharsets.UTF_8));
+      Files.setLastModifiedTime(changed, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+      Files.setLastModifiedTime(touched, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+      Files.delete(removed);
+
+      // When
+      TemplateRegistry registry = new TemplateRegistry(tempDir, snapshot);
+      registry.load();
+      TemplateRegistry reloaded = new TemplateRegistry(tempDir, snapshot);
+      reloaded.load();
+
+      // Then
+      assertEquals(1, registry.getCompiledCount());
+      assertEquals(1, registry.getRestoredCount());
+      assertEquals(Collections.singleton("other"), registry.getCompiled("changed").getPlaceholders());
+      assertNull(registry.getCompiled("removed"));
+      assertEquals(0, reloaded.getCompiledCount());
+      assertEquals(2, reloaded.getRestoredCount());
+   }
+
+   @Test
+   void shouldNotCountTemplatesKeptInMemoryAsRestored(@TempDir Path tempDir) throws IOException {
+      // Given
+      write(tempDir, "first.txt", "First #{value}");
+      write(tempDir, "second.txt", "Second #{value}");
+      TemplateRegistry registry = new TemplateRegistry(tempDir, tempDir.resolve("templates.snapshot"));
+      registry.load();
+
+      // When
+      registry.load();
+
+      // Then
+      assertEquals(0, registry.getCompiledCount());
+      assertEquals(0, registry.getRestoredCount());
+   }
+
+   @Test
+   void shouldRecompileAllWhenSnapshotIsCorrupt(@TempDir Path tempDir) throws IOException {
+      // Given
+      Path snapshot = tempDir.resolve("templates.snapshot");
+      write(tempDir, "a.txt", "A #{x}");
+      write(tempDir, "b.txt", "B #{y}");
+      new TemplateRegistry(tempDir, snapshot).load();
+      byte[] data = Files.readAllBytes(snapshot);
+      data[data.length / 2] ^= 0x55;
+      Files.write(snapshot, data);
+
+      // When
+      TemplateRegistry registry = new TemplateRegistry(tempDir, snapshot);
+      registry.load();
+
+      // Then
+      assertEquals(2, registry.getCompiledCount());
+      assertEquals("A 1", registry.getCompiled("a").render(Collections.singletonMap("x", "1")));
+   }
+
+   @Test
+   void shouldNameInvalidTemplate(@TempDir Path tempDir) throws IOException {
+      // Given
+      write(tempDir, "broken.txt", "Hello, #{1name}!");
+      TemplateRegistry registry = new TemplateRegistry(tempDir, tempDir.resolve("templates.snapshot"));
+
+      // When
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, registry::load);
+
+      // Then
+      assertEquals("Invalid template broken: Invalid placeholder format: 1name", exception.getMessage());
+   }
+
+   @Test
+   void shouldRemoveTemporarySnapshotWhenWriteFails(@TempDir Path tempDir) throws IOException {
+      // Given
+      Path templates = Files.createDirectory(tempDir.resolve("templates"));
+      write(templates, "greeting.txt", "Hello, #{name}!");
+      Path snapshot = tempDir.resolve("templates.snapshot");
+      TemplateRegistry registry = new TemplateRegistry(templates, snapshot);
+      registry.load();
+      Files.delete(snapshot);
+      write(Files.createDirectory(snapshot), "occupied.txt", "not a snapshot");
+      write(templates, "farewell.txt", "Bye, #{name}!");
+
+      // When
+      assertThrows(IOException.class, registry::load);
+
+      // Then
+      assertFalse(Files.exists(tempDir.resolve("templates.snapshot.tmp")));
+      assertEquals("Bye, Ana!", registry.getCompiled("farewell").render(Collections.singletonMap("name", "Ana")));
+   }
+
+   private static Path write(Path directory, String name, String content) throws IOException {
+      return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+   }
+}
@@ -0,0 +1,130 @@
+package com.epam.ld.module2.testing.template;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class TemplateWatcherTest {
+   private static final Map<String, String> VALUES = Collections.singletonMap("name", "Ana");
+
+   @Test
+   void shouldPublishChangedAndAddedTemplates(@TempDir Path tempDir) throws IOException, InterruptedException {
+      // Given
+      Path templates = Files.createDirectory(tempDir.resolve("templates"));
+      write(templates, "greeting.txt", "Old #{name}");
+      TemplateRegistry registry = new TemplateRegistry(templates, tempDir.resolve("templates.snapshot"));
+      try (TemplateWatcher watcher = new TemplateWatcher(registry, 20)) {
+         watcher.start();
+         CompiledTemplate before = registry.getCompiled("greeting");
+
+         // When
+         replace(templates, "greeting.txt", "New #{name}");
+         replace(templates, "farewell.txt", "Bye #{name}");
+
+         // Then
+         awaitTrue(() -> registry.getCompiled("farewell") != null
+               && "New Ana".equals(registry.getCompiled("greeting").render(VALUES)));
+         assertEquals("Old Ana", before.render(VALUES));
+         assertEquals("Bye Ana", registry.getCompiled("farewell").render(VALUES));
+         assertNull(watcher.getLastFailure());
+      }
+   }
+
+   @Test
+   void shouldKeepPublishedTemplatesWhenReloadFails(@TempDir Path tempDir) throws IOException, InterruptedException {
+      // Given
+      Path templates = Files.createDirectory(tempDir.resolve("templates"));
+      write(templates, "greeting.txt", "Hello #{name}");
+      TemplateRegistry registry = new TemplateRegistry(templates, tempDir.resolve("templates.snapshot"));
+      try (TemplateWatcher watcher = new TemplateWatcher(registry, 20)) {
+         watcher.start();
+
+         // When
+         replace(templates, "greeting.txt", "Hello #{1name}");
+         awaitTrue(() -> watcher.getLastFailure() != null);
+
+         // Then
+         assertEquals("Hello Ana", registry.getCompiled("greeting").render(VALUES));
+         assertEquals("Invalid template greeting: Invalid placeholder format: 1name",
+               watcher.getLastFailure().getMessage());
+         replace(templates, "greeting.txt", "Hi #{name}");
+         awaitTrue(() -> watcher.getLastFailure() == null);
+         assertEquals("Hi Ana", registry.getCompiled("greeting").render(VALUES));
+      }
+   }
+
+   @Test
+   void shouldRenderWholeTemplatesWhileReloading(@TempDir Path tempDir) throws IOException, InterruptedException {
+      // Given
+      Path templates = Files.createDirectory(tempDir.resolve("templates"));
+      write(templates, "greeting.txt", "Version 0 for #{name}");
+      TemplateRegistry registry = new TemplateRegistry(templates, tempDir.resolve("templates.snapshot"));
+      TemplateEngine engine = new TemplateEngine();
+      Set<String> rendered = ConcurrentHashMap.newKeySet();
+      AtomicBoolean reading = new AtomicBoolean(true);
+      Thread reader = new Thread(() -> {
+         Bindings bindings = Bindings.of(VALUES);
+         while (reading.get()) {
+            rendered.add(engine.render(registry.getCompiled("greeting"), bindings));
+         }
+      });
+      try (TemplateWatcher watcher = new TemplateWatcher(registry, 0)) {
+         watcher.start();
+         reader.start();
+
+         // When
+         for (int version = 1; version <= 5; version++) {
+            replace(templates, "greeting.txt", "Version " + version + " for #{name}");
+            String expected = "Version " + version + " for Ana";
+            awaitTrue(() -> rendered.contains(expected));
+         }
+         reading.set(false);
+         reader.join();
+
+         // Then
+         for (String message : rendered) {
+            assertTrue(message.matches("Version [0-5] for Ana"), message);
+         }
+         assertTrue(watcher.getReloadCount() >= 5);
+      }
+   }
+
+   private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+         Thread.sleep(5);
+      }
+      assertTrue(condition.getAsBoolean());
+   }
+
+   /**
+    * Writes the file next to the directory and moves it in, so the watcher never reads it half written.
+    */
+   private static void replace(Path directory, String name, String content) throws IOException {
+      Path staged = write(directory.getParent(), name, content);
+      Files.move(staged, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+   }
+
+   private static Path write(Path directory, String name, String content) throws IOException {
+      return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+   }
+}
@@ -0,0 +1,95 @@
+package com.epam.ld.module2.testing.template;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import com.epam.ld.module2.testing.metrics.MetricsSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class ValidationReportTest {
+   private TemplateEngine engine;
+
+   @BeforeEach
+   void setUp() {
+      engine = new TemplateEngine();
+   }
+
+   @Test
+   void shouldReportEveryProblemOfBatch() {
+      // Given
+      Template template = new Template("Hi #{name}, order #{orderId} ships #{day}. #{1st} #{bad-name}");
+      List<Bindings> batch = Arrays.asList(
+            Bindings.empty().with("name", "Ana").with("orderId", "1").with("day", "today"),
+            Bindings.empty().with("name", "Bob").with("day", null),
+            Bindings.empty().with("name", "#{tag}").with("orderId", "3").with("day", "today"),
+            Bindings.empty().with("name", "Eve"));
+
+      // When
+      ValidationReport report = engine.validate(template, batch);
+
+      // Then
+      assertFalse(report.isValid());
+      assertEquals(4, report.getCheckedBindings());
+      assertEquals(Arrays.asList("1st", "bad-name"), placeholders(report.getProblems(PlaceholderIssue.MALFORMED)));
+      ValidationReport.Problem missing = report.getProblems(PlaceholderIssue.MISSING).get(0);
+      assertEquals("orderId", missing.getPlaceholder());
+      assertEquals(2, missing.getCount());
+      assertEquals(1, missing.getFirstIndex());
+      assertEquals(Collections.singletonList("day"), placeholders(report.getProblems(PlaceholderIssue.NULL_VALUE)));
+      ValidationReport.Problem runtimeTag = report.getProblems(PlaceholderIssue.RUNTIME_TAG).get(0);
+      assertEquals("name", runtimeTag.getPlaceholder());
+      assertEquals(2, runtimeTag.getFirstIndex());
+      assertEquals(6, report.getProblems().size());
+   }
+
+   @Test
+   void shouldThrowListingAllBlockingProblems() {
+      // Given
+      Template template = new Template("#{a} #{b} #{c}");
+      ValidationReport report = engine.validate(template, Bindings.empty().with("a", "#{raw}").with("b", null));
+
+      // When
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, report::throwIfInvalid);
+
+      // Then
+      assertEquals("Template validation failed: NULL_VALUE b in 1 bindings, first at 0; "
+            + "MISSING c in 1 bindings, first at 0", exception.getMessage());
+      MetricsSnapshot snapshot = engine.getMetrics().snapshot();
+      assertEquals(1, snapshot.getValidationFailures(PlaceholderIssue.NULL_VALUE));
+      assertEquals(1, snapshot.getValidationFailures(PlaceholderIssue.MISSING));
+      assertEquals(0, snapshot.getValidationFailures(PlaceholderIssue.RUNTIME_TAG));
+   }
+
+   @Test
+   void shouldRenderValidatedBindingsWithoutCheckingThemAgain() {
+      // Given
+      Template template = new Template("Hello, #{name}! #{name} #{tag}");
+      Bindings bindings = Bindings.empty().with("name", "Zoë").with("tag", "#{raw}");
+      ValidationReport report = engine.validate(template, bindings);
+      CompiledTemplate compiled = engine.compile(template);
+
+      // When
+      String message = engine.renderValidated(compiled, bindings);
+
+      // Then
+      assertTrue(report.isValid());
+      assertEquals(1, report.getProblems(PlaceholderIssue.RUNTIME_TAG).size());
+      assertEquals(compiled.render(bindings), message);
+      assertEquals("Hello, Zoë! Zoë #{raw}", message);
+   }
+
+   private static List<String> placeholders(List<ValidationReport.Problem> problems) {
+      return problems.stream().map(ValidationReport.Problem::getPlaceholder).collect(Collectors.toList());
+   }
+}
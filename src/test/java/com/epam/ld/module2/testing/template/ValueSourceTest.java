@@ -0,0 +1,127 @@
+package com.epam.ld.module2.testing.template;
+
+import com.epam.ld.module2.testing.extension.TestExecutionLogger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(TestExecutionLogger.class)
+class ValueSourceTest {
+
+   @Test
+   void shouldNotComputeValueWhenValidationFails() {
+      // Given
+      AtomicInteger calls = new AtomicInteger();
+      CompiledTemplate template = CompiledTemplate.compile("#{greeting}, #{name}!");
+      Bindings bindings = Bindings.empty().withSource("name", ValueSource.of(() -> {
+         calls.incrementAndGet();
+         return "John";
+      }));
+
+      // When
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> template.render(bindings));
+
+      // Then
+      assertEquals("Missing values for placeholders: greeting", exception.getMessage());
+      assertEquals(0, calls.get());
+   }
+
+   @Test
+   void shouldComputeLazyTemplateVariableOnceAcrossRenders() {
+      // Given
+      AtomicInteger calls = new AtomicInteger();
+      Template template = new Template("Hello, #{name}! Bye, #{name}.");
+      template.addLazyVariable("name", () -> calls.incrementAndGet() == 1 ? "José" : "other");
+      TemplateEngine engine = new TemplateEngine();
+
+      // When
+      String first = engine.generateMessage(template, null);
+      String second = engine.generateMessage(template, null);
+
+      // Then
+      assertEquals("Hello, José! Bye, José.", first);
+      assertEquals(first, second);
+      assertEquals(1, calls.get());
+      assertEquals("José", template.getVariables().get("name"));
+   }
+
+   @Test
+   void shouldRejectNullComputedValue() {
+      // Given
+      CompiledTemplate template = CompiledTemplate.compile("Hello, #{name}!");
+      Bindings bindings = Bindings.empty().withSource("name", ValueSource.of(() -> null));
+
+      // When
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> template.renderBytes(bindings));
+
+      // Then
+      assertEquals("Null value not allowed for placeholder: name", exception.getMessage());
+   }
+
+   @Test
+   void shouldStreamReaderIntoOutputAsLatin1() throws IOException {
+      // Given
+      CompiledTemplate template = CompiledTemplate.compile("Input: #{input} (#{name})");
+      StringBuilder large = new StringBuilder();
+      for (int i = 0; i < 5000; i++) {
+         large.append("Grüße 😀 €").append(i).append('\n');
+      }
+      Bindings bindings = Bindings.empty().with("name", "Ana").withSource("input",
+            ValueSource.of(new StringReader(large.toString())));
+      StringWriter out = new StringWriter();
+
+      // When
+      template.render(bindings, out);
+
+      // Then
+      assertEquals("Input: " + CompiledTemplate.toLatin1(large.toString()) + " (Ana)", out.toString());
+      assertThrows(IllegalStateException.class, () -> template.render(bindings, new StringWriter()));
+   }
+
+   @Test
+   void shouldWriteComputedValueAsLatin1() throws IOException {
+      // Given
+      AtomicInteger calls = new AtomicInteger();
+      ValueSource source = ValueSource.of(() -> {
+         calls.incrementAndGet();
+         return "Grüße €";
+      });
+      StringBuilder out = new StringBuilder();
+
+      // When
+      source.writeTo(out);
+      source.writeTo(out);
+
+      // Then
+      assertEquals("Grüße ?Grüße ?", out.toString());
+      assertEquals(1, calls.get());
+   }
+
+   @Test
+   void shouldReadChannelValueForRepeatedPlaceholder() {
+      // Given
+      CompiledTemplate template = CompiledTemplate.compile("#{input} and again #{input}");
+      ValueSource input = ValueSource.of(Channels.newChannel(
+            new ByteArrayInputStream("señor Ψ".getBytes(StandardCharsets.UTF_8))), StandardCharsets.UTF_8);
+
+      // When
+      String message = template.render(Bindings.empty().withSource("input", input));
+
+      // Then
+      assertEquals("señor ? and again señor ?", message);
+      assertTrue(Bindings.empty().withSource("input", input).contains("input"));
+   }
+}